@@ -0,0 +1,85 @@
+package space.schrws.cherrypicker.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Calendar;
+
+import space.schrws.cherrypicker.CalendarMath;
+
+/**
+ * Date arithmetic on the month binding path: days in month, day of week and
+ * the pager's month <-> position mapping, with the Calendar-based mapping
+ * it replaced as a baseline.
+ */
+@State(Scope.Thread)
+public class CalendarMathBenchmark {
+    private static final int MIN_YEAR = 1900;
+    private static final int MAX_YEAR = 2100;
+    private static final int POSITION_COUNT = (MAX_YEAR - MIN_YEAR + 1) * 12;
+    private final Calendar mMinDate = Calendar.getInstance();
+    private final Calendar mDay = Calendar.getInstance();
+    private int mMinMonthIndex;
+    private int mPosition;
+
+    @Setup
+    public void setUp() {
+        mMinDate.clear();
+        mMinDate.set(MIN_YEAR, Calendar.JANUARY, 1);
+        mMinMonthIndex = CalendarMath.getMonthIndex(mMinDate);
+    }
+
+    private int nextPosition() {
+        mPosition = mPosition + 7 < POSITION_COUNT ? mPosition + 7 : 0;
+        return mPosition;
+    }
+
+    @Benchmark
+    public void getDaysInMonth(Blackhole bh) {
+        final int monthIndex = mMinMonthIndex + nextPosition();
+        bh.consume(CalendarMath.getDaysInMonth(CalendarMath.getMonthForMonthIndex(monthIndex),
+                CalendarMath.getYearForMonthIndex(monthIndex)));
+    }
+
+    @Benchmark
+    public void getDayOfWeek(Blackhole bh) {
+        final int monthIndex = mMinMonthIndex + nextPosition();
+        bh.consume(CalendarMath.getDayOfWeek(CalendarMath.getYearForMonthIndex(monthIndex),
+                CalendarMath.getMonthForMonthIndex(monthIndex), 1));
+    }
+
+    @Benchmark
+    public void epochDayRoundTrip(Blackhole bh) {
+        final int epochDay = CalendarMath.toEpochDay(MIN_YEAR, 0, 1) + nextPosition() * 30;
+        bh.consume(CalendarMath.fromEpochDay(epochDay));
+    }
+
+    @Benchmark
+    public void monthForPosition(Blackhole bh) {
+        final int monthIndex = mMinMonthIndex + nextPosition();
+        bh.consume(CalendarMath.getMonthForMonthIndex(monthIndex));
+        bh.consume(CalendarMath.getYearForMonthIndex(monthIndex));
+    }
+
+    @Benchmark
+    public void positionForDay(Blackhole bh) {
+        final int monthIndex = mMinMonthIndex + nextPosition();
+        final int day = CalendarMath.pack(CalendarMath.getYearForMonthIndex(monthIndex),
+                CalendarMath.getMonthForMonthIndex(monthIndex), 15);
+        bh.consume(CalendarMath.getMonthIndex(CalendarMath.getYear(day),
+                CalendarMath.getMonth(day)) - mMinMonthIndex);
+    }
+
+    /** The pre-CalendarMath mapping, kept as a baseline. */
+    @Benchmark
+    public void positionForDayCalendar(Blackhole bh) {
+        final int position = nextPosition();
+        mDay.set(MIN_YEAR + position / 12, position % 12, 15);
+        final int yearOffset = mDay.get(Calendar.YEAR) - mMinDate.get(Calendar.YEAR);
+        final int monthOffset = mDay.get(Calendar.MONTH) - mMinDate.get(Calendar.MONTH);
+        bh.consume(yearOffset * 12 + monthOffset);
+    }
+}
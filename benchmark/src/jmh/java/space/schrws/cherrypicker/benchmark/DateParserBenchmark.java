@@ -0,0 +1,56 @@
+package space.schrws.cherrypicker.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import space.schrws.cherrypicker.DateParser;
+
+/**
+ * Parsing of the minDate / maxDate attribute values, compared with the
+ * SimpleDateFormat based parser it replaced.
+ */
+@State(Scope.Thread)
+public class DateParserBenchmark {
+    private final Calendar mOutDate = Calendar.getInstance();
+    private final TimeZone mZone = TimeZone.getDefault();
+
+    @Benchmark
+    public void parseDate(Blackhole bh) {
+        bh.consume(DateParser.parseDate("12/31/2100", mOutDate));
+    }
+
+    @Benchmark
+    public void parseDateLegacy(Blackhole bh) {
+        bh.consume(LegacyDateParser.parseDate("12/31/2100", mOutDate));
+    }
+
+    @Benchmark
+    public void parseInvalidDate(Blackhole bh) {
+        bh.consume(DateParser.parseDate("not a date", mOutDate));
+    }
+
+    @Benchmark
+    public void parseInvalidDateLegacy(Blackhole bh) {
+        bh.consume(LegacyDateParser.parseDate("not a date", mOutDate));
+    }
+
+    @Benchmark
+    public void parseMillis(Blackhole bh) {
+        bh.consume(DateParser.parseMillis("12/31/2100", mZone));
+    }
+
+    @Benchmark
+    public void parseMillisIso(Blackhole bh) {
+        bh.consume(DateParser.parseMillis("2100-12-31T23:59:59.999+01:00", mZone));
+    }
+
+    @Benchmark
+    public void parsePackedDate(Blackhole bh) {
+        bh.consume(DateParser.parsePackedDate("2100-12-31"));
+    }
+}
@@ -0,0 +1,29 @@
+package space.schrws.cherrypicker.benchmark;
+
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * The SimpleDateFormat based parser that DateParser replaced, kept as a
+ * baseline. Not thread-safe.
+ */
+class LegacyDateParser {
+    private static final String DATE_FORMAT = "MM/dd/yyyy";
+    private static final DateFormat DATE_FORMATTER = new SimpleDateFormat(DATE_FORMAT);
+
+    static boolean parseDate(String date, Calendar outDate) {
+        if (date == null || date.isEmpty()) {
+            return false;
+        }
+        try {
+            final Date parsedDate = DATE_FORMATTER.parse(date);
+            outDate.setTime(parsedDate);
+            return true;
+        } catch (ParseException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package space.schrws.cherrypicker.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Calendar;
+
+import space.schrws.cherrypicker.MonthGrid;
+
+/**
+ * Hit-testing and cell geometry on the month grid, as done for every touch,
+ * hover and pointer event and for every drawn day. Dimensions match a 44dp x
+ * 40dp cell at xxhdpi.
+ */
+@State(Scope.Thread)
+public class MonthGridBenchmark {
+    private static final int CELL_WIDTH = 132;
+    private static final int DAY_HEIGHT = 120;
+    private static final int HEADER_HEIGHT = 276;
+    private static final int PADDED_WIDTH = CELL_WIDTH * 7;
+    private static final int PADDED_HEIGHT = HEADER_HEIGHT + DAY_HEIGHT * 6;
+
+    @Param({"false", "true"})
+    public boolean rtl;
+    private int mX;
+    private int mY = HEADER_HEIGHT;
+    private int mDay;
+    private final MonthGrid mGrid = new MonthGrid();
+
+    @Setup
+    public void setUp() {
+        mGrid.update(PADDED_WIDTH, PADDED_HEIGHT, HEADER_HEIGHT, CELL_WIDTH, DAY_HEIGHT, rtl,
+                3, 31);
+    }
+
+    @Benchmark
+    public void findDayOffset(Blackhole bh) {
+        for (int weekStart = Calendar.SUNDAY; weekStart <= Calendar.SATURDAY; weekStart++) {
+            bh.consume(MonthGrid.findDayOffset(Calendar.WEDNESDAY, weekStart));
+        }
+    }
+
+    @Benchmark
+    public void getDayAtLocation(Blackhole bh) {
+        // Sweep the grid so every row and column gets hit.
+        mX = mX + 37 < PADDED_WIDTH ? mX + 37 : 0;
+        mY = mY + 29 < PADDED_HEIGHT ? mY + 29 : HEADER_HEIGHT;
+        bh.consume(MonthGrid.getDayAtLocation(mX, mY, PADDED_WIDTH, PADDED_HEIGHT,
+                HEADER_HEIGHT, DAY_HEIGHT, rtl, 3, 31));
+    }
+
+    @Benchmark
+    public void getDayAt(Blackhole bh) {
+        mX = mX + 37 < PADDED_WIDTH ? mX + 37 : 0;
+        mY = mY + 29 < PADDED_HEIGHT ? mY + 29 : HEADER_HEIGHT;
+        bh.consume(mGrid.getDayAt(mX, mY));
+    }
+
+    /** Baseline: day centers as SimpleMonthView computed them before the cell table. */
+    @Benchmark
+    public void dayCenterComputed(Blackhole bh) {
+        mDay = mDay == 31 ? 1 : mDay + 1;
+        final int offset = MonthGrid.findDayOffset(Calendar.WEDNESDAY, Calendar.SUNDAY);
+        final int col = (offset + mDay - 1) % 7;
+        final int colCenter = CELL_WIDTH * col + CELL_WIDTH / 2;
+        bh.consume(rtl ? PADDED_WIDTH - colCenter : colCenter);
+        final int row = (offset + mDay - 1) / 7;
+        bh.consume(HEADER_HEIGHT + DAY_HEIGHT * row + DAY_HEIGHT / 2);
+    }
+
+    @Benchmark
+    public void dayCenterCached(Blackhole bh) {
+        mDay = mDay == 31 ? 1 : mDay + 1;
+        bh.consume(mGrid.getCenterX(mDay));
+        bh.consume(mGrid.getCenterY(mDay));
+    }
+}
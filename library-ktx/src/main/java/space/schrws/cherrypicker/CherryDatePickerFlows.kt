@@ -0,0 +1,133 @@
+package space.schrws.cherrypicker
+
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.channels.SendChannel
+import kotlinx.coroutines.channels.awaitClose
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.callbackFlow
+import kotlinx.coroutines.flow.collect
+import kotlinx.coroutines.flow.conflate
+import kotlinx.coroutines.flow.flowOn
+import kotlinx.coroutines.launch
+
+/**
+ * A day of a [CherryDatePicker]. [month] is zero-based, as in
+ * [java.util.Calendar.MONTH].
+ */
+data class PickerDate(val year: Int, val month: Int, val dayOfMonth: Int)
+
+/**
+ * A month of a [CherryDatePicker]. [month] is zero-based, as in
+ * [java.util.Calendar.MONTH].
+ */
+data class PickerMonth(val year: Int, val month: Int)
+
+/**
+ * Emits the current date, then each date the picker changes to.
+ *
+ * The flow is conflated, so a slow collector only sees the latest date and
+ * `collectLatest` cancels work for dates that went stale. Each collection
+ * adds its own listener, removed when collection stops, so several
+ * collectors and the [CherryDatePicker.OnDateChangedListener] set on the
+ * picker all keep receiving dates.
+ */
+fun CherryDatePicker.dateChanges(): Flow<PickerDate> = callbackFlow<PickerDate> {
+    offerIfOpen(PickerDate(year, month, dayOfMonth))
+    val listener = CherryDatePicker.OnDateChangedListener { _, y, m, d ->
+        offerIfOpen(PickerDate(y, m, d))
+    }
+    addOnDateChangedListener(listener)
+    awaitClose { removeOnDateChangedListener(listener) }
+}.conflatedOnMain()
+
+/**
+ * Emits the month shown in the calendar, then each month the calendar moves
+ * to, whether swiped to or following a date change.
+ *
+ * The flow is conflated and adds its own listener like [dateChanges].
+ */
+fun CherryDatePicker.visibleMonthChanges(): Flow<PickerMonth> = callbackFlow<PickerMonth> {
+    offerIfOpen(PickerMonth(visibleYear, visibleMonth))
+    val listener = CherryDatePicker.OnVisibleMonthChangedListener { _, y, m ->
+        offerIfOpen(PickerMonth(y, m))
+    }
+    addOnVisibleMonthChangedListener(listener)
+    awaitClose { removeOnVisibleMonthChangedListener(listener) }
+}.conflatedOnMain()
+
+/**
+ * Emits the months a swipe is heading to, as soon as the user starts
+ * swiping, so their data can load behind the swipe animation.
+ *
+ * Unlike the other flows this one is not conflated, since each month is a
+ * separate hint. It adds its own listener like [dateChanges].
+ */
+fun CherryDatePicker.monthPrefetches(): Flow<PickerMonth> = callbackFlow<PickerMonth> {
+    val listener = CherryDatePicker.OnPrefetchMonthListener { _, y, m ->
+        offerIfOpen(PickerMonth(y, m))
+    }
+    addOnPrefetchMonthListener(listener)
+    awaitClose { removeOnPrefetchMonthListener(listener) }
+}.flowOn(Dispatchers.Main.immediate)
+
+/**
+ * Emits whether the year picker is shown, then each time it is shown or
+ * hidden.
+ *
+ * The flow is conflated and adds its own listener like [dateChanges].
+ */
+fun CherryDatePicker.yearViewShownChanges(): Flow<Boolean> = callbackFlow<Boolean> {
+    offerIfOpen(isYearViewShown)
+    val listener = CherryDatePicker.OnYearViewShownListener { _, shown -> offerIfOpen(shown) }
+    addOnYearViewShownListener(listener)
+    awaitClose { removeOnYearViewShownListener(listener) }
+}.conflatedOnMain()
+
+/**
+ * Returns the date as a [StateFlow], kept up to date until [scope] is
+ * cancelled.
+ */
+fun CherryDatePicker.dateState(scope: CoroutineScope): StateFlow<PickerDate> =
+    dateChanges().toStateFlow(scope, PickerDate(year, month, dayOfMonth))
+
+/**
+ * Returns the month shown in the calendar as a [StateFlow], kept up to date
+ * until [scope] is cancelled.
+ */
+fun CherryDatePicker.visibleMonthState(scope: CoroutineScope): StateFlow<PickerMonth> =
+    visibleMonthChanges().toStateFlow(scope, PickerMonth(visibleYear, visibleMonth))
+
+/**
+ * Returns whether the year picker is shown as a [StateFlow], kept up to date
+ * until [scope] is cancelled.
+ */
+fun CherryDatePicker.yearViewShownState(scope: CoroutineScope): StateFlow<Boolean> =
+    yearViewShownChanges().toStateFlow(scope, isYearViewShown)
+
+/**
+ * Listeners are added, called and removed on the main thread, and only
+ * the latest value waits for a slow collector.
+ */
+private fun <T> Flow<T>.conflatedOnMain(): Flow<T> =
+    conflate().flowOn(Dispatchers.Main.immediate)
+
+/**
+ * Drops values sent after collection stopped but before the listener was
+ * removed, instead of throwing.
+ */
+private fun <E> SendChannel<E>.offerIfOpen(element: E) {
+    if (!isClosedForSend) {
+        offer(element)
+    }
+}
+
+private fun <T> Flow<T>.toStateFlow(scope: CoroutineScope, initialValue: T): StateFlow<T> {
+    val state = MutableStateFlow(initialValue)
+    scope.launch(Dispatchers.Main.immediate) {
+        collect { state.value = it }
+    }
+    return state
+}
@@ -0,0 +1,63 @@
+package space.schrws.cherrypicker
+
+import android.arch.lifecycle.Lifecycle
+import android.arch.lifecycle.LifecycleObserver
+import android.arch.lifecycle.LifecycleOwner
+import android.arch.lifecycle.OnLifecycleEvent
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.launch
+
+/**
+ * Runs [block] on the main thread each time the lifecycle is started, and
+ * cancels it each time the lifecycle is stopped. This keeps picker flows
+ * collected only while the picker can be seen:
+ *
+ * ```
+ * launchWhileStarted {
+ *     picker.visibleMonthChanges().collectLatest { loadAvailability(it) }
+ * }
+ * ```
+ *
+ * Nothing runs again once the lifecycle is destroyed or the returned job is
+ * cancelled. Must be called on the main thread.
+ */
+fun LifecycleOwner.launchWhileStarted(block: suspend CoroutineScope.() -> Unit): Job {
+    val observer = WhileStartedObserver(block)
+    if (lifecycle.currentState == Lifecycle.State.DESTROYED) {
+        observer.job.cancel()
+    } else {
+        // Catches up with the current state right away.
+        lifecycle.addObserver(observer)
+    }
+    return observer.job
+}
+
+private class WhileStartedObserver(
+    private val block: suspend CoroutineScope.() -> Unit
+) : LifecycleObserver {
+    val job = SupervisorJob()
+    private val scope = CoroutineScope(job + Dispatchers.Main.immediate)
+    private var startedJob: Job? = null
+
+    @OnLifecycleEvent(Lifecycle.Event.ON_ANY)
+    fun onStateChanged(owner: LifecycleOwner, event: Lifecycle.Event) {
+        if (!job.isActive || event == Lifecycle.Event.ON_DESTROY) {
+            owner.lifecycle.removeObserver(this)
+            job.cancel()
+            return
+        }
+        when (event) {
+            Lifecycle.Event.ON_START -> if (startedJob == null) {
+                startedJob = scope.launch(block = block)
+            }
+            Lifecycle.Event.ON_STOP -> {
+                startedJob?.cancel()
+                startedJob = null
+            }
+            else -> Unit
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package space.schrws.cherrypicker
+
+import android.app.Activity
+import android.os.Build
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.flow.launchIn
+import kotlinx.coroutines.flow.onEach
+import kotlinx.coroutines.plus
+import kotlinx.coroutines.test.TestCoroutineDispatcher
+import kotlinx.coroutines.test.resetMain
+import kotlinx.coroutines.test.runBlockingTest
+import kotlinx.coroutines.test.setMain
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.Robolectric
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import space.schrws.cherrypicker.ktx.R
+import java.util.Calendar
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [Build.VERSION_CODES.P])
+class CherryDatePickerFlowsTest {
+    private val dispatcher = TestCoroutineDispatcher()
+    private lateinit var picker: CherryDatePicker
+
+    @Before
+    fun setUp() {
+        Dispatchers.setMain(dispatcher)
+        val controller = Robolectric.buildActivity(Activity::class.java)
+        controller.get().setTheme(R.style.Theme_AppCompat_Light)
+        val activity = controller.setup().get()
+        picker = CherryDatePicker(activity)
+        activity.setContentView(picker)
+        picker.updateDate(2018, Calendar.OCTOBER, 26)
+    }
+
+    @After
+    fun tearDown() {
+        Dispatchers.resetMain()
+        dispatcher.cleanupTestCoroutines()
+    }
+
+    @Test
+    fun dateChangesEmitsCurrentDateThenChanges() = dispatcher.runBlockingTest {
+        val dates = mutableListOf<PickerDate>()
+        val job = picker.dateChanges().onEach { dates += it }.launchIn(this)
+        picker.updateDate(2019, Calendar.JANUARY, 5)
+        job.cancel()
+        picker.updateDate(2019, Calendar.FEBRUARY, 6)
+        assertEquals(
+            listOf(
+                PickerDate(2018, Calendar.OCTOBER, 26),
+                PickerDate(2019, Calendar.JANUARY, 5)
+            ),
+            dates
+        )
+    }
+
+    @Test
+    fun collectingKeepsListenerSetOnPicker() = dispatcher.runBlockingTest {
+        var calls = 0
+        picker.setOnDateChangedListener { _, _, _, _ -> calls++ }
+        val job = picker.dateChanges().launchIn(this)
+        picker.updateDate(2019, Calendar.JANUARY, 5)
+        job.cancel()
+        picker.updateDate(2019, Calendar.FEBRUARY, 6)
+        assertEquals(2, calls)
+    }
+
+    @Test
+    fun collectorsReceiveChangesIndependently() = dispatcher.runBlockingTest {
+        val first = mutableListOf<PickerDate>()
+        val second = mutableListOf<PickerDate>()
+        val firstJob = picker.dateChanges().onEach { first += it }.launchIn(this)
+        val secondJob = picker.dateChanges().onEach { second += it }.launchIn(this)
+        picker.updateDate(2019, Calendar.JANUARY, 5)
+        firstJob.cancel()
+        picker.updateDate(2019, Calendar.FEBRUARY, 6)
+        secondJob.cancel()
+        assertEquals(2, first.size)
+        assertEquals(3, second.size)
+        assertEquals(PickerDate(2019, Calendar.FEBRUARY, 6), second.last())
+    }
+
+    @Test
+    fun visibleMonthChangesFollowsDate() = dispatcher.runBlockingTest {
+        val months = mutableListOf<PickerMonth>()
+        val job = picker.visibleMonthChanges().onEach { months += it }.launchIn(this)
+        picker.updateDate(2019, Calendar.MARCH, 1)
+        job.cancel()
+        assertEquals(PickerMonth(2018, Calendar.OCTOBER), months.first())
+        assertEquals(PickerMonth(2019, Calendar.MARCH), months.last())
+    }
+
+    @Test
+    fun yearViewShownChangesFollowsHeader() = dispatcher.runBlockingTest {
+        val shown = mutableListOf<Boolean>()
+        val job = picker.yearViewShownChanges().onEach { shown += it }.launchIn(this)
+        picker.findViewById<android.view.View>(R.id.date_picker_header_year).performClick()
+        picker.findViewById<android.view.View>(R.id.date_picker_header_date).performClick()
+        job.cancel()
+        assertEquals(listOf(false, true, false), shown)
+    }
+
+    @Test
+    fun dateStateHoldsLatestDate() = dispatcher.runBlockingTest {
+        val job = Job()
+        val state = picker.dateState(this + job)
+        assertEquals(PickerDate(2018, Calendar.OCTOBER, 26), state.value)
+        picker.updateDate(2019, Calendar.JANUARY, 5)
+        assertEquals(PickerDate(2019, Calendar.JANUARY, 5), state.value)
+        job.cancel()
+        picker.updateDate(2019, Calendar.FEBRUARY, 6)
+        assertEquals(PickerDate(2019, Calendar.JANUARY, 5), state.value)
+    }
+}
@@ -0,0 +1,92 @@
+package space.schrws.cherrypicker
+
+import android.arch.lifecycle.Lifecycle
+import android.arch.lifecycle.LifecycleOwner
+import android.arch.lifecycle.LifecycleRegistry
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.test.TestCoroutineDispatcher
+import kotlinx.coroutines.test.resetMain
+import kotlinx.coroutines.test.setMain
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+
+class LifecycleOwnersTest {
+    private val dispatcher = TestCoroutineDispatcher()
+    private val owner = TestLifecycleOwner()
+    private var starts = 0
+    private var stops = 0
+
+    @Before
+    fun setUp() {
+        Dispatchers.setMain(dispatcher)
+    }
+
+    @After
+    fun tearDown() {
+        Dispatchers.resetMain()
+        dispatcher.cleanupTestCoroutines()
+    }
+
+    private fun launchCounting() = owner.launchWhileStarted {
+        starts++
+        try {
+            delay(Long.MAX_VALUE)
+        } finally {
+            stops++
+        }
+    }
+
+    @Test
+    fun runsWhileStarted() {
+        owner.registry.handleLifecycleEvent(Lifecycle.Event.ON_CREATE)
+        val job = launchCounting()
+        assertEquals(0, starts)
+        owner.registry.handleLifecycleEvent(Lifecycle.Event.ON_START)
+        assertEquals(1, starts)
+        owner.registry.handleLifecycleEvent(Lifecycle.Event.ON_STOP)
+        assertEquals(1, stops)
+        owner.registry.handleLifecycleEvent(Lifecycle.Event.ON_START)
+        assertEquals(2, starts)
+        owner.registry.handleLifecycleEvent(Lifecycle.Event.ON_STOP)
+        owner.registry.handleLifecycleEvent(Lifecycle.Event.ON_DESTROY)
+        assertEquals(2, stops)
+        assertTrue(job.isCancelled)
+    }
+
+    @Test
+    fun catchesUpWithStartedLifecycle() {
+        owner.registry.handleLifecycleEvent(Lifecycle.Event.ON_START)
+        val job = launchCounting()
+        assertEquals(1, starts)
+        job.cancel()
+    }
+
+    @Test
+    fun cancellingStopsFurtherStarts() {
+        owner.registry.handleLifecycleEvent(Lifecycle.Event.ON_START)
+        val job = launchCounting()
+        job.cancel()
+        assertEquals(1, stops)
+        owner.registry.handleLifecycleEvent(Lifecycle.Event.ON_STOP)
+        owner.registry.handleLifecycleEvent(Lifecycle.Event.ON_START)
+        assertEquals(1, starts)
+    }
+
+    @Test
+    fun destroyedLifecycleRunsNothing() {
+        owner.registry.handleLifecycleEvent(Lifecycle.Event.ON_CREATE)
+        owner.registry.handleLifecycleEvent(Lifecycle.Event.ON_DESTROY)
+        val job = launchCounting()
+        assertTrue(job.isCancelled)
+        assertEquals(0, starts)
+    }
+
+    private class TestLifecycleOwner : LifecycleOwner {
+        val registry = LifecycleRegistry(this)
+        override fun getLifecycle(): Lifecycle = registry
+    }
+}
@@ -0,0 +1,225 @@
+package space.schrws.cherrypicker;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Primitive-only date arithmetic on the proleptic Gregorian calendar.
+ * <p>
+ * Dates are passed around either as epoch days (days since 1970-01-01) or as
+ * packed {@code yyyymmdd} ints. Months are zero-based to match
+ * {@link Calendar#MONTH}, days of week are one-based to match
+ * {@link Calendar#DAY_OF_WEEK}. Nothing in here allocates, so ranges of
+ * any size can be mapped to pager or list positions by plain arithmetic.
+ * <p>
+ * Calendars that exchange dates with this class should come from
+ * {@link #newCalendar(Locale)}, which follows the same rules before the
+ * Gregorian cutover of October 1582.
+ */
+public class CalendarMath {
+    public static final int MONTHS_IN_YEAR = 12;
+    public static final int DAYS_IN_WEEK = 7;
+    /** The first year the pickers can show. */
+    public static final int MIN_YEAR = 1;
+    /** The last year the pickers can show. */
+    public static final int MAX_YEAR = 9999;
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+    /** Days from 0000-03-01 to 1970-01-01. */
+    private static final int DAYS_0000_TO_1970 = 719468;
+    private static final int DAYS_PER_ERA = 146097;
+
+    /**
+     * Returns a calendar for the current time that uses the proleptic
+     * Gregorian calendar for all dates, rather than switching to the Julian
+     * calendar before October 1582.
+     */
+    public static Calendar newCalendar(Locale locale) {
+        final GregorianCalendar calendar = new GregorianCalendar(locale);
+        calendar.setGregorianChange(new Date(Long.MIN_VALUE));
+        return calendar;
+    }
+
+    public static Calendar newCalendar() {
+        return newCalendar(Locale.getDefault());
+    }
+
+    /**
+     * Clamps a calendar from {@link #newCalendar(Locale)} to the supported
+     * years, {@link #MIN_YEAR} through {@link #MAX_YEAR}.
+     */
+    public static void constrain(Calendar calendar) {
+        if (calendar.get(Calendar.ERA) == GregorianCalendar.BC) {
+            calendar.set(MIN_YEAR, Calendar.JANUARY, 1);
+            calendar.set(Calendar.ERA, GregorianCalendar.AD);
+        } else if (calendar.get(Calendar.YEAR) > MAX_YEAR) {
+            calendar.set(MAX_YEAR, Calendar.DECEMBER, 31);
+        }
+    }
+
+    public static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    public static int getDaysInMonth(int month, int year) {
+        switch (month) {
+            case Calendar.JANUARY:
+            case Calendar.MARCH:
+            case Calendar.MAY:
+            case Calendar.JULY:
+            case Calendar.AUGUST:
+            case Calendar.OCTOBER:
+            case Calendar.DECEMBER:
+                return 31;
+            case Calendar.APRIL:
+            case Calendar.JUNE:
+            case Calendar.SEPTEMBER:
+            case Calendar.NOVEMBER:
+                return 30;
+            case Calendar.FEBRUARY:
+                return isLeapYear(year) ? 29 : 28;
+            default:
+                throw new IllegalArgumentException("Invalid Month");
+        }
+    }
+
+    /**
+     * Returns the number of days since 1970-01-01 for the given date.
+     *
+     * @param year the year
+     * @param month the zero-based month
+     * @param dayOfMonth the one-based day of the month
+     */
+    public static int toEpochDay(int year, int month, int dayOfMonth) {
+        final int m = month + 1;
+        final int y = m <= 2 ? year - 1 : year;
+        final int era = (y >= 0 ? y : y - 399) / 400;
+        final int yearOfEra = y - era * 400;
+        final int dayOfYear = (153 * (m > 2 ? m - 3 : m + 9) + 2) / 5 + dayOfMonth - 1;
+        final int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * DAYS_PER_ERA + dayOfEra - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * Returns the epoch day containing the specified instant in the given
+     * time zone.
+     */
+    public static int toEpochDay(long timeInMillis, TimeZone zone) {
+        final long local = timeInMillis + zone.getOffset(timeInMillis);
+        final long day = local / MILLIS_PER_DAY;
+        return (int) (local < 0 && day * MILLIS_PER_DAY != local ? day - 1 : day);
+    }
+
+    /**
+     * Converts a wall-clock time, in millis since 1970-01-01T00:00 in the
+     * given time zone, into epoch millis. Like {@link Calendar}, a time that
+     * occurs twice resolves to the later, standard time instant, and a time
+     * skipped by a daylight saving transition is read with the offset before
+     * the transition, which pushes it forward.
+     */
+    public static long toEpochMillis(long localMillis, TimeZone zone) {
+        // Offsets in effect a day either side; a transition may lie between.
+        final int before = zone.getOffset(localMillis - MILLIS_PER_DAY);
+        final int after = zone.getOffset(localMillis + MILLIS_PER_DAY);
+        final boolean validBefore = zone.getOffset(localMillis - before) == before;
+        final boolean validAfter = zone.getOffset(localMillis - after) == after;
+        if (validBefore && validAfter) {
+            // The smaller offset gives the later instant.
+            return localMillis - Math.min(before, after);
+        }
+        if (validAfter) {
+            return localMillis - after;
+        }
+        // Either the only valid offset, or the local time falls in a gap.
+        return localMillis - before;
+    }
+
+    /**
+     * Returns the first instant of an epoch day in the given time zone.
+     */
+    public static long getStartOfEpochDay(int epochDay, TimeZone zone) {
+        return toEpochMillis(epochDay * MILLIS_PER_DAY, zone);
+    }
+
+    /**
+     * Converts an epoch day into a packed {@code yyyymmdd} value, where the
+     * month component is one-based as it would be written.
+     */
+    public static int fromEpochDay(int epochDay) {
+        final int z = epochDay + DAYS_0000_TO_1970;
+        final int era = (z >= 0 ? z : z - DAYS_PER_ERA + 1) / DAYS_PER_ERA;
+        final int dayOfEra = z - era * DAYS_PER_ERA;
+        final int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524
+                - dayOfEra / (DAYS_PER_ERA - 1)) / 365;
+        final int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        final int mp = (5 * dayOfYear + 2) / 153;
+        final int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        final int m = mp < 10 ? mp + 3 : mp - 9;
+        final int year = yearOfEra + era * 400 + (m <= 2 ? 1 : 0);
+        return pack(year, m - 1, day);
+    }
+
+    /**
+     * Packs a date into a {@code yyyymmdd} int.
+     *
+     * @param year the year
+     * @param month the zero-based month
+     * @param dayOfMonth the one-based day of the month
+     */
+    public static int pack(int year, int month, int dayOfMonth) {
+        return year * 10000 + (month + 1) * 100 + dayOfMonth;
+    }
+
+    public static int getYear(int packedDate) {
+        return packedDate / 10000;
+    }
+
+    /** Returns the zero-based month of a packed date. */
+    public static int getMonth(int packedDate) {
+        return (packedDate / 100) % 100 - 1;
+    }
+
+    public static int getDayOfMonth(int packedDate) {
+        return packedDate % 100;
+    }
+
+    /**
+     * Returns the day of week, {@link Calendar#SUNDAY} through
+     * {@link Calendar#SATURDAY}, for the given epoch day.
+     */
+    public static int getDayOfWeek(int epochDay) {
+        // 1970-01-01 was a Thursday.
+        return floorMod(epochDay + 4, DAYS_IN_WEEK) + 1;
+    }
+
+    public static int getDayOfWeek(int year, int month, int dayOfMonth) {
+        return getDayOfWeek(toEpochDay(year, month, dayOfMonth));
+    }
+
+    /**
+     * Returns a monotonically increasing index for a month, suitable for
+     * computing pager positions by subtraction.
+     */
+    public static int getMonthIndex(int year, int month) {
+        return year * MONTHS_IN_YEAR + month;
+    }
+
+    public static int getMonthIndex(Calendar calendar) {
+        return getMonthIndex(calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH));
+    }
+
+    public static int getYearForMonthIndex(int monthIndex) {
+        return (monthIndex - floorMod(monthIndex, MONTHS_IN_YEAR)) / MONTHS_IN_YEAR;
+    }
+
+    public static int getMonthForMonthIndex(int monthIndex) {
+        return floorMod(monthIndex, MONTHS_IN_YEAR);
+    }
+
+    private static int floorMod(int x, int y) {
+        final int mod = x % y;
+        return mod < 0 ? mod + y : mod;
+    }
+}
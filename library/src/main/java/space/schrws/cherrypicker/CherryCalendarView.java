@@ -1,7 +1,192 @@
 package space.schrws.cherrypicker;
 
+import android.content.Context;
+import android.support.annotation.Nullable;
+import android.util.AttributeSet;
+import android.widget.CalendarView;
+import android.widget.FrameLayout;
+
+import java.util.Calendar;
+import java.util.concurrent.Executor;
+
 /**
- * Created by Schrws on 2018-10-25.
+ * A month calendar to embed inline, showing one month at a time with the
+ * selected day, without the header and year list of {@link CherryDatePicker}.
+ * <p>
+ * It only builds the day picker, so it inflates faster and keeps less in
+ * memory than a date picker. Its attributes are those of the
+ * {@code CherryCalendarView} styleable, such as {@code minDate},
+ * {@code maxDate} and the text appearances, styled through
+ * {@code calendarViewStyle}.
  */
-public class CherryCalendarView {
+public class CherryCalendarView extends FrameLayout {
+    private final DayPickerView mDayPickerView;
+    private OnDateChangeListener mOnDateChangeListener;
+    /**
+     * The callback used to indicate the user changed the date.
+     */
+    public interface OnDateChangeListener {
+        /**
+         * Called upon change of the selected day.
+         *
+         * @param view The view associated with this listener.
+         * @param year The year that was set.
+         * @param month The month that was set (0-11) for compatibility
+         *            with {@link java.util.Calendar}.
+         * @param dayOfMonth The day of the month that was set.
+         */
+        void onSelectedDayChange(CherryCalendarView view, int year, int month, int dayOfMonth);
+    }
+    public CherryCalendarView(Context context) {
+        this(context, null);
+    }
+    public CherryCalendarView(Context context, @Nullable AttributeSet attrs) {
+        this(context, attrs, R.attr.calendarViewStyle);
+    }
+    public CherryCalendarView(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        this(context, attrs, defStyleAttr, 0);
+    }
+    public CherryCalendarView(Context context, @Nullable AttributeSet attrs, int defStyleAttr,
+                              int defStyleRes) {
+        super(context, attrs, defStyleAttr, defStyleRes);
+        // The day picker reads the calendar attributes itself, while this view
+        // keeps the View ones.
+        mDayPickerView = new DayPickerView(context, attrs, defStyleAttr, defStyleRes, true);
+        mDayPickerView.setOnDaySelectedListener(mOnDaySelectedListener);
+        addView(mDayPickerView, new LayoutParams(LayoutParams.MATCH_PARENT,
+                LayoutParams.MATCH_PARENT));
+    }
+    /**
+     * Sets the listener to call when the user selects a day.
+     *
+     * @param listener the listener, may be null
+     */
+    public void setOnDateChangeListener(OnDateChangeListener listener) {
+        mOnDateChangeListener = listener;
+    }
+    /**
+     * Sets the selected date, jumping to its month. The date is constrained
+     * to the min and max dates.
+     *
+     * @param date the selected date in milliseconds since the epoch
+     */
+    public void setDate(long date) {
+        mDayPickerView.setDate(date);
+    }
+    /**
+     * Sets the selected date, optionally animating to its month.
+     *
+     * @param date the selected date in milliseconds since the epoch
+     * @param animate whether to smooth scroll to the month of the date
+     */
+    public void setDate(long date, boolean animate) {
+        mDayPickerView.setDate(date, animate);
+    }
+    /**
+     * @return the selected date in milliseconds since the epoch
+     */
+    public long getDate() {
+        return mDayPickerView.getDate();
+    }
+    public void setMinDate(long minDate) {
+        mDayPickerView.setMinDate(minDate);
+    }
+    public long getMinDate() {
+        return mDayPickerView.getMinDate();
+    }
+    public void setMaxDate(long maxDate) {
+        mDayPickerView.setMaxDate(maxDate);
+    }
+    public long getMaxDate() {
+        return mDayPickerView.getMaxDate();
+    }
+    /**
+     * @param firstDayOfWeek the first day of the week, as in
+     *                       {@link Calendar#SUNDAY}
+     */
+    public void setFirstDayOfWeek(int firstDayOfWeek) {
+        mDayPickerView.setFirstDayOfWeek(firstDayOfWeek);
+    }
+    public int getFirstDayOfWeek() {
+        return mDayPickerView.getFirstDayOfWeek();
+    }
+    /**
+     * Sets the pool used to recycle month pages, which may be shared with
+     * other calendars and date pickers in the same Activity.
+     *
+     * @param pool the pool to use
+     */
+    public void setMonthViewPool(MonthViewPool pool) {
+        mDayPickerView.setMonthViewPool(pool);
+    }
+    public MonthViewPool getMonthViewPool() {
+        return mDayPickerView.getMonthViewPool();
+    }
+    /**
+     * Sets the validator deciding which days can be selected, evaluated on
+     * the main thread.
+     *
+     * @param validator the validator, or {@code null} to enable every day
+     * @see CherryDatePicker#setDateValidator(DateValidator)
+     */
+    public void setDateValidator(DateValidator validator) {
+        mDayPickerView.setDateValidator(validator, null);
+    }
+    /**
+     * Sets the validator deciding which days can be selected, evaluated on
+     * an executor.
+     *
+     * @param validator the validator, or {@code null} to enable every day
+     * @param executor the executor to evaluate the validator on
+     * @see CherryDatePicker#setDateValidator(DateValidator, Executor)
+     */
+    public void setDateValidator(DateValidator validator, Executor executor) {
+        mDayPickerView.setDateValidator(validator, executor);
+    }
+    public DateValidator getDateValidator() {
+        return mDayPickerView.getDateValidator();
+    }
+    /**
+     * Re-evaluates the validator after the days it accepts changed.
+     */
+    public void notifyDateValidatorChanged() {
+        mDayPickerView.notifyDateValidatorChanged();
+    }
+    /**
+     * Sets the decorator supplying the dots, badges and tints drawn on days.
+     *
+     * @param decorator the decorator, or {@code null} for none
+     */
+    public void setDayDecorator(DayDecorator decorator) {
+        mDayPickerView.setDayDecorator(decorator);
+    }
+    public DayDecorator getDayDecorator() {
+        return mDayPickerView.getDayDecorator();
+    }
+    /**
+     * Queries the decorator again after the decorations changed.
+     */
+    public void notifyDayDecoratorChanged() {
+        mDayPickerView.notifyDayDecoratorChanged();
+    }
+    @Override
+    public void setEnabled(boolean enabled) {
+        super.setEnabled(enabled);
+        mDayPickerView.setEnabled(enabled);
+    }
+    @Override
+    public CharSequence getAccessibilityClassName() {
+        return CalendarView.class.getName();
+    }
+    private final DayPickerView.OnDaySelectedListener mOnDaySelectedListener = new DayPickerView.OnDaySelectedListener() {
+        @Override
+        public void onDaySelected(DayPickerView view, Calendar day) {
+            mDayPickerView.setDate(day.getTimeInMillis());
+            if (mOnDateChangeListener != null) {
+                mOnDateChangeListener.onSelectedDayChange(CherryCalendarView.this,
+                        day.get(Calendar.YEAR), day.get(Calendar.MONTH),
+                        day.get(Calendar.DAY_OF_MONTH));
+            }
+        }
+    };
 }
@@ -2,8 +2,10 @@ package space.schrws.cherrypicker;
 
 import android.content.Context;
 import android.content.res.Configuration;
+import android.os.AsyncTask;
 import android.os.Parcel;
 import android.os.Parcelable;
+import android.support.annotation.IntDef;
 import android.text.format.DateUtils;
 import android.util.AttributeSet;
 import android.util.Log;
@@ -18,6 +20,8 @@ import android.widget.FrameLayout;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
 /*
  * Copyright (C) 2007 The Android Open Source Project
@@ -59,6 +63,57 @@ public class CherryDatePicker extends FrameLayout {
     /** @hide */
     @Retention(RetentionPolicy.SOURCE)
     public @interface DatePickerMode {}
+    /**
+     * Selection mode where the user picks a single date.
+     *
+     * @see #setSelectionMode(int)
+     */
+    public static final int SELECTION_MODE_SINGLE = 0;
+    /**
+     * Selection mode where the user picks a range of dates, by clicking its
+     * first and last day or by dragging either end of it.
+     *
+     * @see #setSelectionMode(int)
+     */
+    public static final int SELECTION_MODE_RANGE = 1;
+    /**
+     * Selection mode where the user picks any set of dates, toggling each
+     * date by clicking it.
+     *
+     * @see #setSelectionMode(int)
+     */
+    public static final int SELECTION_MODE_MULTIPLE = 2;
+    /** @hide */
+    @IntDef({SELECTION_MODE_SINGLE, SELECTION_MODE_RANGE, SELECTION_MODE_MULTIPLE})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface SelectionMode {}
+    /**
+     * Date changes update the views and notify the listeners right away.
+     * This is the default.
+     *
+     * @see #setDateChangeMode(int)
+     */
+    public static final int DATE_CHANGE_IMMEDIATE = 0;
+    /**
+     * Date changes update the views once per frame, and listeners are
+     * notified of the latest date along with that update.
+     *
+     * @see #setDateChangeMode(int)
+     */
+    public static final int DATE_CHANGE_PER_FRAME = 1;
+    /**
+     * Date changes update the views once per frame, and listeners are
+     * notified of the latest date once no change happened for the quiet
+     * period.
+     *
+     * @see #setDateChangeMode(int)
+     * @see #setDateChangeQuietPeriod(long)
+     */
+    public static final int DATE_CHANGE_DEBOUNCED = 2;
+    /** @hide */
+    @IntDef({DATE_CHANGE_IMMEDIATE, DATE_CHANGE_PER_FRAME, DATE_CHANGE_DEBOUNCED})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface DateChangeMode {}
     private final CherryDatePickerDelegate mDelegate;
     /**
      * The callback used to indicate the user changed the date.
@@ -75,6 +130,76 @@ public class CherryDatePicker extends FrameLayout {
          */
         void onDateChanged(CherryDatePicker view, int year, int monthOfYear, int dayOfMonth);
     }
+    /**
+     * The callback used to indicate the user changed the range in
+     * {@link #SELECTION_MODE_RANGE}.
+     */
+    public interface OnDateRangeChangedListener {
+        /**
+         * Called upon a range change. The calendars are reused, copy them to
+         * keep the dates.
+         *
+         * @param view The view associated with this listener.
+         * @param start The first day of the range.
+         * @param end The last day of the range, or {@code null} if only the
+         *            first day has been picked so far.
+         */
+        void onDateRangeChanged(CherryDatePicker view, Calendar start, Calendar end);
+    }
+    /**
+     * The callback used to indicate the selected dates changed in
+     * {@link #SELECTION_MODE_MULTIPLE}.
+     */
+    public interface OnSelectedDatesChangedListener {
+        /**
+         * Called once per toggle by the user, and once per call to a bulk
+         * method such as {@link #setDatesSelected(long, long, boolean)}.
+         *
+         * @param view The view associated with this listener.
+         */
+        void onSelectedDatesChanged(CherryDatePicker view);
+    }
+    /**
+     * The callback used to indicate another month is shown in the calendar.
+     */
+    public interface OnVisibleMonthChangedListener {
+        /**
+         * Called when the user swipes to another month, or the date or the
+         * min and max dates change which month is shown.
+         *
+         * @param view The view associated with this listener.
+         * @param year The year of the month now shown.
+         * @param month The month now shown (0-11).
+         */
+        void onVisibleMonthChanged(CherryDatePicker view, int year, int month);
+    }
+    /**
+     * The callback used to hint which months are about to be shown, so their
+     * data can be loaded while the user swipes.
+     */
+    public interface OnPrefetchMonthListener {
+        /**
+         * Called as soon as the user starts swiping, before the new month
+         * settles, for each of the next months in the direction of the swipe,
+         * nearest first. The swipe may still be cancelled.
+         *
+         * @param view The view associated with this listener.
+         * @param year The year of a month about to be shown.
+         * @param month A month about to be shown (0-11).
+         */
+        void onPrefetchMonth(CherryDatePicker view, int year, int month);
+    }
+    /**
+     * The callback used to indicate the year picker was shown or hidden.
+     */
+    public interface OnYearViewShownListener {
+        /**
+         * @param view The view associated with this listener.
+         * @param shown Whether the year picker is now shown instead of the
+         *            calendar.
+         */
+        void onYearViewShown(CherryDatePicker view, boolean shown);
+    }
     public CherryDatePicker(Context context) {
         this(context, null);
     }
@@ -104,6 +229,45 @@ public class CherryDatePicker extends FrameLayout {
 //        });
     }
 
+    /**
+     * Loads the locale data, formatters and text appearances used by date
+     * pickers on a background thread, so that the first picker shown with
+     * the specified context doesn't pay for them on the UI thread.
+     * <p>
+     * Pickers themselves may also be constructed off the UI thread, e.g. by
+     * an asynchronous layout inflater, as long as they are attached and used
+     * on the UI thread afterwards.
+     *
+     * @param context the themed context pickers will be created with
+     */
+    public static void prewarm(Context context) {
+        prewarm(context, AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+    /**
+     * Loads the locale data, formatters and text appearances used by date
+     * pickers on the specified executor, e.g. one the app already runs its
+     * startup work on.
+     *
+     * @param context the themed context pickers will be created with
+     * @param executor the executor to load on
+     * @see #prewarm(Context)
+     */
+    public static void prewarm(final Context context, Executor executor) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final Locale locale = Locale.getDefault();
+                final DateFormatCache formats = DateFormatCache.get(locale);
+                // Formatting once also loads the locale's calendar data.
+                final Calendar today = Calendar.getInstance(locale);
+                formats.getMonthYearLabel(today.get(Calendar.YEAR), today.get(Calendar.MONTH));
+                formats.formatHeaderYear(today.getTime());
+                formats.formatHeaderMonthDay(today.getTime());
+                DayPickerView.prewarmTextAppearances(context);
+            }
+        });
+    }
+
     private CherryDatePickerDelegate createCalendarUIDelegate(Context context, AttributeSet attrs,
                                                         int defStyleAttr, int defStyleRes) {
         return new CherryDatePickerDelegate(this, context, attrs, defStyleAttr, defStyleRes);
@@ -132,6 +296,23 @@ public class CherryDatePicker extends FrameLayout {
     public void setOnDateChangedListener(OnDateChangedListener onDateChangedListener) {
         mDelegate.setOnDateChangedListener(onDateChangedListener);
     }
+    /**
+     * Adds a listener called when the date has been adjusted by the user,
+     * in addition to the one set by {@link #setOnDateChangedListener}.
+     *
+     * @param listener the listener to add
+     */
+    public void addOnDateChangedListener(OnDateChangedListener listener) {
+        mDelegate.addOnDateChangedListener(listener);
+    }
+    /**
+     * Removes a listener added by {@link #addOnDateChangedListener}.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeOnDateChangedListener(OnDateChangedListener listener) {
+        mDelegate.removeOnDateChangedListener(listener);
+    }
     /**
      * Update the current date.
      *
@@ -215,6 +396,329 @@ public class CherryDatePicker extends FrameLayout {
     public void setValidationCallback(ValidationCallback callback) {
         mDelegate.setValidationCallback(callback);
     }
+    /**
+     * Sets the pool used to recycle month pages. Sharing one pool between
+     * several pickers in the same Activity lets them reuse each other's
+     * pages instead of inflating new ones.
+     *
+     * @param pool the pool to use
+     */
+    public void setMonthViewPool(MonthViewPool pool) {
+        mDelegate.setMonthViewPool(pool);
+    }
+    /**
+     * @return the pool used to recycle month pages
+     */
+    public MonthViewPool getMonthViewPool() {
+        return mDelegate.getMonthViewPool();
+    }
+    /**
+     * Sets how date changes, from the user or from {@link #updateDate}, reach
+     * the views and the {@link OnDateChangedListener}. Coalescing them keeps
+     * rapid changes, such as a held arrow key, from flooding listeners that
+     * do expensive work. Getters always return the latest date.
+     *
+     * @param mode {@link #DATE_CHANGE_IMMEDIATE},
+     *             {@link #DATE_CHANGE_PER_FRAME} or
+     *             {@link #DATE_CHANGE_DEBOUNCED}
+     */
+    public void setDateChangeMode(@DateChangeMode int mode) {
+        if (mode != DATE_CHANGE_IMMEDIATE && mode != DATE_CHANGE_PER_FRAME
+                && mode != DATE_CHANGE_DEBOUNCED) {
+            throw new IllegalArgumentException("Invalid date change mode " + mode);
+        }
+        mDelegate.setDateChangeMode(mode);
+    }
+    @DateChangeMode
+    public int getDateChangeMode() {
+        return mDelegate.getDateChangeMode();
+    }
+    /**
+     * Sets how long date changes must stop for before listeners are notified
+     * in {@link #DATE_CHANGE_DEBOUNCED}. Defaults to 300 ms.
+     *
+     * @param quietPeriodMillis the quiet period in milliseconds
+     */
+    public void setDateChangeQuietPeriod(long quietPeriodMillis) {
+        if (quietPeriodMillis < 0) {
+            throw new IllegalArgumentException("quietPeriodMillis must be >= 0");
+        }
+        mDelegate.setDateChangeQuietPeriod(quietPeriodMillis);
+    }
+    public long getDateChangeQuietPeriod() {
+        return mDelegate.getDateChangeQuietPeriod();
+    }
+    /**
+     * Updates the views and notifies the listeners of any date change still
+     * held back by the date change mode. Useful in tests and before reading
+     * state that listeners maintain.
+     */
+    public void flushDateChanges() {
+        mDelegate.flushDateChanges();
+    }
+    /**
+     * Sets whether the user picks a single date, a range of dates or any set
+     * of dates. Changing the mode clears the selected range and dates.
+     *
+     * @param selectionMode {@link #SELECTION_MODE_SINGLE},
+     *                      {@link #SELECTION_MODE_RANGE} or
+     *                      {@link #SELECTION_MODE_MULTIPLE}
+     */
+    public void setSelectionMode(@SelectionMode int selectionMode) {
+        if (selectionMode != SELECTION_MODE_SINGLE && selectionMode != SELECTION_MODE_RANGE
+                && selectionMode != SELECTION_MODE_MULTIPLE) {
+            throw new IllegalArgumentException("Invalid selection mode " + selectionMode);
+        }
+        mDelegate.setSelectionMode(selectionMode);
+    }
+    @SelectionMode
+    public int getSelectionMode() {
+        return mDelegate.getSelectionMode();
+    }
+    /**
+     * Sets the listener to call when the user changes the range in
+     * {@link #SELECTION_MODE_RANGE}.
+     *
+     * @param listener the listener, may be null
+     */
+    public void setOnDateRangeChangedListener(OnDateRangeChangedListener listener) {
+        mDelegate.setOnDateRangeChangedListener(listener);
+    }
+    /**
+     * Sets the selected range, shown in {@link #SELECTION_MODE_RANGE}. The
+     * range is constrained to the min and max dates.
+     *
+     * @param startMillis the first day of the range
+     * @param endMillis the last day of the range
+     */
+    public void setDateRange(long startMillis, long endMillis) {
+        mDelegate.setDateRange(startMillis, endMillis);
+    }
+    /**
+     * @return the first day of the selected range, or {@code null} if no
+     *         range is selected
+     */
+    public Calendar getRangeStart() {
+        return mDelegate.getRangeStart();
+    }
+    /**
+     * @return the last day of the selected range, or {@code null} if the
+     *         range isn't complete
+     */
+    public Calendar getRangeEnd() {
+        return mDelegate.getRangeEnd();
+    }
+    /**
+     * Sets the listener to call when the selected dates change in
+     * {@link #SELECTION_MODE_MULTIPLE}.
+     *
+     * @param listener the listener, may be null
+     */
+    public void setOnSelectedDatesChangedListener(OnSelectedDatesChangedListener listener) {
+        mDelegate.setOnSelectedDatesChangedListener(listener);
+    }
+    /**
+     * Sets the listener to call when another month is shown in the calendar.
+     *
+     * @param listener the listener, may be null
+     */
+    public void setOnVisibleMonthChangedListener(OnVisibleMonthChangedListener listener) {
+        mDelegate.setOnVisibleMonthChangedListener(listener);
+    }
+    /**
+     * Adds a listener called when another month is shown in the calendar,
+     * in addition to the one set by {@link #setOnVisibleMonthChangedListener}.
+     *
+     * @param listener the listener to add
+     */
+    public void addOnVisibleMonthChangedListener(OnVisibleMonthChangedListener listener) {
+        mDelegate.addOnVisibleMonthChangedListener(listener);
+    }
+    /**
+     * Removes a listener added by {@link #addOnVisibleMonthChangedListener}.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeOnVisibleMonthChangedListener(OnVisibleMonthChangedListener listener) {
+        mDelegate.removeOnVisibleMonthChangedListener(listener);
+    }
+    /**
+     * @return the year of the month shown in the calendar
+     */
+    public int getVisibleYear() {
+        return mDelegate.getVisibleYear();
+    }
+    /**
+     * @return the month shown in the calendar (0-11)
+     */
+    public int getVisibleMonth() {
+        return mDelegate.getVisibleMonth();
+    }
+    /**
+     * Sets the listener to call with the months a swipe is heading to, so
+     * their data can be loaded behind the swipe animation rather than after
+     * the month settles.
+     *
+     * @param listener the listener, may be null
+     */
+    public void setOnPrefetchMonthListener(OnPrefetchMonthListener listener) {
+        mDelegate.setOnPrefetchMonthListener(listener);
+    }
+    /**
+     * Adds a listener called with the months a swipe is heading to, in
+     * addition to the one set by {@link #setOnPrefetchMonthListener}.
+     *
+     * @param listener the listener to add
+     */
+    public void addOnPrefetchMonthListener(OnPrefetchMonthListener listener) {
+        mDelegate.addOnPrefetchMonthListener(listener);
+    }
+    /**
+     * Removes a listener added by {@link #addOnPrefetchMonthListener}.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeOnPrefetchMonthListener(OnPrefetchMonthListener listener) {
+        mDelegate.removeOnPrefetchMonthListener(listener);
+    }
+    /**
+     * Sets the listener to call when the year picker is shown or hidden.
+     *
+     * @param listener the listener, may be null
+     */
+    public void setOnYearViewShownListener(OnYearViewShownListener listener) {
+        mDelegate.setOnYearViewShownListener(listener);
+    }
+    /**
+     * Adds a listener called when the year picker is shown or hidden, in
+     * addition to the one set by {@link #setOnYearViewShownListener}.
+     *
+     * @param listener the listener to add
+     */
+    public void addOnYearViewShownListener(OnYearViewShownListener listener) {
+        mDelegate.addOnYearViewShownListener(listener);
+    }
+    /**
+     * Removes a listener added by {@link #addOnYearViewShownListener}.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeOnYearViewShownListener(OnYearViewShownListener listener) {
+        mDelegate.removeOnYearViewShownListener(listener);
+    }
+    /**
+     * @return whether the year picker is shown instead of the calendar
+     */
+    public boolean isYearViewShown() {
+        return mDelegate.isYearViewShown();
+    }
+    /**
+     * Selects or deselects every date between two dates, inclusive, in
+     * {@link #SELECTION_MODE_MULTIPLE}, as a single change. Dates outside of
+     * the min and max dates are ignored.
+     *
+     * @param startMillis the first date
+     * @param endMillis the last date
+     * @param selected whether to select or deselect the dates
+     */
+    public void setDatesSelected(long startMillis, long endMillis, boolean selected) {
+        mDelegate.setDatesSelected(startMillis, endMillis, selected);
+    }
+    /**
+     * Selects or deselects the specified dates in
+     * {@link #SELECTION_MODE_MULTIPLE}, as a single change. Dates outside of
+     * the min and max dates are ignored.
+     *
+     * @param timesInMillis the dates
+     * @param selected whether to select or deselect the dates
+     */
+    public void setDatesSelected(long[] timesInMillis, boolean selected) {
+        mDelegate.setDatesSelected(timesInMillis, selected);
+    }
+    /**
+     * Deselects every date in {@link #SELECTION_MODE_MULTIPLE}.
+     */
+    public void clearSelectedDates() {
+        mDelegate.clearSelectedDates();
+    }
+    public boolean isDateSelected(long timeInMillis) {
+        return mDelegate.isDateSelected(timeInMillis);
+    }
+    public int getSelectedDateCount() {
+        return mDelegate.getSelectedDateCount();
+    }
+    /**
+     * @return the start of each selected date in ascending order
+     */
+    public long[] getSelectedDates() {
+        return mDelegate.getSelectedDates();
+    }
+    /**
+     * Sets a validator that disables days within the min and max dates, e.g.
+     * weekends or holidays. Disabled days are drawn as such and can't be
+     * picked by touch, keyboard or accessibility services.
+     *
+     * @param validator the validator, or {@code null} to enable every day
+     *                  between the min and max dates
+     */
+    public void setDateValidator(DateValidator validator) {
+        mDelegate.setDateValidator(validator, null);
+    }
+    /**
+     * Sets a validator that is called on a background executor, for
+     * validators too slow to run on the main thread, e.g. ones backed by a
+     * database. Months are loaded a few pages ahead of the one shown, and
+     * loads of months the user paged past are cancelled. A month that isn't
+     * loaded yet shows every day disabled until its result arrives.
+     *
+     * @param validator the validator, or {@code null} to enable every day
+     *                  between the min and max dates
+     * @param executor the executor to call the validator on, or {@code null}
+     *                 to call it on the main thread
+     * @see #setDateValidator(DateValidator)
+     */
+    public void setDateValidator(DateValidator validator, Executor executor) {
+        mDelegate.setDateValidator(validator, executor);
+    }
+    /**
+     * @return the validator set with {@link #setDateValidator}, or
+     *         {@code null}
+     */
+    public DateValidator getDateValidator() {
+        return mDelegate.getDateValidator();
+    }
+    /**
+     * Re-evaluates the date validator. Results are cached per month, so this
+     * must be called when the validator's answer for any date changes.
+     */
+    public void notifyDateValidatorChanged() {
+        mDelegate.notifyDateValidatorChanged();
+    }
+    /**
+     * Sets the decorator supplying dots, badges and background tints drawn on
+     * days, e.g. to mark events or show prices.
+     *
+     * @param decorator the decorator, or {@code null} for no decorations
+     */
+    public void setDayDecorator(DayDecorator decorator) {
+        mDelegate.setDayDecorator(decorator);
+    }
+    /**
+     * @return the decorator set with {@link #setDayDecorator}, or
+     *         {@code null}
+     */
+    public DayDecorator getDayDecorator() {
+        return mDelegate.getDayDecorator();
+    }
+    /**
+     * Re-queries the day decorator. Decorations are read when a month is
+     * shown and kept until then, so this must be called after they change.
+     * Call it once after a bulk update, however many months it covers; each
+     * visible month is redrawn a single time.
+     */
+    public void notifyDayDecoratorChanged() {
+        mDelegate.notifyDayDecoratorChanged();
+    }
     @Override
     public void setEnabled(boolean enabled) {
         if (mDelegate.isEnabled() == enabled) {
@@ -389,6 +893,8 @@ public class CherryDatePicker extends FrameLayout {
         void init(int year, int monthOfYear, int dayOfMonth,
                   OnDateChangedListener onDateChangedListener);
         void setOnDateChangedListener(OnDateChangedListener onDateChangedListener);
+        void addOnDateChangedListener(OnDateChangedListener onDateChangedListener);
+        void removeOnDateChangedListener(OnDateChangedListener onDateChangedListener);
         void setAutoFillChangeListener(OnDateChangedListener onDateChangedListener);
         void updateDate(int year, int month, int dayOfMonth);
         int getYear();
@@ -430,6 +936,9 @@ public class CherryDatePicker extends FrameLayout {
         protected Locale mCurrentLocale;
         // Callbacks
         protected OnDateChangedListener mOnDateChangedListener;
+        // Copied on write, so listeners may remove themselves while called.
+        protected final List<OnDateChangedListener> mOnDateChangedListeners =
+                new CopyOnWriteArrayList<>();
         protected OnDateChangedListener mAutoFillChangeListener;
         protected ValidationCallback mValidationCallback;
         // The value that was passed to autofill() - it must be stored because it getAutofillValue()
@@ -452,6 +961,14 @@ public class CherryDatePicker extends FrameLayout {
             mOnDateChangedListener = callback;
         }
         @Override
+        public void addOnDateChangedListener(OnDateChangedListener callback) {
+            mOnDateChangedListeners.add(callback);
+        }
+        @Override
+        public void removeOnDateChangedListener(OnDateChangedListener callback) {
+            mOnDateChangedListeners.remove(callback);
+        }
+        @Override
         public void setAutoFillChangeListener(OnDateChangedListener callback) {
             mAutoFillChangeListener = callback;
         }
@@ -466,7 +983,7 @@ public class CherryDatePicker extends FrameLayout {
                 return;
             }
             final long time = value.getDateValue();
-            final Calendar cal = Calendar.getInstance(mCurrentLocale);
+            final Calendar cal = CalendarMath.newCalendar(mCurrentLocale);
             cal.setTimeInMillis(time);
             updateDate(cal.get(Calendar.YEAR), cal.get(Calendar.MONTH),
                     cal.get(Calendar.DAY_OF_MONTH));
@@ -509,6 +1026,8 @@ public class CherryDatePicker extends FrameLayout {
          * Class for managing state storing/restoring.
          */
         static class SavedState extends View.BaseSavedState {
+            /** Saved as a range end that isn't set. */
+            static final long NO_DATE = Long.MIN_VALUE;
             private final int mSelectedYear;
             private final int mSelectedMonth;
             private final int mSelectedDay;
@@ -517,6 +1036,9 @@ public class CherryDatePicker extends FrameLayout {
             private final int mCurrentView;
             private final int mListPosition;
             private final int mListPositionOffset;
+            private final int mSelectionMode;
+            private final long mRangeStart;
+            private final long mRangeEnd;
             public SavedState(Parcelable superState, int year, int month, int day, long minDate,
                               long maxDate) {
                 this(superState, year, month, day, minDate, maxDate, 0, 0, 0);
@@ -526,6 +1048,16 @@ public class CherryDatePicker extends FrameLayout {
              */
             public SavedState(Parcelable superState, int year, int month, int day, long minDate,
                               long maxDate, int currentView, int listPosition, int listPositionOffset) {
+                this(superState, year, month, day, minDate, maxDate, currentView, listPosition,
+                        listPositionOffset, SELECTION_MODE_SINGLE, NO_DATE, NO_DATE);
+            }
+            /**
+             * Constructor that also saves the selection mode and the selected
+             * range, either end of which may be {@link #NO_DATE}.
+             */
+            public SavedState(Parcelable superState, int year, int month, int day, long minDate,
+                              long maxDate, int currentView, int listPosition, int listPositionOffset,
+                              int selectionMode, long rangeStart, long rangeEnd) {
                 super(superState);
                 mSelectedYear = year;
                 mSelectedMonth = month;
@@ -535,6 +1067,9 @@ public class CherryDatePicker extends FrameLayout {
                 mCurrentView = currentView;
                 mListPosition = listPosition;
                 mListPositionOffset = listPositionOffset;
+                mSelectionMode = selectionMode;
+                mRangeStart = rangeStart;
+                mRangeEnd = rangeEnd;
             }
             /**
              * Constructor called from {@link #CREATOR}
@@ -549,6 +1084,9 @@ public class CherryDatePicker extends FrameLayout {
                 mCurrentView = in.readInt();
                 mListPosition = in.readInt();
                 mListPositionOffset = in.readInt();
+                mSelectionMode = in.readInt();
+                mRangeStart = in.readLong();
+                mRangeEnd = in.readLong();
             }
             @Override
             public void writeToParcel(Parcel dest, int flags) {
@@ -561,6 +1099,9 @@ public class CherryDatePicker extends FrameLayout {
                 dest.writeInt(mCurrentView);
                 dest.writeInt(mListPosition);
                 dest.writeInt(mListPositionOffset);
+                dest.writeInt(mSelectionMode);
+                dest.writeLong(mRangeStart);
+                dest.writeLong(mRangeEnd);
             }
             public int getSelectedDay() {
                 return mSelectedDay;
@@ -586,6 +1127,15 @@ public class CherryDatePicker extends FrameLayout {
             public int getListPositionOffset() {
                 return mListPositionOffset;
             }
+            public int getSelectionMode() {
+                return mSelectionMode;
+            }
+            public long getRangeStart() {
+                return mRangeStart;
+            }
+            public long getRangeEnd() {
+                return mRangeEnd;
+            }
             @SuppressWarnings("all")
             // suppress unused and hiding
             public static final Parcelable.Creator<SavedState> CREATOR = new Creator<SavedState>() {
@@ -5,8 +5,6 @@ import android.content.res.ColorStateList;
 import android.content.res.Configuration;
 import android.content.res.Resources;
 import android.content.res.TypedArray;
-import android.icu.text.DateFormat;
-import android.icu.text.DisplayContext;
 import android.os.Parcelable;
 import android.support.annotation.Nullable;
 import android.util.AttributeSet;
@@ -15,12 +13,15 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.view.View.OnClickListener;
 import android.view.ViewGroup;
+import android.view.ViewStub;
 import android.view.accessibility.AccessibilityEvent;
 import android.widget.CalendarView;
 import android.widget.LinearLayout;
 import android.widget.TextView;
 import android.widget.ViewAnimator;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
 /**
  * Created by Schrws on 2018-10-26.
@@ -35,8 +36,7 @@ public class CherryDatePickerDelegate extends CherryDatePicker.AbstractDatePicke
     private static final int ANIMATION_DURATION = 300;
     private static final int[] ATTRS_TEXT_COLOR = new int[] {android.R.attr.textColor};
     private static final int[] ATTRS_DISABLED_ALPHA = new int[] {android.R.attr.disabledAlpha};
-    private DateFormat mYearFormat;
-    private DateFormat mMonthDayFormat;
+    private DateFormatCache mFormats;
     // Top-level container.
     private ViewGroup mContainer;
     // Header views.
@@ -45,7 +45,9 @@ public class CherryDatePickerDelegate extends CherryDatePicker.AbstractDatePicke
     // Picker views.
     private ViewAnimator mAnimator;
     private DayPickerView mDayPickerView;
+    /** Created on first use, see {@link #getYearPickerView()}. */
     private YearPickerView mYearPickerView;
+    private ViewStub mYearPickerStub;
     // Accessibility strings.
     private String mSelectDay;
     private String mSelectYear;
@@ -54,14 +56,37 @@ public class CherryDatePickerDelegate extends CherryDatePicker.AbstractDatePicke
     private final Calendar mMinDate;
     private final Calendar mMaxDate;
     private int mFirstDayOfWeek = USE_LOCALE;
+    private int mSelectionMode = CherryDatePicker.SELECTION_MODE_SINGLE;
+    /** Ends of the selected range, only valid in range mode when set. */
+    private final Calendar mRangeStart;
+    private final Calendar mRangeEnd;
+    private boolean mHasRangeStart;
+    private boolean mHasRangeEnd;
+    private CherryDatePicker.OnDateRangeChangedListener mOnDateRangeChangedListener;
+    private CherryDatePicker.OnSelectedDatesChangedListener mOnSelectedDatesChangedListener;
+    private CherryDatePicker.OnVisibleMonthChangedListener mOnVisibleMonthChangedListener;
+    private CherryDatePicker.OnYearViewShownListener mOnYearViewShownListener;
+    private CherryDatePicker.OnPrefetchMonthListener mOnPrefetchMonthListener;
+    private final List<CherryDatePicker.OnVisibleMonthChangedListener> mOnVisibleMonthChangedListeners =
+            new CopyOnWriteArrayList<>();
+    private final List<CherryDatePicker.OnYearViewShownListener> mOnYearViewShownListeners =
+            new CopyOnWriteArrayList<>();
+    private final List<CherryDatePicker.OnPrefetchMonthListener> mOnPrefetchMonthListeners =
+            new CopyOnWriteArrayList<>();
+    /** Set unless date changes are handled immediately. */
+    private DateChangeCoalescer mDateChangeCoalescer;
+    private int mDateChangeMode = CherryDatePicker.DATE_CHANGE_IMMEDIATE;
+    private long mDateChangeQuietPeriod = DateChangeCoalescer.DEFAULT_QUIET_PERIOD;
     public CherryDatePickerDelegate(CherryDatePicker delegator, Context context, AttributeSet attrs,
                                       int defStyleAttr, int defStyleRes) {
         super(delegator, context);
         final Locale locale = mCurrentLocale;
-        mCurrentDate = Calendar.getInstance(locale);
-        mTempDate = Calendar.getInstance(locale);
-        mMinDate = Calendar.getInstance(locale);
-        mMaxDate = Calendar.getInstance(locale);
+        mCurrentDate = CalendarMath.newCalendar(locale);
+        mTempDate = CalendarMath.newCalendar(locale);
+        mMinDate = CalendarMath.newCalendar(locale);
+        mMaxDate = CalendarMath.newCalendar(locale);
+        mRangeStart = CalendarMath.newCalendar(locale);
+        mRangeEnd = CalendarMath.newCalendar(locale);
         mMinDate.set(DEFAULT_START_YEAR, Calendar.JANUARY, 1);
         mMaxDate.set(DEFAULT_END_YEAR, Calendar.DECEMBER, 31);
         final Resources res = mDelegator.getResources();
@@ -116,11 +141,11 @@ public class CherryDatePickerDelegate extends CherryDatePicker.AbstractDatePicke
         mDayPickerView.setMaxDate(mMaxDate.getTimeInMillis());
         mDayPickerView.setDate(mCurrentDate.getTimeInMillis());
         mDayPickerView.setOnDaySelectedListener(mOnDaySelectedListener);
-        // Set up year picker view.
-        mYearPickerView = mAnimator.findViewById(R.id.date_picker_year_picker);
-        mYearPickerView.setRange(mMinDate, mMaxDate);
-        mYearPickerView.setYear(mCurrentDate.get(Calendar.YEAR));
-        mYearPickerView.setOnYearSelectedListener(mOnYearSelectedListener);
+        mDayPickerView.setOnRangeSelectedListener(mOnRangeSelectedListener);
+        mDayPickerView.setOnSelectedDaysChangedListener(mOnSelectedDaysChangedListener);
+        mDayPickerView.setOnVisibleMonthChangedListener(mOnPickerMonthChangedListener);
+        // The year picker view is only inflated once the year is picked.
+        mYearPickerStub = mAnimator.findViewById(R.id.date_picker_year_picker_stub);
         // Set up content descriptions.
         mSelectDay = "asd"; //res.getString(R.string.select_day);
         mSelectYear = "asd"; //res.getString(R.string.select_year);
@@ -179,6 +204,55 @@ public class CherryDatePickerDelegate extends CherryDatePicker.AbstractDatePicke
             onDateChanged(true, true);
         }
     };
+    /**
+     * Listener called when the user picks or changes a range in the day
+     * picker view.
+     */
+    private final DayPickerView.OnRangeSelectedListener mOnRangeSelectedListener = new DayPickerView.OnRangeSelectedListener() {
+        @Override
+        public void onRangeSelected(DayPickerView view, Calendar start, Calendar end) {
+            mRangeStart.setTimeInMillis(start.getTimeInMillis());
+            mHasRangeStart = true;
+            mHasRangeEnd = end != null;
+            if (end != null) {
+                mRangeEnd.setTimeInMillis(end.getTimeInMillis());
+            }
+            onRangeChanged(true);
+        }
+    };
+    /**
+     * Listener called when the user toggles a day in the day picker view.
+     */
+    private final DayPickerView.OnSelectedDaysChangedListener mOnSelectedDaysChangedListener = new DayPickerView.OnSelectedDaysChangedListener() {
+        @Override
+        public void onSelectedDaysChanged(DayPickerView view) {
+            onSelectedDatesChanged();
+            tryVibrate();
+        }
+    };
+    private final DayPickerView.OnVisibleMonthChangedListener mOnPickerMonthChangedListener = new DayPickerView.OnVisibleMonthChangedListener() {
+        @Override
+        public void onVisibleMonthChanged(DayPickerView view, int year, int month) {
+            if (mOnVisibleMonthChangedListener != null) {
+                mOnVisibleMonthChangedListener.onVisibleMonthChanged(mDelegator, year, month);
+            }
+            for (CherryDatePicker.OnVisibleMonthChangedListener listener
+                    : mOnVisibleMonthChangedListeners) {
+                listener.onVisibleMonthChanged(mDelegator, year, month);
+            }
+        }
+    };
+    private final DayPickerView.OnPrefetchMonthListener mOnPickerPrefetchMonthListener = new DayPickerView.OnPrefetchMonthListener() {
+        @Override
+        public void onPrefetchMonth(DayPickerView view, int year, int month) {
+            if (mOnPrefetchMonthListener != null) {
+                mOnPrefetchMonthListener.onPrefetchMonth(mDelegator, year, month);
+            }
+            for (CherryDatePicker.OnPrefetchMonthListener listener : mOnPrefetchMonthListeners) {
+                listener.onPrefetchMonth(mDelegator, year, month);
+            }
+        }
+    };
     /**
      * Listener called when the user selects a year in the year picker view.
      */
@@ -229,28 +303,76 @@ public class CherryDatePickerDelegate extends CherryDatePicker.AbstractDatePicke
             // again later after everything has been set up.
             return;
         }
-        // Update the date formatter.
-        mMonthDayFormat = DateFormat.getInstanceForSkeleton("EMMMd", locale);
-        mMonthDayFormat.setContext(DisplayContext.CAPITALIZATION_FOR_STANDALONE);
-        mYearFormat = DateFormat.getInstanceForSkeleton("y", locale);
+        // Update the date formatters, shared with other pickers.
+        mFormats = DateFormatCache.get(locale);
         // Update the header text.
         onCurrentDateChanged(false);
     }
+    /**
+     * Returns the year picker view, inflating and setting it up from the
+     * current date and range on first use.
+     */
+    private YearPickerView getYearPickerView() {
+        if (mYearPickerView == null) {
+            mYearPickerView = (YearPickerView) mYearPickerStub.inflate();
+            mYearPickerStub = null;
+            mYearPickerView.setRange(mMinDate, mMaxDate);
+            mYearPickerView.setYear(mCurrentDate.get(Calendar.YEAR));
+            mYearPickerView.setOnYearSelectedListener(mOnYearSelectedListener);
+            mYearPickerView.setEnabled(isEnabled());
+        }
+        return mYearPickerView;
+    }
     private void onCurrentDateChanged(boolean announce) {
+        if (mSelectionMode == CherryDatePicker.SELECTION_MODE_RANGE && mHasRangeStart) {
+            updateRangeHeader(announce);
+            return;
+        }
         if (mHeaderYear == null) {
             // Abort, we haven't initialized yet. This method will get called
             // again later after everything has been set up.
             return;
         }
-        final String year = mYearFormat.format(mCurrentDate.getTime());
+        final Date date = mCurrentDate.getTime();
+        final String year = mFormats.formatHeaderYear(date);
         mHeaderYear.setText(year);
-        final String monthDay = mMonthDayFormat.format(mCurrentDate.getTime());
+        final String monthDay = mFormats.formatHeaderMonthDay(date);
         mHeaderMonthDay.setText(monthDay);
         // TODO: This should use live regions.
         if (announce) {
             mAnimator.announceForAccessibility(getFormattedCurrentDate());
         }
     }
+    /**
+     * Shows the selected range in the header and notifies the listener.
+     */
+    private void onRangeChanged(boolean fromUser) {
+        final Calendar end = mHasRangeEnd ? mRangeEnd : null;
+        if (mOnDateRangeChangedListener != null) {
+            mOnDateRangeChangedListener.onDateRangeChanged(mDelegator, mRangeStart, end);
+        }
+        if (mSelectionMode == CherryDatePicker.SELECTION_MODE_RANGE) {
+            updateRangeHeader(fromUser);
+        }
+        if (fromUser) {
+            tryVibrate();
+        }
+    }
+    private void updateRangeHeader(boolean announce) {
+        final Date start = mRangeStart.getTime();
+        mHeaderYear.setText(mFormats.formatHeaderYear(start));
+        final String monthDay;
+        if (mHasRangeEnd) {
+            monthDay = mFormats.formatHeaderMonthDay(start) + " \u2013 "
+                    + mFormats.formatHeaderMonthDay(mRangeEnd.getTime());
+        } else {
+            monthDay = mFormats.formatHeaderMonthDay(start);
+        }
+        mHeaderMonthDay.setText(monthDay);
+        if (announce) {
+            mAnimator.announceForAccessibility(monthDay);
+        }
+    }
     private void setCurrentView(final int viewIndex) {
         switch (viewIndex) {
             case VIEW_MONTH_DAY:
@@ -260,17 +382,19 @@ public class CherryDatePickerDelegate extends CherryDatePicker.AbstractDatePicke
                     mHeaderYear.setActivated(false);
                     mAnimator.setDisplayedChild(VIEW_MONTH_DAY);
                     mCurrentView = viewIndex;
+                    onYearViewShown(false);
                 }
                 mAnimator.announceForAccessibility(mSelectDay);
                 break;
             case VIEW_YEAR:
                 final int year = mCurrentDate.get(Calendar.YEAR);
-                mYearPickerView.setYear(year);
-                mYearPickerView.post(new Runnable() {
+                final YearPickerView yearPickerView = getYearPickerView();
+                yearPickerView.setYear(year);
+                yearPickerView.post(new Runnable() {
                     @Override
                     public void run() {
-                        mYearPickerView.requestFocus();
-                        final View selected = mYearPickerView.getSelectedView();
+                        yearPickerView.requestFocus();
+                        final View selected = yearPickerView.getSelectedView();
                         if (selected != null) {
                             selected.requestFocus();
                         }
@@ -281,6 +405,7 @@ public class CherryDatePickerDelegate extends CherryDatePicker.AbstractDatePicke
                     mHeaderYear.setActivated(true);
                     mAnimator.setDisplayedChild(VIEW_YEAR);
                     mCurrentView = viewIndex;
+                    onYearViewShown(true);
                 }
                 mAnimator.announceForAccessibility(mSelectYear);
                 break;
@@ -305,25 +430,94 @@ public class CherryDatePickerDelegate extends CherryDatePicker.AbstractDatePicke
         resetAutofilledValue();
     }
     private void onDateChanged(boolean fromUser, boolean callbackToClient) {
-        final int year = mCurrentDate.get(Calendar.YEAR);
-        if (callbackToClient
-                && (mOnDateChangedListener != null || mAutoFillChangeListener != null)) {
+        if (mDateChangeCoalescer != null) {
+            mDateChangeCoalescer.onDateChanged(fromUser, callbackToClient);
+        } else {
+            if (callbackToClient) {
+                dispatchDateChanged();
+            }
+            refreshDate(fromUser);
+        }
+        if (fromUser) {
+            tryVibrate();
+        }
+    }
+    private void dispatchDateChanged() {
+        if (mOnDateChangedListener != null || mAutoFillChangeListener != null
+                || !mOnDateChangedListeners.isEmpty()) {
+            final int year = mCurrentDate.get(Calendar.YEAR);
             final int monthOfYear = mCurrentDate.get(Calendar.MONTH);
             final int dayOfMonth = mCurrentDate.get(Calendar.DAY_OF_MONTH);
             if (mOnDateChangedListener != null) {
                 mOnDateChangedListener.onDateChanged(mDelegator, year, monthOfYear, dayOfMonth);
             }
+            for (CherryDatePicker.OnDateChangedListener listener : mOnDateChangedListeners) {
+                listener.onDateChanged(mDelegator, year, monthOfYear, dayOfMonth);
+            }
             if (mAutoFillChangeListener != null) {
                 mAutoFillChangeListener.onDateChanged(mDelegator, year, monthOfYear, dayOfMonth);
             }
         }
+    }
+    /**
+     * Updates the day picker, the year picker and the header from the
+     * current date.
+     */
+    private void refreshDate(boolean announce) {
         mDayPickerView.setDate(mCurrentDate.getTimeInMillis());
-        mYearPickerView.setYear(year);
-        onCurrentDateChanged(fromUser);
-        if (fromUser) {
-            tryVibrate();
+        // A hidden year picker catches up in setCurrentView.
+        if (mCurrentView == VIEW_YEAR) {
+            mYearPickerView.setYear(mCurrentDate.get(Calendar.YEAR));
         }
+        onCurrentDateChanged(announce);
     }
+    public void setDateChangeMode(int mode) {
+        if (mode == getDateChangeMode()) {
+            return;
+        }
+        if (mode == CherryDatePicker.DATE_CHANGE_IMMEDIATE) {
+            // Don't leave changes behind.
+            mDateChangeCoalescer.flush();
+            mDateChangeCoalescer = null;
+            return;
+        }
+        if (mDateChangeCoalescer == null) {
+            mDateChangeCoalescer = new DateChangeCoalescer(mDateChangeCallback);
+            mDateChangeCoalescer.setQuietPeriod(mDateChangeQuietPeriod);
+        } else {
+            mDateChangeCoalescer.flush();
+        }
+        mDateChangeCoalescer.setMode(mode);
+        mDateChangeMode = mode;
+    }
+    public int getDateChangeMode() {
+        return mDateChangeCoalescer != null
+                ? mDateChangeMode : CherryDatePicker.DATE_CHANGE_IMMEDIATE;
+    }
+    public void setDateChangeQuietPeriod(long quietPeriodMillis) {
+        mDateChangeQuietPeriod = quietPeriodMillis;
+        if (mDateChangeCoalescer != null) {
+            mDateChangeCoalescer.setQuietPeriod(quietPeriodMillis);
+        }
+    }
+    public long getDateChangeQuietPeriod() {
+        return mDateChangeQuietPeriod;
+    }
+    public void flushDateChanges() {
+        if (mDateChangeCoalescer != null) {
+            mDateChangeCoalescer.flush();
+        }
+    }
+    private final DateChangeCoalescer.Callback mDateChangeCallback = new DateChangeCoalescer.Callback() {
+        @Override
+        public void onRefresh(boolean announce) {
+            refreshDate(announce);
+        }
+        @Override
+        public void onDeliver() {
+            dispatchDateChanged();
+        }
+    };
     @Override
     public int getYear() {
         return mCurrentDate.get(Calendar.YEAR);
@@ -339,6 +533,8 @@ public class CherryDatePickerDelegate extends CherryDatePicker.AbstractDatePicke
     @Override
     public void setMinDate(long minDate) {
         mTempDate.setTimeInMillis(minDate);
+        CalendarMath.constrain(mTempDate);
+        minDate = mTempDate.getTimeInMillis();
         if (mTempDate.get(Calendar.YEAR) == mMinDate.get(Calendar.YEAR)
                 && mTempDate.get(Calendar.DAY_OF_YEAR) == mMinDate.get(Calendar.DAY_OF_YEAR)) {
             // Same day, no-op.
@@ -350,7 +546,9 @@ public class CherryDatePickerDelegate extends CherryDatePicker.AbstractDatePicke
         }
         mMinDate.setTimeInMillis(minDate);
         mDayPickerView.setMinDate(minDate);
-        mYearPickerView.setRange(mMinDate, mMaxDate);
+        if (mYearPickerView != null) {
+            mYearPickerView.setRange(mMinDate, mMaxDate);
+        }
     }
     @Override
     public Calendar getMinDate() {
@@ -359,6 +557,8 @@ public class CherryDatePickerDelegate extends CherryDatePicker.AbstractDatePicke
     @Override
     public void setMaxDate(long maxDate) {
         mTempDate.setTimeInMillis(maxDate);
+        CalendarMath.constrain(mTempDate);
+        maxDate = mTempDate.getTimeInMillis();
         if (mTempDate.get(Calendar.YEAR) == mMaxDate.get(Calendar.YEAR)
                 && mTempDate.get(Calendar.DAY_OF_YEAR) == mMaxDate.get(Calendar.DAY_OF_YEAR)) {
             // Same day, no-op.
@@ -370,7 +570,9 @@ public class CherryDatePickerDelegate extends CherryDatePicker.AbstractDatePicke
         }
         mMaxDate.setTimeInMillis(maxDate);
         mDayPickerView.setMaxDate(maxDate);
-        mYearPickerView.setRange(mMinDate, mMaxDate);
+        if (mYearPickerView != null) {
+            mYearPickerView.setRange(mMinDate, mMaxDate);
+        }
     }
     @Override
     public Calendar getMaxDate() {
@@ -388,11 +590,162 @@ public class CherryDatePickerDelegate extends CherryDatePicker.AbstractDatePicke
         }
         return mCurrentDate.getFirstDayOfWeek();
     }
+    public void setMonthViewPool(MonthViewPool pool) {
+        mDayPickerView.setMonthViewPool(pool);
+    }
+    public MonthViewPool getMonthViewPool() {
+        return mDayPickerView.getMonthViewPool();
+    }
+    public void setDateValidator(DateValidator validator, Executor executor) {
+        mDayPickerView.setDateValidator(validator, executor);
+    }
+    public DateValidator getDateValidator() {
+        return mDayPickerView.getDateValidator();
+    }
+    public void notifyDateValidatorChanged() {
+        mDayPickerView.notifyDateValidatorChanged();
+    }
+    public void setDayDecorator(DayDecorator decorator) {
+        mDayPickerView.setDayDecorator(decorator);
+    }
+    public DayDecorator getDayDecorator() {
+        return mDayPickerView.getDayDecorator();
+    }
+    public void notifyDayDecoratorChanged() {
+        mDayPickerView.notifyDayDecoratorChanged();
+    }
+    public void setSelectionMode(int selectionMode) {
+        if (mSelectionMode == selectionMode) {
+            return;
+        }
+        mSelectionMode = selectionMode;
+        mHasRangeStart = false;
+        mHasRangeEnd = false;
+        mDayPickerView.setSelectionMode(selectionMode);
+        if (selectionMode == CherryDatePicker.SELECTION_MODE_SINGLE) {
+            mDayPickerView.setDate(mCurrentDate.getTimeInMillis());
+        }
+        onCurrentDateChanged(false);
+    }
+    public int getSelectionMode() {
+        return mSelectionMode;
+    }
+    public void setOnDateRangeChangedListener(
+            CherryDatePicker.OnDateRangeChangedListener listener) {
+        mOnDateRangeChangedListener = listener;
+    }
+    public void setDateRange(long startMillis, long endMillis) {
+        mRangeStart.setTimeInMillis(Utils.constrain(startMillis,
+                mMinDate.getTimeInMillis(), mMaxDate.getTimeInMillis()));
+        mRangeEnd.setTimeInMillis(Utils.constrain(Math.max(startMillis, endMillis),
+                mMinDate.getTimeInMillis(), mMaxDate.getTimeInMillis()));
+        mHasRangeStart = true;
+        mHasRangeEnd = true;
+        mDayPickerView.setSelectedRange(mRangeStart.getTimeInMillis(),
+                mRangeEnd.getTimeInMillis());
+        mDayPickerView.setDate(mRangeStart.getTimeInMillis());
+        onRangeChanged(false);
+    }
+    public void setOnSelectedDatesChangedListener(
+            CherryDatePicker.OnSelectedDatesChangedListener listener) {
+        mOnSelectedDatesChangedListener = listener;
+    }
+    public void setOnVisibleMonthChangedListener(
+            CherryDatePicker.OnVisibleMonthChangedListener listener) {
+        mOnVisibleMonthChangedListener = listener;
+    }
+    public void addOnVisibleMonthChangedListener(
+            CherryDatePicker.OnVisibleMonthChangedListener listener) {
+        mOnVisibleMonthChangedListeners.add(listener);
+    }
+    public void removeOnVisibleMonthChangedListener(
+            CherryDatePicker.OnVisibleMonthChangedListener listener) {
+        mOnVisibleMonthChangedListeners.remove(listener);
+    }
+    public int getVisibleYear() {
+        return mDayPickerView.getVisibleYear();
+    }
+    public int getVisibleMonth() {
+        return mDayPickerView.getVisibleMonth();
+    }
+    public void setOnPrefetchMonthListener(CherryDatePicker.OnPrefetchMonthListener listener) {
+        mOnPrefetchMonthListener = listener;
+        updatePrefetchMonthListener();
+    }
+    public void addOnPrefetchMonthListener(CherryDatePicker.OnPrefetchMonthListener listener) {
+        mOnPrefetchMonthListeners.add(listener);
+        updatePrefetchMonthListener();
+    }
+    public void removeOnPrefetchMonthListener(CherryDatePicker.OnPrefetchMonthListener listener) {
+        mOnPrefetchMonthListeners.remove(listener);
+        updatePrefetchMonthListener();
+    }
+    private void updatePrefetchMonthListener() {
+        // Only listen while someone cares, to keep swipes free of extra work.
+        final boolean listening = mOnPrefetchMonthListener != null
+                || !mOnPrefetchMonthListeners.isEmpty();
+        mDayPickerView.setOnPrefetchMonthListener(
+                listening ? mOnPickerPrefetchMonthListener : null);
+    }
+    public void setOnYearViewShownListener(CherryDatePicker.OnYearViewShownListener listener) {
+        mOnYearViewShownListener = listener;
+    }
+    public void addOnYearViewShownListener(CherryDatePicker.OnYearViewShownListener listener) {
+        mOnYearViewShownListeners.add(listener);
+    }
+    public void removeOnYearViewShownListener(CherryDatePicker.OnYearViewShownListener listener) {
+        mOnYearViewShownListeners.remove(listener);
+    }
+    public boolean isYearViewShown() {
+        return mCurrentView == VIEW_YEAR;
+    }
+    private void onYearViewShown(boolean shown) {
+        if (mOnYearViewShownListener != null) {
+            mOnYearViewShownListener.onYearViewShown(mDelegator, shown);
+        }
+        for (CherryDatePicker.OnYearViewShownListener listener : mOnYearViewShownListeners) {
+            listener.onYearViewShown(mDelegator, shown);
+        }
+    }
+    public void setDatesSelected(long startMillis, long endMillis, boolean selected) {
+        mDayPickerView.setDatesSelected(startMillis, endMillis, selected);
+        onSelectedDatesChanged();
+    }
+    public void setDatesSelected(long[] timesInMillis, boolean selected) {
+        mDayPickerView.setDatesSelected(timesInMillis, selected);
+        onSelectedDatesChanged();
+    }
+    public void clearSelectedDates() {
+        mDayPickerView.clearSelectedDates();
+        onSelectedDatesChanged();
+    }
+    public boolean isDateSelected(long timeInMillis) {
+        return mDayPickerView.isDateSelected(timeInMillis);
+    }
+    public int getSelectedDateCount() {
+        return mDayPickerView.getSelectedDateCount();
+    }
+    public long[] getSelectedDates() {
+        return mDayPickerView.getSelectedDates();
+    }
+    private void onSelectedDatesChanged() {
+        if (mOnSelectedDatesChangedListener != null) {
+            mOnSelectedDatesChangedListener.onSelectedDatesChanged(mDelegator);
+        }
+    }
+    public Calendar getRangeStart() {
+        return mHasRangeStart ? mRangeStart : null;
+    }
+    public Calendar getRangeEnd() {
+        return mHasRangeEnd ? mRangeEnd : null;
+    }
     @Override
     public void setEnabled(boolean enabled) {
         mContainer.setEnabled(enabled);
         mDayPickerView.setEnabled(enabled);
-        mYearPickerView.setEnabled(enabled);
+        if (mYearPickerView != null) {
+            mYearPickerView.setEnabled(enabled);
+        }
         mHeaderYear.setEnabled(enabled);
         mHeaderMonthDay.setEnabled(enabled);
     }
@@ -437,8 +790,11 @@ public class CherryDatePickerDelegate extends CherryDatePicker.AbstractDatePicke
             listPosition = mYearPickerView.getFirstVisiblePosition();
             listPositionOffset = mYearPickerView.getFirstPositionOffset();
         }
+        final long rangeStart = mHasRangeStart ? mRangeStart.getTimeInMillis() : SavedState.NO_DATE;
+        final long rangeEnd = mHasRangeEnd ? mRangeEnd.getTimeInMillis() : SavedState.NO_DATE;
         return new SavedState(superState, year, month, day, mMinDate.getTimeInMillis(),
-                mMaxDate.getTimeInMillis(), mCurrentView, listPosition, listPositionOffset);
+                mMaxDate.getTimeInMillis(), mCurrentView, listPosition, listPositionOffset,
+                mSelectionMode, rangeStart, rangeEnd);
     }
     @Override
     public void onRestoreInstanceState(Parcelable state) {
@@ -448,6 +804,13 @@ public class CherryDatePickerDelegate extends CherryDatePicker.AbstractDatePicke
             mCurrentDate.set(ss.getSelectedYear(), ss.getSelectedMonth(), ss.getSelectedDay());
             mMinDate.setTimeInMillis(ss.getMinDate());
             mMaxDate.setTimeInMillis(ss.getMaxDate());
+            if (mYearPickerView != null) {
+                mYearPickerView.setRange(mMinDate, mMaxDate);
+            }
+            setSelectionMode(ss.getSelectionMode());
+            if (ss.getRangeStart() != SavedState.NO_DATE) {
+                restoreRange(ss.getRangeStart(), ss.getRangeEnd());
+            }
             onCurrentDateChanged(false);
             final int currentView = ss.getCurrentView();
             setCurrentView(currentView);
@@ -462,6 +825,23 @@ public class CherryDatePickerDelegate extends CherryDatePicker.AbstractDatePicke
             }
         }
     }
+    /**
+     * Restores the selected range without notifying the listener.
+     *
+     * @param rangeEnd the last day of the range, or {@link SavedState#NO_DATE}
+     *                 if the user only picked the first day
+     */
+    private void restoreRange(long rangeStart, long rangeEnd) {
+        mRangeStart.setTimeInMillis(rangeStart);
+        mHasRangeStart = true;
+        mHasRangeEnd = rangeEnd != SavedState.NO_DATE;
+        if (mHasRangeEnd) {
+            mRangeEnd.setTimeInMillis(rangeEnd);
+            mDayPickerView.setSelectedRange(rangeStart, rangeEnd);
+        } else {
+            mDayPickerView.setSelectedRangeStart(rangeStart);
+        }
+    }
     @Override
     public boolean dispatchPopulateAccessibilityEvent(AccessibilityEvent event) {
         onPopulateAccessibilityEvent(event);
@@ -471,25 +851,7 @@ public class CherryDatePickerDelegate extends CherryDatePicker.AbstractDatePicke
         return CherryDatePicker.class.getName();
     }
     public static int getDaysInMonth(int month, int year) {
-        switch (month) {
-            case Calendar.JANUARY:
-            case Calendar.MARCH:
-            case Calendar.MAY:
-            case Calendar.JULY:
-            case Calendar.AUGUST:
-            case Calendar.OCTOBER:
-            case Calendar.DECEMBER:
-                return 31;
-            case Calendar.APRIL:
-            case Calendar.JUNE:
-            case Calendar.SEPTEMBER:
-            case Calendar.NOVEMBER:
-                return 30;
-            case Calendar.FEBRUARY:
-                return (year % 4 == 0) ? 29 : 28;
-            default:
-                throw new IllegalArgumentException("Invalid Month");
-        }
+        return CalendarMath.getDaysInMonth(month, year);
     }
     private void tryVibrate() {
         mDelegator.performHapticFeedback(HapticFeedbackConstants.VIRTUAL_KEY);
@@ -0,0 +1,125 @@
+package space.schrws.cherrypicker;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+/**
+ * Coalesces rapid date changes, e.g. from a held arrow key or a burst of
+ * programmatic updates, into one UI refresh per frame. Listener callbacks are
+ * delivered with that refresh, or once the changes have been quiet for a
+ * while, depending on the mode.
+ * <p>
+ * This class is not thread-safe and must only be used on the UI thread.
+ */
+class DateChangeCoalescer {
+    /** Quiet period used by {@link CherryDatePicker#DATE_CHANGE_DEBOUNCED}. */
+    static final long DEFAULT_QUIET_PERIOD = 300;
+    /**
+     * Receives the coalesced work.
+     */
+    interface Callback {
+        /**
+         * Refreshes the views from the current date.
+         *
+         * @param announce whether any of the coalesced changes came from the
+         *                 user and should be announced
+         */
+        void onRefresh(boolean announce);
+        /**
+         * Notifies the listeners of the current date.
+         */
+        void onDeliver();
+    }
+    private final Callback mCallback;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private int mMode = CherryDatePicker.DATE_CHANGE_PER_FRAME;
+    private long mQuietPeriod = DEFAULT_QUIET_PERIOD;
+    private boolean mRefreshPending;
+    private boolean mAnnouncePending;
+    private boolean mDeliveryPending;
+    private boolean mFrameScheduled;
+    DateChangeCoalescer(Callback callback) {
+        mCallback = callback;
+    }
+    /**
+     * @param mode {@link CherryDatePicker#DATE_CHANGE_PER_FRAME} or
+     *             {@link CherryDatePicker#DATE_CHANGE_DEBOUNCED}
+     */
+    void setMode(int mode) {
+        mMode = mode;
+    }
+    void setQuietPeriod(long quietPeriod) {
+        mQuietPeriod = quietPeriod;
+    }
+    long getQuietPeriod() {
+        return mQuietPeriod;
+    }
+    /**
+     * Records a date change, scheduling a refresh on the next frame and, if
+     * requested, a delivery to the listeners.
+     *
+     * @param announce whether the change should be announced
+     * @param deliver whether the listeners should be notified
+     */
+    void onDateChanged(boolean announce, boolean deliver) {
+        mRefreshPending = true;
+        mAnnouncePending |= announce;
+        if (deliver) {
+            mDeliveryPending = true;
+            if (mMode == CherryDatePicker.DATE_CHANGE_DEBOUNCED) {
+                // Each change restarts the quiet period.
+                mHandler.removeCallbacks(mDeliverRunnable);
+                mHandler.postDelayed(mDeliverRunnable, mQuietPeriod);
+            }
+        }
+        if (!mFrameScheduled) {
+            mFrameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(mFrameCallback);
+        }
+    }
+    /**
+     * Runs any pending refresh and delivery right away.
+     */
+    void flush() {
+        if (mFrameScheduled) {
+            mFrameScheduled = false;
+            Choreographer.getInstance().removeFrameCallback(mFrameCallback);
+        }
+        mHandler.removeCallbacks(mDeliverRunnable);
+        refresh();
+        deliver();
+    }
+    private void refresh() {
+        if (mRefreshPending) {
+            final boolean announce = mAnnouncePending;
+            mRefreshPending = false;
+            mAnnouncePending = false;
+            mCallback.onRefresh(announce);
+        }
+    }
+    private void deliver() {
+        if (mDeliveryPending) {
+            mDeliveryPending = false;
+            mCallback.onDeliver();
+        }
+    }
+    private final Choreographer.FrameCallback mFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mFrameScheduled = false;
+            refresh();
+            if (mMode == CherryDatePicker.DATE_CHANGE_PER_FRAME) {
+                deliver();
+            }
+        }
+    };
+    private final Runnable mDeliverRunnable = new Runnable() {
+        @Override
+        public void run() {
+            // Make sure listeners never see a date the views don't show yet.
+            refresh();
+            deliver();
+        }
+    };
+}
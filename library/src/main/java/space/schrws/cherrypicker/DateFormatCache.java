@@ -0,0 +1,140 @@
+package space.schrws.cherrypicker;
+
+import android.icu.text.DateFormat;
+import android.icu.text.DateFormatSymbols;
+import android.icu.text.DisplayContext;
+import android.icu.text.SimpleDateFormat;
+import android.icu.util.GregorianCalendar;
+import android.util.SparseArray;
+
+import java.text.NumberFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * Per-locale cache of the labels drawn by {@link SimpleMonthView}: day
+ * numbers, narrow weekday names and month-year headers, along with the
+ * formatters for the date picker header.
+ * <p>
+ * Day numbers are kept as char arrays so they can be drawn with
+ * {@link android.graphics.Canvas#drawText(char[], int, int, float, float, android.graphics.Paint)}
+ * without allocating. Month-year labels are formatted once per month and
+ * memoized.
+ */
+class DateFormatCache {
+    private static final String MONTH_YEAR_FORMAT = "MMMMy";
+    private static final String HEADER_YEAR_FORMAT = "y";
+    private static final String HEADER_MONTH_DAY_FORMAT = "EMMMd";
+    private static final int MAX_DAYS_IN_MONTH = 31;
+    /** Upper bound on memoized month-year labels, roughly 40 years. */
+    private static final int MAX_MONTH_YEAR_LABELS = 480;
+    private static final HashMap<Locale, DateFormatCache> sCaches = new HashMap<>();
+    private final char[][] mDayNumbers = new char[MAX_DAYS_IN_MONTH + 1][];
+    private final String[] mDayNumberLabels = new String[MAX_DAYS_IN_MONTH + 1];
+    /** Narrow weekday names indexed by Calendar day, e.g. SUNDAY is 1. */
+    private final String[] mNarrowWeekdays;
+    private final SimpleDateFormat mMonthYearFormat;
+    private final DateFormat mHeaderYearFormat;
+    private final DateFormat mHeaderMonthDayFormat;
+    private final Calendar mTempCalendar;
+    private final SparseArray<String> mMonthYearLabels = new SparseArray<>();
+    private DateFormatCache(Locale locale) {
+        final NumberFormat dayFormatter = NumberFormat.getIntegerInstance(locale);
+        for (int day = 1; day <= MAX_DAYS_IN_MONTH; day++) {
+            final String label = dayFormatter.format(day);
+            mDayNumberLabels[day] = label;
+            mDayNumbers[day] = label.toCharArray();
+        }
+        mNarrowWeekdays = DateFormatSymbols.getInstance(locale).getWeekdays(
+                DateFormatSymbols.STANDALONE, DateFormatSymbols.NARROW);
+        final String pattern = android.text.format.DateFormat.getBestDateTimePattern(
+                locale, MONTH_YEAR_FORMAT);
+        mMonthYearFormat = proleptic(new SimpleDateFormat(pattern, locale));
+        mMonthYearFormat.setContext(DisplayContext.CAPITALIZATION_FOR_STANDALONE);
+        mHeaderYearFormat = proleptic(
+                DateFormat.getInstanceForSkeleton(HEADER_YEAR_FORMAT, locale));
+        mHeaderMonthDayFormat = proleptic(
+                DateFormat.getInstanceForSkeleton(HEADER_MONTH_DAY_FORMAT, locale));
+        mHeaderMonthDayFormat.setContext(DisplayContext.CAPITALIZATION_FOR_STANDALONE);
+        mTempCalendar = CalendarMath.newCalendar(locale);
+    }
+    /**
+     * Makes a formatter follow the proleptic Gregorian calendar, like the
+     * calendars from {@link CalendarMath#newCalendar}, so that dates before
+     * 1582 are labeled as they are laid out. Other calendar systems are left
+     * alone.
+     */
+    private static <T extends DateFormat> T proleptic(T format) {
+        final android.icu.util.Calendar calendar = format.getCalendar();
+        if (calendar instanceof GregorianCalendar) {
+            ((GregorianCalendar) calendar).setGregorianChange(new Date(Long.MIN_VALUE));
+        }
+        return format;
+    }
+    /**
+     * Returns the shared cache for the specified locale, creating it if
+     * needed. Safe to call from any thread.
+     */
+    static DateFormatCache get(Locale locale) {
+        synchronized (sCaches) {
+            DateFormatCache cache = sCaches.get(locale);
+            if (cache == null) {
+                cache = new DateFormatCache(locale);
+                sCaches.put(locale, cache);
+            }
+            return cache;
+        }
+    }
+    /**
+     * Returns the localized digits for a day of the month. The returned
+     * array is shared and must not be modified.
+     */
+    char[] getDayNumber(int dayOfMonth) {
+        return mDayNumbers[dayOfMonth];
+    }
+    String getDayNumberLabel(int dayOfMonth) {
+        return mDayNumberLabels[dayOfMonth];
+    }
+    /**
+     * Returns the narrow name of a day of week, {@link Calendar#SUNDAY}
+     * through {@link Calendar#SATURDAY}.
+     */
+    String getNarrowWeekday(int dayOfWeek) {
+        return mNarrowWeekdays[dayOfWeek];
+    }
+    /**
+     * Returns the standalone month and year label, e.g. "October 2018".
+     *
+     * @param year the year
+     * @param month the zero-based month
+     */
+    synchronized String getMonthYearLabel(int year, int month) {
+        final int key = CalendarMath.getMonthIndex(year, month);
+        String label = mMonthYearLabels.get(key);
+        if (label == null) {
+            if (mMonthYearLabels.size() >= MAX_MONTH_YEAR_LABELS) {
+                mMonthYearLabels.clear();
+            }
+            mTempCalendar.clear();
+            mTempCalendar.set(year, month, 1);
+            label = mMonthYearFormat.format(mTempCalendar.getTime());
+            mMonthYearLabels.put(key, label);
+        }
+        return label;
+    }
+    /**
+     * Returns the year shown in the date picker header, e.g. "2018".
+     */
+    synchronized String formatHeaderYear(Date date) {
+        return mHeaderYearFormat.format(date);
+    }
+    /**
+     * Returns the month and day shown in the date picker header, e.g.
+     * "Thu, Oct 18".
+     */
+    synchronized String formatHeaderMonthDay(Date date) {
+        return mHeaderMonthDayFormat.format(date);
+    }
+}
@@ -0,0 +1,258 @@
+package space.schrws.cherrypicker;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Parses the date strings accepted by the library's date attributes, such as
+ * {@code minDate} and {@code maxDate}.
+ * <p>
+ * Two formats are accepted:
+ * <ul>
+ *     <li>{@code MM/dd/yyyy}, where month and day may have one or two digits
+ *     and the year one to four, e.g. {@code 1/31/2018}. As with the
+ *     {@code SimpleDateFormat} this parser replaced, short years are taken
+ *     literally, so {@code 1/31/18} is in the year 18, not 2018.</li>
+ *     <li>ISO-8601 calendar dates, {@code yyyy-MM-dd}, optionally followed by
+ *     a time, {@code THH:mm[:ss[.SSS]]}, and a UTC offset, {@code Z},
+ *     {@code +HH[[:]mm]} or {@code -HH[[:]mm]}</li>
+ * </ul>
+ * Dates are validated strictly, so out of range fields such as
+ * {@code 02/30/2018} are rejected rather than rolled over. Parsing keeps no
+ * state and is safe to call from any thread; invalid input is reported
+ * through the return value and never throws.
+ */
+public class DateParser {
+    /** Returned by {@link #parsePackedDate} for invalid input. */
+    public static final int INVALID_DATE = -1;
+    /** Returned by {@link #parseMillis} for invalid input. */
+    public static final long INVALID_MILLIS = Long.MIN_VALUE;
+    private static final int ISO_DATE_LENGTH = 10;
+    private static final int NO_OFFSET = Integer.MIN_VALUE;
+    private static final int INVALID_OFFSET = Integer.MAX_VALUE;
+    private static final int MILLIS_PER_SECOND = 1000;
+    private static final int MILLIS_PER_MINUTE = 60 * MILLIS_PER_SECOND;
+    private static final int MILLIS_PER_HOUR = 60 * MILLIS_PER_MINUTE;
+    private static final long MILLIS_PER_DAY = 24L * MILLIS_PER_HOUR;
+
+    /**
+     * Parses a date into a calendar. Dates without a UTC offset are
+     * interpreted in the calendar's time zone.
+     *
+     * @param date the date to parse
+     * @param outDate the calendar to set, left untouched if parsing fails
+     * @return {@code true} if the date was valid
+     */
+    public static boolean parseDate(String date, Calendar outDate) {
+        final long millis = parseMillis(date, outDate.getTimeZone());
+        if (millis == INVALID_MILLIS) {
+            return false;
+        }
+        outDate.setTimeInMillis(millis);
+        return true;
+    }
+
+    /**
+     * Parses a date into epoch millis. Dates without a UTC offset are
+     * interpreted in the specified time zone, at midnight unless a time is
+     * given.
+     *
+     * @return the epoch millis, or {@link #INVALID_MILLIS}
+     */
+    public static long parseMillis(CharSequence date, TimeZone zone) {
+        final int packedDate = parsePackedDate(date);
+        if (packedDate == INVALID_DATE) {
+            return INVALID_MILLIS;
+        }
+        final int epochDay = CalendarMath.toEpochDay(CalendarMath.getYear(packedDate),
+                CalendarMath.getMonth(packedDate), CalendarMath.getDayOfMonth(packedDate));
+        final long localMillis = epochDay * MILLIS_PER_DAY + parseMillisOfDay(date);
+        final int offset = parseOffsetMillis(date);
+        if (offset == NO_OFFSET) {
+            return CalendarMath.toEpochMillis(localMillis, zone);
+        }
+        return localMillis - offset;
+    }
+
+    /**
+     * Parses the calendar date of a date string, ignoring any time or UTC
+     * offset, which must still be well-formed.
+     *
+     * @return the date packed as by {@link CalendarMath#pack}, or
+     *         {@link #INVALID_DATE}
+     */
+    public static int parsePackedDate(CharSequence date) {
+        if (date == null) {
+            return INVALID_DATE;
+        }
+        final int length = date.length();
+        if (length >= ISO_DATE_LENGTH && date.charAt(4) == '-') {
+            if (date.charAt(7) != '-') {
+                return INVALID_DATE;
+            }
+            if (length > ISO_DATE_LENGTH && (parseMillisOfDay(date) < 0
+                    || parseOffsetMillis(date) == INVALID_OFFSET)) {
+                return INVALID_DATE;
+            }
+            return toPackedDate(parseDigits(date, 0, 4), parseDigits(date, 5, 7),
+                    parseDigits(date, 8, ISO_DATE_LENGTH));
+        }
+        final int firstSlash = indexOf(date, '/', 0);
+        final int secondSlash = indexOf(date, '/', firstSlash + 1);
+        if (firstSlash < 1 || firstSlash > 2 || secondSlash < 0
+                || secondSlash - firstSlash < 2 || secondSlash - firstSlash > 3
+                || length - secondSlash < 2 || length - secondSlash > 5) {
+            return INVALID_DATE;
+        }
+        return toPackedDate(parseDigits(date, secondSlash + 1, length),
+                parseDigits(date, 0, firstSlash), parseDigits(date, firstSlash + 1, secondSlash));
+    }
+
+    /**
+     * @param month the one-based month, as written
+     */
+    private static int toPackedDate(int year, int month, int dayOfMonth) {
+        if (year < CalendarMath.MIN_YEAR || year > CalendarMath.MAX_YEAR
+                || month < 1 || month > 12 || dayOfMonth < 1
+                || dayOfMonth > CalendarMath.getDaysInMonth(month - 1, year)) {
+            return INVALID_DATE;
+        }
+        return CalendarMath.pack(year, month - 1, dayOfMonth);
+    }
+
+    /**
+     * Returns the time of an ISO-8601 date-time in millis, 0 if there is no
+     * time, or -1 if the time is malformed.
+     */
+    private static int parseMillisOfDay(CharSequence date) {
+        final int length = date.length();
+        if (length <= ISO_DATE_LENGTH) {
+            return 0;
+        }
+        if (date.charAt(ISO_DATE_LENGTH) != 'T') {
+            return -1;
+        }
+        final int start = ISO_DATE_LENGTH + 1;
+        final int end = findOffsetStart(date, start);
+        final int timeLength = end - start;
+        if (timeLength != 5 && timeLength < 8 || date.charAt(start + 2) != ':') {
+            return -1;
+        }
+        final int hour = parseDigits(date, start, start + 2);
+        final int minute = parseDigits(date, start + 3, start + 5);
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+            return -1;
+        }
+        int second = 0;
+        int millis = 0;
+        if (timeLength >= 8) {
+            if (date.charAt(start + 5) != ':') {
+                return -1;
+            }
+            second = parseDigits(date, start + 6, start + 8);
+            if (second < 0 || second > 59) {
+                return -1;
+            }
+            if (timeLength > 8) {
+                // At least one fraction digit, digits past millis are dropped.
+                if (timeLength == 9 || date.charAt(start + 8) != '.') {
+                    return -1;
+                }
+                for (int i = start + 9; i < end; i++) {
+                    final char c = date.charAt(i);
+                    if (c < '0' || c > '9') {
+                        return -1;
+                    }
+                }
+                final int digits = Math.min(timeLength - 9, 3);
+                millis = parseDigits(date, start + 9, start + 9 + digits);
+                for (int i = digits; i < 3; i++) {
+                    millis *= 10;
+                }
+            }
+        }
+        return hour * MILLIS_PER_HOUR + minute * MILLIS_PER_MINUTE + second * MILLIS_PER_SECOND
+                + millis;
+    }
+
+    /**
+     * Returns the UTC offset of an ISO-8601 date-time in millis,
+     * {@link #NO_OFFSET} if there is none, or {@link #INVALID_OFFSET} if it
+     * is malformed.
+     */
+    private static int parseOffsetMillis(CharSequence date) {
+        final int length = date.length();
+        if (length <= ISO_DATE_LENGTH) {
+            return NO_OFFSET;
+        }
+        final int start = findOffsetStart(date, ISO_DATE_LENGTH + 1);
+        if (start == length) {
+            return NO_OFFSET;
+        }
+        final char sign = date.charAt(start);
+        if (sign == 'Z') {
+            return start + 1 == length ? 0 : INVALID_OFFSET;
+        }
+        final int hours = parseDigits(date, start + 1, Math.min(length, start + 3));
+        final int minutes;
+        switch (length - start) {
+            case 3:
+                minutes = 0;
+                break;
+            case 5:
+                minutes = parseDigits(date, start + 3, length);
+                break;
+            case 6:
+                minutes = date.charAt(start + 3) == ':'
+                        ? parseDigits(date, start + 4, length) : -1;
+                break;
+            default:
+                return INVALID_OFFSET;
+        }
+        if (hours < 0 || hours > 23 || minutes < 0 || minutes > 59) {
+            return INVALID_OFFSET;
+        }
+        final int offset = hours * MILLIS_PER_HOUR + minutes * MILLIS_PER_MINUTE;
+        return sign == '-' ? -offset : offset;
+    }
+
+    private static int findOffsetStart(CharSequence date, int start) {
+        final int length = date.length();
+        for (int i = start; i < length; i++) {
+            final char c = date.charAt(i);
+            if (c == 'Z' || c == '+' || c == '-') {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Returns the value of the ASCII digits between start and end, or -1 if
+     * the range is empty, longer than 4 digits or contains anything else.
+     */
+    private static int parseDigits(CharSequence s, int start, int end) {
+        if (start >= end || end - start > 4) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            final char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int indexOf(CharSequence s, char c, int start) {
+        final int length = s.length();
+        for (int i = start; i < length; i++) {
+            if (s.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,177 @@
+package space.schrws.cherrypicker;
+
+/**
+ * Set of selected days, stored as a bitset over the epoch days between a
+ * picker's min and max dates. The default range of two centuries takes about
+ * 9 KB, allocated on the first selection.
+ * <p>
+ * The selected days of a month come out as a mask, bit
+ * {@code dayOfMonth - 1} for each day, in constant time, and ranges are set
+ * or cleared a word at a time.
+ */
+final class DateSelection {
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+    private static final int BITS_PER_WORD = 1 << ADDRESS_BITS_PER_WORD;
+    /** Epoch day of bit 0. */
+    private int mFirstDay;
+    /** Number of days covered. */
+    private int mLength;
+    /** The bits, or {@code null} while nothing was ever selected. */
+    private long[] mWords;
+    /**
+     * Sets the days covered by the selection, keeping the selected days that
+     * are still covered.
+     *
+     * @param firstDay the first epoch day
+     * @param lastDay the last epoch day, inclusive
+     */
+    void setBounds(int firstDay, int lastDay) {
+        if (firstDay == mFirstDay && lastDay - firstDay + 1 == mLength) {
+            return;
+        }
+        final long[] oldWords = mWords;
+        final int oldFirstDay = mFirstDay;
+        final int oldLength = mLength;
+        mFirstDay = firstDay;
+        mLength = Math.max(lastDay - firstDay + 1, 0);
+        mWords = null;
+        if (oldWords != null) {
+            // Copy the surviving bits over. Bounds rarely change, so this
+            // doesn't need to be fast.
+            final int from = Math.max(oldFirstDay, firstDay);
+            final int to = Math.min(oldFirstDay + oldLength - 1, lastDay);
+            for (int day = from; day <= to; day++) {
+                final int index = day - oldFirstDay;
+                if ((oldWords[index >>> ADDRESS_BITS_PER_WORD] & (1L << index)) != 0) {
+                    set(day, true);
+                }
+            }
+        }
+    }
+    /**
+     * @return whether the epoch day is selected
+     */
+    boolean contains(int day) {
+        final int index = day - mFirstDay;
+        if (mWords == null || index < 0 || index >= mLength) {
+            return false;
+        }
+        return (mWords[index >>> ADDRESS_BITS_PER_WORD] & (1L << index)) != 0;
+    }
+    /**
+     * Selects or deselects an epoch day. Days outside of the bounds are
+     * ignored.
+     *
+     * @return whether the selection changed
+     */
+    boolean set(int day, boolean selected) {
+        final int index = day - mFirstDay;
+        if (index < 0 || index >= mLength || contains(day) == selected) {
+            return false;
+        }
+        ensureWords();
+        mWords[index >>> ADDRESS_BITS_PER_WORD] ^= 1L << index;
+        return true;
+    }
+    /**
+     * Selects or deselects every epoch day in an inclusive range, clipped to
+     * the bounds.
+     */
+    void set(int firstDay, int lastDay, boolean selected) {
+        final int from = Math.max(firstDay - mFirstDay, 0);
+        final int to = Math.min(lastDay - mFirstDay, mLength - 1);
+        if (from > to || (mWords == null && !selected)) {
+            return;
+        }
+        ensureWords();
+        final long[] words = mWords;
+        final int firstWord = from >>> ADDRESS_BITS_PER_WORD;
+        final int lastWord = to >>> ADDRESS_BITS_PER_WORD;
+        // Shifts are taken mod 64, so these are the bits from "from" up and
+        // from "to" down within their words.
+        final long firstMask = -1L << from;
+        final long lastMask = -1L >>> (BITS_PER_WORD - 1 - (to & (BITS_PER_WORD - 1)));
+        for (int i = firstWord; i <= lastWord; i++) {
+            long mask = -1L;
+            if (i == firstWord) {
+                mask &= firstMask;
+            }
+            if (i == lastWord) {
+                mask &= lastMask;
+            }
+            if (selected) {
+                words[i] |= mask;
+            } else {
+                words[i] &= ~mask;
+            }
+        }
+    }
+    void clear() {
+        mWords = null;
+    }
+    /**
+     * Returns the selected days of a month.
+     *
+     * @param firstDay the epoch day of the first day of the month
+     * @param daysInMonth the number of days in the month
+     * @return a mask with bit {@code dayOfMonth - 1} set for selected days
+     */
+    int getMonthMask(int firstDay, int daysInMonth) {
+        if (mWords == null) {
+            return 0;
+        }
+        final int offset = firstDay - mFirstDay;
+        final int from = Math.max(offset, 0);
+        final int to = Math.min(offset + daysInMonth, mLength);
+        if (from >= to) {
+            return 0;
+        }
+        // At most 31 bits, spread over at most two words.
+        final int wordIndex = from >>> ADDRESS_BITS_PER_WORD;
+        final int bit = from & (BITS_PER_WORD - 1);
+        final int count = to - from;
+        long bits = mWords[wordIndex] >>> bit;
+        if (bit + count > BITS_PER_WORD) {
+            bits |= mWords[wordIndex + 1] << (BITS_PER_WORD - bit);
+        }
+        bits &= (1L << count) - 1;
+        return (int) (bits << (from - offset));
+    }
+    /**
+     * @return the number of selected days
+     */
+    int size() {
+        if (mWords == null) {
+            return 0;
+        }
+        int size = 0;
+        for (long word : mWords) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+    /**
+     * @return the selected epoch days, in ascending order
+     */
+    int[] toEpochDays() {
+        final int[] days = new int[size()];
+        if (mWords == null) {
+            return days;
+        }
+        int count = 0;
+        for (int i = 0; i < mWords.length; i++) {
+            long word = mWords[i];
+            while (word != 0) {
+                days[count++] = mFirstDay + (i << ADDRESS_BITS_PER_WORD)
+                        + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return days;
+    }
+    private void ensureWords() {
+        if (mWords == null) {
+            mWords = new long[(mLength + BITS_PER_WORD - 1) >>> ADDRESS_BITS_PER_WORD];
+        }
+    }
+}
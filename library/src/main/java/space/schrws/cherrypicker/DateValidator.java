@@ -0,0 +1,23 @@
+package space.schrws.cherrypicker;
+
+/**
+ * Decides which days can be picked, in addition to the min and max dates.
+ * <p>
+ * Pickers evaluate a validator once for every day of a month when that month
+ * is first shown and cache the result, so it is never called while drawing.
+ * If the answer for some dates changes, e.g. when new holidays are loaded,
+ * call {@link CherryDatePicker#notifyDateValidatorChanged()}.
+ * <p>
+ * Validators set with an executor, see
+ * {@link CherryDatePicker#setDateValidator(DateValidator, java.util.concurrent.Executor)},
+ * are called on that executor's threads and must be thread safe.
+ */
+public interface DateValidator {
+    /**
+     * @param year the year
+     * @param month the zero-based month, as in {@link java.util.Calendar#MONTH}
+     * @param dayOfMonth the one-based day of the month
+     * @return whether the day can be picked
+     */
+    boolean isValid(int year, int month, int dayOfMonth);
+}
@@ -0,0 +1,55 @@
+package space.schrws.cherrypicker;
+
+import android.graphics.Color;
+
+/**
+ * How a day is decorated in the calendar: a tinted circle behind the day
+ * number, a dot under it, or a short badge, such as a price, under it. A
+ * badge takes the place of the dot.
+ * <p>
+ * Decorations are immutable, so one instance can be shared by every day that
+ * looks the same rather than allocated per day.
+ */
+public final class DayDecoration {
+    /** Color of a part of the decoration that isn't drawn. */
+    public static final int NO_COLOR = Color.TRANSPARENT;
+    private final int mBackgroundColor;
+    private final int mDotColor;
+    private final String mBadge;
+    private final int mBadgeColor;
+    /**
+     * @param backgroundColor the color of the circle behind the day number,
+     *                        or {@link #NO_COLOR}
+     * @param dotColor the color of the dot under the day number, or
+     *                 {@link #NO_COLOR}
+     * @param badge the text under the day number, or {@code null}
+     * @param badgeColor the color of the badge text
+     */
+    public DayDecoration(int backgroundColor, int dotColor, String badge, int badgeColor) {
+        mBackgroundColor = backgroundColor;
+        mDotColor = dotColor;
+        mBadge = badge;
+        mBadgeColor = badgeColor;
+    }
+    public static DayDecoration background(int color) {
+        return new DayDecoration(color, NO_COLOR, null, NO_COLOR);
+    }
+    public static DayDecoration dot(int color) {
+        return new DayDecoration(NO_COLOR, color, null, NO_COLOR);
+    }
+    public static DayDecoration badge(String badge, int color) {
+        return new DayDecoration(NO_COLOR, NO_COLOR, badge, color);
+    }
+    public int getBackgroundColor() {
+        return mBackgroundColor;
+    }
+    public int getDotColor() {
+        return mDotColor;
+    }
+    public String getBadge() {
+        return mBadge;
+    }
+    public int getBadgeColor() {
+        return mBadgeColor;
+    }
+}
@@ -0,0 +1,20 @@
+package space.schrws.cherrypicker;
+
+/**
+ * Supplies the decorations drawn on days, e.g. event dots or price badges.
+ * <p>
+ * Pickers query a decorator on the main thread for every day of a month when
+ * a page is bound, keep the result with the page and never call it while
+ * drawing. After changing the decorations of any number of days, call
+ * {@link CherryDatePicker#notifyDayDecoratorChanged()} once to redraw each
+ * visible page a single time.
+ */
+public interface DayDecorator {
+    /**
+     * @param year the year
+     * @param month the zero-based month, as in {@link java.util.Calendar#MONTH}
+     * @param dayOfMonth the one-based day of the month
+     * @return the decoration of the day, or {@code null} for none
+     */
+    DayDecoration getDecoration(int year, int month, int dayOfMonth);
+}
@@ -4,6 +4,8 @@ import android.content.Context;
 import android.content.res.ColorStateList;
 import android.content.res.TypedArray;
 import android.graphics.Rect;
+import android.os.Handler;
+import android.os.Looper;
 import android.support.v4.view.PagerAdapter;
 import android.util.SparseArray;
 import android.view.LayoutInflater;
@@ -11,19 +13,31 @@ import android.view.View;
 import android.view.ViewGroup;
 
 import java.util.Calendar;
+import java.util.concurrent.Executor;
 
 /**
  * Created by Schrws on 2018-10-26.
  */
 public class DayPickerPagerAdapter extends PagerAdapter {
-    private static final int MONTHS_IN_YEAR = 12;
-    private final Calendar mMinDate = Calendar.getInstance();
-    private final Calendar mMaxDate = Calendar.getInstance();
+    private static final int NO_DAY = -1;
+    /** Number of months whose enabled days are kept, a few years of paging. */
+    private static final int MASK_CACHE_SIZE = 24;
+    /**
+     * Number of months on either side of the current page whose enabled days
+     * are loaded ahead of time by an asynchronous validator.
+     */
+    private static final int PREFETCH_MONTHS = 3;
     private final SparseArray<ViewHolder> mItems = new SparseArray<>();
     private final LayoutInflater mInflater;
     private final int mLayoutResId;
     private final int mCalendarViewId;
-    private Calendar mSelectedDay = null;
+    /** Packed yyyymmdd bounds of the range, see {@link CalendarMath#pack}. */
+    private int mMinDate;
+    private int mMaxDate;
+    /** Month index of the first page, see {@link CalendarMath#getMonthIndex}. */
+    private int mMinMonthIndex;
+    /** Packed yyyymmdd selected day, or {@link #NO_DAY}. */
+    private int mSelectedDay = NO_DAY;
     private int mMonthTextAppearance;
     private int mDayOfWeekTextAppearance;
     private int mDayTextAppearance;
@@ -31,6 +45,25 @@ public class DayPickerPagerAdapter extends PagerAdapter {
     private ColorStateList mDaySelectorColor;
     private ColorStateList mDayHighlightColor;
     private OnDaySelectedListener mOnDaySelectedListener;
+    private MonthViewPool mMonthViewPool = new MonthViewPool();
+    /** Whether the picker showing this adapter is attached to a window. */
+    private boolean mAttached;
+    private final PickerMetrics mMetrics = new PickerMetrics();
+    private final MonthMaskCache mEnabledDays = new MonthMaskCache(MASK_CACHE_SIZE);
+    private DateValidator mDateValidator;
+    private Executor mDateValidatorExecutor;
+    /** In-flight asynchronous validator loads, by month index. */
+    private final SparseArray<MonthLoad> mPendingLoads = new SparseArray<>();
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private DayDecorator mDayDecorator;
+    /** One of the selection modes of {@link CherryDatePicker}. */
+    private int mSelectionMode = CherryDatePicker.SELECTION_MODE_SINGLE;
+    /** Days selected in multiple selection mode. */
+    private final DateSelection mSelection = new DateSelection();
+    /** Epoch days of the ends of the selected range, see {@link #setSelectedRange}. */
+    private int mRangeStart = SimpleMonthView.NO_EPOCH_DAY;
+    private int mRangeEnd = SimpleMonthView.NO_EPOCH_DAY;
+    private SimpleMonthView.OnRangeDragListener mOnRangeDragListener;
     private int mCount;
     private int mFirstDayOfWeek;
     public DayPickerPagerAdapter(Context context, int layoutResId, int calendarViewId) {
@@ -42,13 +75,36 @@ public class DayPickerPagerAdapter extends PagerAdapter {
         ta.recycle();
     }
     public void setRange(Calendar min, Calendar max) {
-        mMinDate.setTimeInMillis(min.getTimeInMillis());
-        mMaxDate.setTimeInMillis(max.getTimeInMillis());
-        final int diffYear = mMaxDate.get(Calendar.YEAR) - mMinDate.get(Calendar.YEAR);
-        final int diffMonth = mMaxDate.get(Calendar.MONTH) - mMinDate.get(Calendar.MONTH);
-        mCount = diffMonth + MONTHS_IN_YEAR * diffYear + 1;
-        // Positions are now invalid, clear everything and start over.
-        notifyDataSetChanged();
+        final int minDate = packDay(min);
+        final int maxDate = packDay(max);
+        if (minDate == mMinDate && maxDate == mMaxDate) {
+            return;
+        }
+        final int minMonthIndex = CalendarMath.getMonthIndex(min);
+        final int count = CalendarMath.getMonthIndex(max) - minMonthIndex + 1;
+        final boolean positionsChanged = minMonthIndex != mMinMonthIndex;
+        mMinDate = minDate;
+        mMaxDate = maxDate;
+        mMinMonthIndex = minMonthIndex;
+        mSelection.setBounds(toEpochDay(minDate), toEpochDay(maxDate));
+        if (positionsChanged) {
+            // Positions are now invalid, drop every live page and start over.
+            final int itemCount = mItems.size();
+            for (int i = 0; i < itemCount; i++) {
+                mItems.valueAt(i).stale = true;
+            }
+        } else {
+            // Same positions, only the enabled days of the live pages moved.
+            final int itemCount = mItems.size();
+            for (int i = 0; i < itemCount; i++) {
+                final ViewHolder holder = mItems.valueAt(i);
+                bindMonth(holder.calendar, holder.position);
+            }
+        }
+        if (positionsChanged || count != mCount) {
+            mCount = count;
+            notifyDataSetChanged();
+        }
     }
     /**
      * Sets the first day of the week.
@@ -68,6 +124,332 @@ public class DayPickerPagerAdapter extends PagerAdapter {
     public int getFirstDayOfWeek() {
         return mFirstDayOfWeek;
     }
+    /**
+     * Sets the pool used to recycle month pages. Pools may be shared between
+     * adapters inflating the same item layout.
+     *
+     * @param pool the pool to use, must not be {@code null}
+     */
+    public void setMonthViewPool(MonthViewPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("pool must not be null");
+        }
+        if (mAttached) {
+            mMonthViewPool.onPickerDetached(mInflater.getContext());
+            pool.onPickerAttached(mInflater.getContext());
+        }
+        mMonthViewPool = pool;
+    }
+    /**
+     * Called when the picker showing this adapter is attached to a window,
+     * so that the pool keeps the pages it releases.
+     */
+    void onAttachedToWindow() {
+        mAttached = true;
+        mMonthViewPool.onPickerAttached(mInflater.getContext());
+    }
+    /**
+     * Called when the picker showing this adapter is detached from its
+     * window, so that the pool may drop the pages of its context.
+     */
+    void onDetachedFromWindow() {
+        mAttached = false;
+        mMonthViewPool.onPickerDetached(mInflater.getContext());
+    }
+    public MonthViewPool getMonthViewPool() {
+        return mMonthViewPool;
+    }
+    public PickerMetrics getMetrics() {
+        return mMetrics;
+    }
+    /**
+     * Sets the validator deciding which days can be picked within the range.
+     *
+     * @param validator the validator, or {@code null} to enable every day
+     */
+    public void setDateValidator(DateValidator validator) {
+        setDateValidator(validator, null);
+    }
+    /**
+     * Sets the validator deciding which days can be picked within the range,
+     * evaluated on the specified executor. Pages whose months aren't loaded
+     * yet show every day disabled until the result arrives.
+     *
+     * @param validator the validator, or {@code null} to enable every day
+     * @param executor the executor to call the validator on, or {@code null}
+     *                 to call it on the main thread
+     */
+    public void setDateValidator(DateValidator validator, Executor executor) {
+        if (mDateValidator != validator || mDateValidatorExecutor != executor) {
+            mDateValidator = validator;
+            mDateValidatorExecutor = executor;
+            notifyDateValidatorChanged();
+        }
+    }
+    public DateValidator getDateValidator() {
+        return mDateValidator;
+    }
+    /**
+     * Drops the cached enabled days and re-evaluates the validator for the
+     * live pages.
+     */
+    public void notifyDateValidatorChanged() {
+        mEnabledDays.clear();
+        for (int i = 0; i < mPendingLoads.size(); i++) {
+            mPendingLoads.valueAt(i).cancelled = true;
+        }
+        mPendingLoads.clear();
+        final int count = mItems.size();
+        for (int i = 0; i < count; i++) {
+            final ViewHolder holder = mItems.valueAt(i);
+            bindMonth(holder.calendar, holder.position);
+        }
+    }
+    /**
+     * Sets the decorator supplying the dots, badges and tints of days.
+     *
+     * @param decorator the decorator, or {@code null} for no decorations
+     */
+    public void setDayDecorator(DayDecorator decorator) {
+        if (mDayDecorator != decorator) {
+            mDayDecorator = decorator;
+            final int count = mItems.size();
+            for (int i = 0; i < count; i++) {
+                mItems.valueAt(i).calendar.setDayDecorator(decorator);
+            }
+            notifyDayDecoratorChanged();
+        }
+    }
+    public DayDecorator getDayDecorator() {
+        return mDayDecorator;
+    }
+    /**
+     * Re-queries the decorator for the live pages, redrawing each page once
+     * no matter how many decorations changed.
+     */
+    public void notifyDayDecoratorChanged() {
+        final int count = mItems.size();
+        for (int i = 0; i < count; i++) {
+            mItems.valueAt(i).calendar.updateDayDecorations();
+        }
+    }
+    /**
+     * Loads the enabled days of the months around a page ahead of time and
+     * cancels the loads of months that were paged past. Only has an effect
+     * if the validator runs on an executor.
+     *
+     * @param position the current page
+     */
+    void prefetch(int position) {
+        if (mDateValidator == null || mDateValidatorExecutor == null) {
+            return;
+        }
+        final int first = Math.max(0, position - PREFETCH_MONTHS);
+        final int last = Math.min(mCount - 1, position + PREFETCH_MONTHS);
+        cancelLoads(mMinMonthIndex + first, mMinMonthIndex + last);
+        for (int i = first; i <= last; i++) {
+            final int monthIndex = mMinMonthIndex + i;
+            if (mEnabledDays.get(monthIndex) == MonthMaskCache.MISSING) {
+                startLoad(monthIndex);
+            }
+        }
+    }
+    /**
+     * Returns the days of a month accepted by the validator, evaluating it
+     * only if the month isn't cached.
+     *
+     * @return a mask with bit {@code dayOfMonth - 1} set for enabled days,
+     *         or {@link SimpleMonthView#ENABLED_DAYS_PENDING} if the month is
+     *         being loaded on the validator's executor
+     */
+    private int getEnabledDays(int year, int month) {
+        final DateValidator validator = mDateValidator;
+        if (validator == null) {
+            return SimpleMonthView.ALL_DAYS_ENABLED;
+        }
+        final int monthIndex = CalendarMath.getMonthIndex(year, month);
+        int mask = mEnabledDays.get(monthIndex);
+        if (mask == MonthMaskCache.MISSING) {
+            if (mDateValidatorExecutor != null) {
+                startLoad(monthIndex);
+                return SimpleMonthView.ENABLED_DAYS_PENDING;
+            }
+            mask = evaluate(validator, monthIndex, null);
+            mEnabledDays.put(monthIndex, mask);
+        }
+        return mask;
+    }
+    private void startLoad(int monthIndex) {
+        if (mPendingLoads.get(monthIndex) == null) {
+            final MonthLoad load = new MonthLoad(mDateValidator, monthIndex);
+            mPendingLoads.put(monthIndex, load);
+            mDateValidatorExecutor.execute(load);
+        }
+    }
+    /**
+     * Cancels the pending loads of months outside of an inclusive range of
+     * month indices, except those of live pages.
+     */
+    private void cancelLoads(int firstMonthIndex, int lastMonthIndex) {
+        for (int i = mPendingLoads.size() - 1; i >= 0; i--) {
+            final int monthIndex = mPendingLoads.keyAt(i);
+            if ((monthIndex < firstMonthIndex || monthIndex > lastMonthIndex)
+                    && mItems.get(monthIndex - mMinMonthIndex) == null) {
+                mPendingLoads.valueAt(i).cancelled = true;
+                mPendingLoads.removeAt(i);
+            }
+        }
+    }
+    /**
+     * Called on the main thread with the result of a load that wasn't
+     * cancelled. Only the page showing the loaded month is updated.
+     */
+    private void onLoadFinished(MonthLoad load) {
+        if (mPendingLoads.get(load.monthIndex) != load) {
+            return;
+        }
+        mPendingLoads.remove(load.monthIndex);
+        mEnabledDays.put(load.monthIndex, load.mask);
+        final ViewHolder holder = mItems.get(load.monthIndex - mMinMonthIndex);
+        if (holder != null && !holder.stale) {
+            holder.calendar.setEnabledDays(load.mask);
+        }
+    }
+    /**
+     * Evaluates a validator for every day of a month.
+     *
+     * @param load the load to check for cancellation, or {@code null}
+     * @return the enabled days mask, or 0 if the load was cancelled
+     */
+    private static int evaluate(DateValidator validator, int monthIndex, MonthLoad load) {
+        final int year = CalendarMath.getYearForMonthIndex(monthIndex);
+        final int month = CalendarMath.getMonthForMonthIndex(monthIndex);
+        final int daysInMonth = CalendarMath.getDaysInMonth(month, year);
+        int mask = 0;
+        for (int day = 1; day <= daysInMonth; day++) {
+            if (load != null && load.cancelled) {
+                return 0;
+            }
+            if (validator.isValid(year, month, day)) {
+                mask |= 1 << (day - 1);
+            }
+        }
+        return mask;
+    }
+    /**
+     * Switches the pages between showing the selected day, the selected
+     * range or the selected set of days.
+     *
+     * @param selectionMode one of the selection modes of
+     *                      {@link CherryDatePicker}
+     */
+    void setSelectionMode(int selectionMode) {
+        if (mSelectionMode != selectionMode) {
+            mSelectionMode = selectionMode;
+            final boolean rangeMode = selectionMode == CherryDatePicker.SELECTION_MODE_RANGE;
+            final int count = mItems.size();
+            for (int i = 0; i < count; i++) {
+                final ViewHolder holder = mItems.valueAt(i);
+                holder.calendar.setOnRangeDragListener(rangeMode ? mOnRangeDragListener : null);
+                bindMonth(holder.calendar, holder.position);
+            }
+        }
+    }
+    /**
+     * @return the days selected in multiple selection mode
+     */
+    DateSelection getSelection() {
+        return mSelection;
+    }
+    /**
+     * Toggles a day in multiple selection mode. Only the day's cell is
+     * redrawn.
+     *
+     * @return whether the day is now selected
+     */
+    boolean toggleSelectedDay(int epochDay) {
+        final boolean selected = !mSelection.contains(epochDay);
+        mSelection.set(epochDay, selected);
+        final int date = CalendarMath.fromEpochDay(epochDay);
+        final ViewHolder holder = mItems.get(getPositionForPackedDay(date));
+        if (holder != null) {
+            bindSelection(holder.calendar, holder.position);
+        }
+        return selected;
+    }
+    /**
+     * Rebinds the selected days of the live pages after a bulk change to
+     * {@link #getSelection()}, redrawing each page at most once.
+     */
+    void notifySelectionChanged() {
+        final int count = mItems.size();
+        for (int i = 0; i < count; i++) {
+            final ViewHolder holder = mItems.valueAt(i);
+            bindSelection(holder.calendar, holder.position);
+        }
+    }
+    private void bindSelection(SimpleMonthView v, int position) {
+        if (mSelectionMode != CherryDatePicker.SELECTION_MODE_MULTIPLE) {
+            v.setSelectedDays(0);
+            return;
+        }
+        final int month = getMonthForPosition(position);
+        final int year = getYearForPosition(position);
+        v.setSelectedDays(mSelection.getMonthMask(CalendarMath.toEpochDay(year, month, 1),
+                CalendarMath.getDaysInMonth(month, year)));
+    }
+    void setOnRangeDragListener(SimpleMonthView.OnRangeDragListener listener) {
+        mOnRangeDragListener = listener;
+    }
+    /**
+     * Sets the selected range, shown in range mode. Only the live pages whose
+     * part of the range changed are redrawn.
+     *
+     * @param startEpochDay the first day of the range, or
+     *                      {@link SimpleMonthView#NO_EPOCH_DAY} for no range
+     * @param endEpochDay the last day of the range, or
+     *                    {@link SimpleMonthView#NO_EPOCH_DAY} if only the
+     *                    first day is picked so far
+     */
+    void setSelectedRange(int startEpochDay, int endEpochDay) {
+        mRangeStart = startEpochDay;
+        mRangeEnd = endEpochDay;
+        final int count = mItems.size();
+        for (int i = 0; i < count; i++) {
+            final ViewHolder holder = mItems.valueAt(i);
+            bindRange(holder.calendar, holder.position);
+        }
+    }
+    /**
+     * Binds the part of the selected range within the month shown at the
+     * specified position to a month view.
+     */
+    private void bindRange(SimpleMonthView v, int position) {
+        if (mSelectionMode != CherryDatePicker.SELECTION_MODE_RANGE
+                || mRangeStart == SimpleMonthView.NO_EPOCH_DAY) {
+            v.setSelectedRange(SimpleMonthView.NO_RANGE, SimpleMonthView.NO_RANGE);
+            return;
+        }
+        final int month = getMonthForPosition(position);
+        final int year = getYearForPosition(position);
+        final int firstDay = CalendarMath.toEpochDay(year, month, 1);
+        final int daysInMonth = CalendarMath.getDaysInMonth(month, year);
+        final int rangeEnd = mRangeEnd != SimpleMonthView.NO_EPOCH_DAY ? mRangeEnd : mRangeStart;
+        if (rangeEnd < firstDay || mRangeStart >= firstDay + daysInMonth) {
+            v.setSelectedRange(SimpleMonthView.NO_RANGE, SimpleMonthView.NO_RANGE);
+        } else {
+            v.setSelectedRange(Math.max(mRangeStart - firstDay + 1, 0),
+                    Math.min(rangeEnd - firstDay + 1, daysInMonth + 1));
+        }
+    }
+    /**
+     * @return the month view of the live page at the specified position, or
+     *         {@code null}
+     */
+    SimpleMonthView getMonthView(int position) {
+        final ViewHolder holder = mItems.get(position);
+        return holder != null ? holder.calendar : null;
+    }
     public boolean getBoundsForDate(Calendar day, Rect outBounds) {
         final int position = getPositionForDay(day);
         final ViewHolder monthView = mItems.get(position, null);
@@ -84,7 +466,12 @@ public class DayPickerPagerAdapter extends PagerAdapter {
      * @param day the selected day
      */
     public void setSelectedDay(Calendar day) {
-        final int oldPosition = getPositionForDay(mSelectedDay);
+        if (mSelectionMode != CherryDatePicker.SELECTION_MODE_SINGLE) {
+            // Pages show the range or the selected days instead.
+            mSelectedDay = day != null ? packDay(day) : NO_DAY;
+            return;
+        }
+        final int oldPosition = getPositionForPackedDay(mSelectedDay);
         final int newPosition = getPositionForDay(day);
         // Clear the old position if necessary.
         if (oldPosition != newPosition && oldPosition >= 0) {
@@ -101,7 +488,7 @@ public class DayPickerPagerAdapter extends PagerAdapter {
                 newMonthView.calendar.setSelectedDay(dayOfMonth);
             }
         }
-        mSelectedDay = day;
+        mSelectedDay = day != null ? packDay(day) : NO_DAY;
     }
     /**
      * Sets the listener to call when the user selects a day.
@@ -111,28 +498,73 @@ public class DayPickerPagerAdapter extends PagerAdapter {
     public void setOnDaySelectedListener(OnDaySelectedListener listener) {
         mOnDaySelectedListener = listener;
     }
+    /**
+     * Sets the color of all calendar text, or goes back to the colors of the
+     * text appearances if {@code calendarTextColor} is {@code null}.
+     */
     void setCalendarTextColor(ColorStateList calendarTextColor) {
         mCalendarTextColor = calendarTextColor;
-        notifyDataSetChanged();
+        final int count = mItems.size();
+        for (int i = 0; i < count; i++) {
+            final SimpleMonthView monthView = mItems.valueAt(i).calendar;
+            if (calendarTextColor == null) {
+                monthView.resetTextColors();
+            } else {
+                applyCalendarTextColor(monthView);
+            }
+        }
     }
+    /**
+     * Sets the color of the selected day, or goes back to the default one if
+     * {@code selectorColor} is {@code null}.
+     */
     void setDaySelectorColor(ColorStateList selectorColor) {
         mDaySelectorColor = selectorColor;
-        notifyDataSetChanged();
+        final int count = mItems.size();
+        for (int i = 0; i < count; i++) {
+            mItems.valueAt(i).calendar.setDaySelectorColor(selectorColor);
+        }
     }
     void setMonthTextAppearance(int resId) {
         mMonthTextAppearance = resId;
-        notifyDataSetChanged();
+        final int count = mItems.size();
+        for (int i = 0; i < count; i++) {
+            final SimpleMonthView monthView = mItems.valueAt(i).calendar;
+            monthView.setMonthTextAppearance(resId);
+            applyCalendarTextColor(monthView);
+        }
     }
     void setDayOfWeekTextAppearance(int resId) {
         mDayOfWeekTextAppearance = resId;
-        notifyDataSetChanged();
+        final int count = mItems.size();
+        for (int i = 0; i < count; i++) {
+            final SimpleMonthView monthView = mItems.valueAt(i).calendar;
+            monthView.setDayOfWeekTextAppearance(resId);
+            applyCalendarTextColor(monthView);
+        }
     }
     int getDayOfWeekTextAppearance() {
         return mDayOfWeekTextAppearance;
     }
     void setDayTextAppearance(int resId) {
         mDayTextAppearance = resId;
-        notifyDataSetChanged();
+        final int count = mItems.size();
+        for (int i = 0; i < count; i++) {
+            final SimpleMonthView monthView = mItems.valueAt(i).calendar;
+            monthView.setDayTextAppearance(resId);
+            applyCalendarTextColor(monthView);
+        }
+    }
+    /**
+     * Re-applies the calendar text color, which takes precedence over the
+     * colors carried by the text appearances.
+     */
+    private void applyCalendarTextColor(SimpleMonthView v) {
+        if (mCalendarTextColor != null) {
+            v.setMonthTextColor(mCalendarTextColor);
+            v.setDayOfWeekTextColor(mCalendarTextColor);
+            v.setDayTextColor(mCalendarTextColor);
+        }
     }
     int getDayTextAppearance() {
         return mDayTextAppearance;
@@ -147,76 +579,108 @@ public class DayPickerPagerAdapter extends PagerAdapter {
         return view == holder.container;
     }
     private int getMonthForPosition(int position) {
-        return (position + mMinDate.get(Calendar.MONTH)) % MONTHS_IN_YEAR;
+        return CalendarMath.getMonthForMonthIndex(mMinMonthIndex + position);
     }
     private int getYearForPosition(int position) {
-        final int yearOffset = (position + mMinDate.get(Calendar.MONTH)) / MONTHS_IN_YEAR;
-        return yearOffset + mMinDate.get(Calendar.YEAR);
+        return CalendarMath.getYearForMonthIndex(mMinMonthIndex + position);
     }
     private int getPositionForDay(Calendar day) {
         if (day == null) {
             return -1;
         }
-        final int yearOffset = day.get(Calendar.YEAR) - mMinDate.get(Calendar.YEAR);
-        final int monthOffset = day.get(Calendar.MONTH) - mMinDate.get(Calendar.MONTH);
-        final int position = yearOffset * MONTHS_IN_YEAR + monthOffset;
-        return position;
+        return CalendarMath.getMonthIndex(day) - mMinMonthIndex;
+    }
+    private int getPositionForPackedDay(int day) {
+        if (day == NO_DAY) {
+            return -1;
+        }
+        return CalendarMath.getMonthIndex(CalendarMath.getYear(day), CalendarMath.getMonth(day))
+                - mMinMonthIndex;
+    }
+    private static int toEpochDay(int packedDay) {
+        return CalendarMath.toEpochDay(CalendarMath.getYear(packedDay),
+                CalendarMath.getMonth(packedDay), CalendarMath.getDayOfMonth(packedDay));
+    }
+    private static int packDay(Calendar day) {
+        return CalendarMath.pack(day.get(Calendar.YEAR), day.get(Calendar.MONTH),
+                day.get(Calendar.DAY_OF_MONTH));
     }
     @Override
     public Object instantiateItem(ViewGroup container, int position) {
-        final View itemView = mInflater.inflate(mLayoutResId, container, false);
+        View itemView = mMonthViewPool.acquire(mInflater.getContext(), mLayoutResId);
+        if (itemView == null) {
+            itemView = mInflater.inflate(mLayoutResId, container, false);
+            mMetrics.onInflate();
+        }
         final SimpleMonthView v = itemView.findViewById(mCalendarViewId);
         v.setOnDayClickListener(mOnDayClickListener);
+        v.setMetrics(mMetrics);
         v.setMonthTextAppearance(mMonthTextAppearance);
         v.setDayOfWeekTextAppearance(mDayOfWeekTextAppearance);
         v.setDayTextAppearance(mDayTextAppearance);
-        if (mDaySelectorColor != null) {
-            v.setDaySelectorColor(mDaySelectorColor);
-        }
-        if (mDayHighlightColor != null) {
-            v.setDayHighlightColor(mDayHighlightColor);
-        }
-        if (mCalendarTextColor != null) {
-            v.setMonthTextColor(mCalendarTextColor);
-            v.setDayOfWeekTextColor(mCalendarTextColor);
-            v.setDayTextColor(mCalendarTextColor);
+        // Pooled views come back with default colors, see
+        // SimpleMonthView#onRecycled, so unset colors need no reset here.
+        v.setDaySelectorColor(mDaySelectorColor);
+        v.setDayHighlightColor(mDayHighlightColor);
+        applyCalendarTextColor(v);
+        v.setDayDecorator(mDayDecorator);
+        if (mSelectionMode == CherryDatePicker.SELECTION_MODE_RANGE) {
+            v.setOnRangeDragListener(mOnRangeDragListener);
         }
+        bindMonth(v, position);
+        final ViewHolder holder = new ViewHolder(position, itemView, v);
+        mItems.put(position, holder);
+        container.addView(itemView);
+        return holder;
+    }
+    /**
+     * Binds the month shown at the specified position, along with its
+     * selection and enabled days, to a month view.
+     */
+    private void bindMonth(SimpleMonthView v, int position) {
         final int month = getMonthForPosition(position);
         final int year = getYearForPosition(position);
         final int selectedDay;
-        if (mSelectedDay != null && mSelectedDay.get(Calendar.MONTH) == month) {
-            selectedDay = mSelectedDay.get(Calendar.DAY_OF_MONTH);
+        if (mSelectionMode == CherryDatePicker.SELECTION_MODE_SINGLE
+                && getPositionForPackedDay(mSelectedDay) == position) {
+            selectedDay = CalendarMath.getDayOfMonth(mSelectedDay);
         } else {
             selectedDay = -1;
         }
         final int enabledDayRangeStart;
-        if (mMinDate.get(Calendar.MONTH) == month && mMinDate.get(Calendar.YEAR) == year) {
-            enabledDayRangeStart = mMinDate.get(Calendar.DAY_OF_MONTH);
+        if (getPositionForPackedDay(mMinDate) == position) {
+            enabledDayRangeStart = CalendarMath.getDayOfMonth(mMinDate);
         } else {
             enabledDayRangeStart = 1;
         }
         final int enabledDayRangeEnd;
-        if (mMaxDate.get(Calendar.MONTH) == month && mMaxDate.get(Calendar.YEAR) == year) {
-            enabledDayRangeEnd = mMaxDate.get(Calendar.DAY_OF_MONTH);
+        if (getPositionForPackedDay(mMaxDate) == position) {
+            enabledDayRangeEnd = CalendarMath.getDayOfMonth(mMaxDate);
         } else {
             enabledDayRangeEnd = 31;
         }
+        mMetrics.onBind();
         v.setMonthParams(selectedDay, month, year, mFirstDayOfWeek,
-                enabledDayRangeStart, enabledDayRangeEnd);
-        final ViewHolder holder = new ViewHolder(position, itemView, v);
-        mItems.put(position, holder);
-        container.addView(itemView);
-        return holder;
+                enabledDayRangeStart, enabledDayRangeEnd, getEnabledDays(year, month));
+        bindRange(v, position);
+        bindSelection(v, position);
     }
     @Override
     public void destroyItem(ViewGroup container, int position, Object object) {
         final ViewHolder holder = (ViewHolder) object;
         container.removeView(holder.container);
-        mItems.remove(position);
+        if (mItems.get(position) == holder) {
+            mItems.remove(position);
+        }
+        holder.calendar.onRecycled();
+        mMonthViewPool.release(mInflater.getContext(), mLayoutResId, holder.container);
     }
     @Override
     public int getItemPosition(Object object) {
         final ViewHolder holder = (ViewHolder) object;
+        if (holder.stale) {
+            return POSITION_NONE;
+        }
         return holder.position;
     }
     @Override
@@ -238,17 +702,52 @@ public class DayPickerPagerAdapter extends PagerAdapter {
         @Override
         public void onDayClick(SimpleMonthView view, Calendar day) {
             if (day != null) {
-                setSelectedDay(day);
+                if (mSelectionMode == CherryDatePicker.SELECTION_MODE_SINGLE) {
+                    setSelectedDay(day);
+                }
                 if (mOnDaySelectedListener != null) {
                     mOnDaySelectedListener.onDaySelected(DayPickerPagerAdapter.this, day);
                 }
             }
         }
     };
+    /**
+     * Evaluates the validator for one month on the validator's executor and
+     * posts the result back to the main thread.
+     */
+    private class MonthLoad implements Runnable {
+        final DateValidator validator;
+        final int monthIndex;
+        /** Set on the main thread when the month is no longer needed. */
+        volatile boolean cancelled;
+        /** Written on the executor before the result is posted. */
+        int mask;
+        MonthLoad(DateValidator validator, int monthIndex) {
+            this.validator = validator;
+            this.monthIndex = monthIndex;
+        }
+        @Override
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+            mask = evaluate(validator, monthIndex, this);
+            if (!cancelled) {
+                mHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        onLoadFinished(MonthLoad.this);
+                    }
+                });
+            }
+        }
+    }
     private static class ViewHolder {
         public final int position;
         public final View container;
         public final SimpleMonthView calendar;
+        /** Whether the range changed under this page since it was bound. */
+        public boolean stale;
         public ViewHolder(int position, View container, SimpleMonthView calendar) {
             this.position = position;
             this.container = container;
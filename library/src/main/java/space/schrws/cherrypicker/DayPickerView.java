@@ -17,6 +17,8 @@ import android.widget.ImageButton;
 
 import java.util.Calendar;
 import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.Executor;
 
 /**
  * Created by Schrws on 2018-10-26.
@@ -26,17 +28,78 @@ public class DayPickerView extends ViewGroup {
     private static final int DEFAULT_START_YEAR = 1900;
     private static final int DEFAULT_END_YEAR = 2100;
     private static final int[] ATTRS_TEXT_COLOR = new int[] { R.attr.textColor };
-    private final Calendar mSelectedDay = Calendar.getInstance();
-    private final Calendar mMinDate = Calendar.getInstance();
-    private final Calendar mMaxDate = Calendar.getInstance();
+    private static final int DEFAULT_MONTH_TEXT_APPEARANCE =
+            R.style.TextAppearance_Material_Widget_Calendar_Month;
+    private static final int DEFAULT_DAY_OF_WEEK_TEXT_APPEARANCE =
+            R.style.TextAppearance_Material_Widget_Calendar_DayOfWeek;
+    private static final int DEFAULT_DAY_TEXT_APPEARANCE =
+            R.style.TextAppearance_Material_Widget_Calendar_Day;
+    /** How long a range drag must rest at an edge before the month turns. */
+    private static final int EDGE_PAGE_DELAY = 500;
+    /**
+     * Number of months past the visible one hinted for prefetching when a
+     * swipe begins. Two covers a quick second swipe.
+     */
+    private static final int PREFETCH_HINT_MONTHS = 2;
+    private static final int NO_DAY = SimpleMonthView.NO_EPOCH_DAY;
+    private final Calendar mSelectedDay = CalendarMath.newCalendar();
+    private final Calendar mMinDate = CalendarMath.newCalendar();
+    private final Calendar mMaxDate = CalendarMath.newCalendar();
     private final AccessibilityManager mAccessibilityManager;
     private final ViewPager mViewPager;
     private final ImageButton mPrevButton;
     private final ImageButton mNextButton;
     private final DayPickerPagerAdapter mAdapter;
+    /** Month indices of the range bounds, see {@link CalendarMath#getMonthIndex}. */
+    private int mMinMonthIndex;
+    private int mMaxMonthIndex;
     /** Temporary calendar used for date calculations. */
     private Calendar mTempCalendar;
     private OnDaySelectedListener mOnDaySelectedListener;
+    private OnRangeSelectedListener mOnRangeSelectedListener;
+    private OnVisibleMonthChangedListener mOnVisibleMonthChangedListener;
+    /** Month index of the page last reported as visible. */
+    private int mVisibleMonthIndex;
+    private OnPrefetchMonthListener mOnPrefetchMonthListener;
+    private int mScrollState = ViewPager.SCROLL_STATE_IDLE;
+    /** Direction of the current drag that was hinted for prefetching, or 0. */
+    private int mPrefetchDirection;
+    /** One of the selection modes of {@link CherryDatePicker}. */
+    private int mSelectionMode = CherryDatePicker.SELECTION_MODE_SINGLE;
+    private OnSelectedDaysChangedListener mOnSelectedDaysChangedListener;
+    /** Epoch days of the ends of the selected range, or {@link #NO_DAY}. */
+    private int mRangeStart = NO_DAY;
+    private int mRangeEnd = NO_DAY;
+    /** End of the range that stays put while the other one is dragged. */
+    private int mRangeDragAnchor = NO_DAY;
+    /** Edge a range drag is resting at, -1 for the start, 1 for the end or 0. */
+    private int mEdgeDirection;
+    private final int mEdgeWidth;
+    private final int[] mTempLocation = new int[2];
+    private final Calendar mRangeStartCalendar = CalendarMath.newCalendar();
+    private final Calendar mRangeEndCalendar = CalendarMath.newCalendar();
+    /**
+     * Resolves the text appearances of the default day picker style against
+     * the context's theme, so the first picker doesn't have to. May be called
+     * from any thread.
+     */
+    static void prewarmTextAppearances(Context context) {
+        final TypedArray a = context.obtainStyledAttributes(null,
+                R.styleable.CherryCalendarView, R.attr.calendarViewStyle, 0);
+        final int monthTextAppearanceResId = a.getResourceId(
+                R.styleable.CherryCalendarView_monthTextAppearance,
+                DEFAULT_MONTH_TEXT_APPEARANCE);
+        final int dayOfWeekTextAppearanceResId = a.getResourceId(
+                R.styleable.CherryCalendarView_weekDayTextAppearance,
+                DEFAULT_DAY_OF_WEEK_TEXT_APPEARANCE);
+        final int dayTextAppearanceResId = a.getResourceId(
+                R.styleable.CherryCalendarView_dateTextAppearance,
+                DEFAULT_DAY_TEXT_APPEARANCE);
+        a.recycle();
+        TextAppearanceCache.get(context, monthTextAppearanceResId);
+        TextAppearanceCache.get(context, dayOfWeekTextAppearanceResId);
+        TextAppearanceCache.get(context, dayTextAppearanceResId);
+    }
     public DayPickerView(Context context) {
         this(context, null);
     }
@@ -48,9 +111,22 @@ public class DayPickerView extends ViewGroup {
     }
     public DayPickerView(Context context, @Nullable AttributeSet attrs, int defStyleAttr,
                          int defStyleRes) {
-        super(context, attrs, defStyleAttr, defStyleRes);
+        this(context, attrs, defStyleAttr, defStyleRes, false);
+    }
+    /**
+     * @param wrapped whether the picker is wrapped by a view that owns the
+     *                attributes, in which case only the calendar attributes
+     *                apply to the picker, not the View ones such as the id,
+     *                background or padding
+     */
+    DayPickerView(Context context, @Nullable AttributeSet attrs, int defStyleAttr,
+                  int defStyleRes, boolean wrapped) {
+        super(context, wrapped ? null : attrs, wrapped ? 0 : defStyleAttr,
+                wrapped ? 0 : defStyleRes);
         mAccessibilityManager = (AccessibilityManager) context.getSystemService(
                 Context.ACCESSIBILITY_SERVICE);
+        mEdgeWidth = context.getResources().getDimensionPixelSize(
+                R.dimen.day_picker_range_drag_edge_width);
         final TypedArray a = context.obtainStyledAttributes(attrs,
                 R.styleable.CherryCalendarView, defStyleAttr, defStyleRes);
         final int firstDayOfWeek = 1;
@@ -58,19 +134,20 @@ public class DayPickerView extends ViewGroup {
         final String maxDate = a.getString(R.styleable.CherryCalendarView_maxDate);
         final int monthTextAppearanceResId = a.getResourceId(
                 R.styleable.CherryCalendarView_monthTextAppearance,
-                R.style.TextAppearance_Material_Widget_Calendar_Month);
+                DEFAULT_MONTH_TEXT_APPEARANCE);
         final int dayOfWeekTextAppearanceResId = a.getResourceId(
                 R.styleable.CherryCalendarView_weekDayTextAppearance,
-                R.style.TextAppearance_Material_Widget_Calendar_DayOfWeek);
+                DEFAULT_DAY_OF_WEEK_TEXT_APPEARANCE);
         final int dayTextAppearanceResId = a.getResourceId(
                 R.styleable.CherryCalendarView_dateTextAppearance,
-                R.style.TextAppearance_Material_Widget_Calendar_Day);
+                DEFAULT_DAY_TEXT_APPEARANCE);
         final ColorStateList daySelectorColor = a.getColorStateList(
                 R.styleable.CherryCalendarView_daySelectorColor);
         a.recycle();
         // Set up adapter.
         mAdapter = new DayPickerPagerAdapter(context,
                 R.layout.date_picker_month_item_material, R.id.month_view);
+        mAdapter.setOnRangeDragListener(mOnRangeDragListener);
         mAdapter.setMonthTextAppearance(monthTextAppearanceResId);
         mAdapter.setDayOfWeekTextAppearance(dayOfWeekTextAppearanceResId);
         mAdapter.setDayTextAppearance(dayTextAppearanceResId);
@@ -102,7 +179,7 @@ public class DayPickerView extends ViewGroup {
             ta.recycle();
         }
         // Set up min and max dates.
-        final Calendar tempDate = Calendar.getInstance();
+        final Calendar tempDate = CalendarMath.newCalendar();
         if (!Utils.parseDate(minDate, tempDate)) {
             tempDate.set(DEFAULT_START_YEAR, Calendar.JANUARY, 1);
         }
@@ -124,7 +201,16 @@ public class DayPickerView extends ViewGroup {
         mAdapter.setOnDaySelectedListener(new DayPickerPagerAdapter.OnDaySelectedListener() {
             @Override
             public void onDaySelected(DayPickerPagerAdapter adapter, Calendar day) {
-                if (mOnDaySelectedListener != null) {
+                final int epochDay = CalendarMath.toEpochDay(day.get(Calendar.YEAR),
+                        day.get(Calendar.MONTH), day.get(Calendar.DAY_OF_MONTH));
+                if (mSelectionMode == CherryDatePicker.SELECTION_MODE_RANGE) {
+                    onRangeDayClicked(epochDay);
+                } else if (mSelectionMode == CherryDatePicker.SELECTION_MODE_MULTIPLE) {
+                    mAdapter.toggleSelectedDay(epochDay);
+                    if (mOnSelectedDaysChangedListener != null) {
+                        mOnSelectedDaysChangedListener.onSelectedDaysChanged(DayPickerView.this);
+                    }
+                } else if (mOnDaySelectedListener != null) {
                     mOnDaySelectedListener.onDaySelected(DayPickerView.this, day);
                 }
             }
@@ -151,6 +237,18 @@ public class DayPickerView extends ViewGroup {
         mNextButton.measure(buttonWidthSpec, buttonHeightSpec);
     }
     @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        mAdapter.onAttachedToWindow();
+    }
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        removeCallbacks(mEdgePageRunnable);
+        mEdgeDirection = 0;
+        mAdapter.onDetachedFromWindow();
+    }
+    @Override
     public void onRtlPropertiesChanged(int layoutDirection) {
         super.onRtlPropertiesChanged(layoutDirection);
         requestLayout();
@@ -168,9 +266,13 @@ public class DayPickerView extends ViewGroup {
         }
         final int width = right - left;
         final int height = bottom - top;
-        mAdapter.notifyDataSetChanged();
+        // Layout is a pure geometry pass, the adapter pushes its own changes
+        // into the live month views.
         mViewPager.layout(0, 0, width, height);
         final SimpleMonthView monthView = (SimpleMonthView) mViewPager.getChildAt(0);
+        if (monthView == null) {
+            return;
+        }
         final int monthHeight = monthView.getMonthHeight();
         final int cellWidth = monthView.getCellWidth();
         // Vertically center the previous/next buttons within the month
@@ -258,6 +360,44 @@ public class DayPickerView extends ViewGroup {
         mTempCalendar.setTimeInMillis(timeInMillis);
         return mAdapter.getBoundsForDate(mTempCalendar, outBounds);
     }
+    /**
+     * Sets the pool used to recycle month pages, which may be shared with
+     * other day pickers in the same Activity.
+     *
+     * @param pool the pool to use
+     */
+    public void setMonthViewPool(MonthViewPool pool) {
+        mAdapter.setMonthViewPool(pool);
+    }
+    public MonthViewPool getMonthViewPool() {
+        return mAdapter.getMonthViewPool();
+    }
+    public void setDateValidator(DateValidator validator, Executor executor) {
+        mAdapter.setDateValidator(validator, executor);
+        mAdapter.prefetch(mViewPager.getCurrentItem());
+    }
+    public DateValidator getDateValidator() {
+        return mAdapter.getDateValidator();
+    }
+    public void notifyDateValidatorChanged() {
+        mAdapter.notifyDateValidatorChanged();
+        mAdapter.prefetch(mViewPager.getCurrentItem());
+    }
+    public void setDayDecorator(DayDecorator decorator) {
+        mAdapter.setDayDecorator(decorator);
+    }
+    public DayDecorator getDayDecorator() {
+        return mAdapter.getDayDecorator();
+    }
+    public void notifyDayDecoratorChanged() {
+        mAdapter.notifyDayDecoratorChanged();
+    }
+    /**
+     * @return counters for the inflates, binds and draws of the month pages
+     */
+    public PickerMetrics getMetrics() {
+        return mAdapter.getMetrics();
+    }
     public void setFirstDayOfWeek(int firstDayOfWeek) {
         mAdapter.setFirstDayOfWeek(firstDayOfWeek);
     }
@@ -266,6 +406,7 @@ public class DayPickerView extends ViewGroup {
     }
     public void setMinDate(long timeInMillis) {
         mMinDate.setTimeInMillis(timeInMillis);
+        CalendarMath.constrain(mMinDate);
         onRangeChanged();
     }
     public long getMinDate() {
@@ -273,6 +414,7 @@ public class DayPickerView extends ViewGroup {
     }
     public void setMaxDate(long timeInMillis) {
         mMaxDate.setTimeInMillis(timeInMillis);
+        CalendarMath.constrain(mMaxDate);
         onRangeChanged();
     }
     public long getMaxDate() {
@@ -282,11 +424,15 @@ public class DayPickerView extends ViewGroup {
      * Handles changes to date range.
      */
     public void onRangeChanged() {
+        mMinMonthIndex = CalendarMath.getMonthIndex(mMinDate);
+        mMaxMonthIndex = CalendarMath.getMonthIndex(mMaxDate);
         mAdapter.setRange(mMinDate, mMaxDate);
         // Changing the min/max date changes the selection position since we
         // don't really have stable IDs. Jumps immediately to the new position.
         setDate(mSelectedDay.getTimeInMillis(), false, false);
         updateButtonVisibility(mViewPager.getCurrentItem());
+        // The page may stay put while its month changes.
+        updateVisibleMonth();
     }
     /**
      * Sets the listener to call when the user selects a day.
@@ -296,18 +442,283 @@ public class DayPickerView extends ViewGroup {
     public void setOnDaySelectedListener(OnDaySelectedListener listener) {
         mOnDaySelectedListener = listener;
     }
-    private int getDiffMonths(Calendar start, Calendar end) {
-        final int diffYears = end.get(Calendar.YEAR) - start.get(Calendar.YEAR);
-        return end.get(Calendar.MONTH) - start.get(Calendar.MONTH) + 12 * diffYears;
+    /**
+     * Switches between picking a single day, a range of days or any set of
+     * days. The range and the set of days are cleared.
+     *
+     * @param selectionMode one of the selection modes of
+     *                      {@link CherryDatePicker}
+     */
+    public void setSelectionMode(int selectionMode) {
+        if (mSelectionMode != selectionMode) {
+            mSelectionMode = selectionMode;
+            mRangeStart = NO_DAY;
+            mRangeEnd = NO_DAY;
+            mAdapter.getSelection().clear();
+            mAdapter.setSelectionMode(selectionMode);
+            mAdapter.setSelectedRange(NO_DAY, NO_DAY);
+        }
+    }
+    public int getSelectionMode() {
+        return mSelectionMode;
+    }
+    /**
+     * Selects or deselects every day between two dates, inclusive, in
+     * multiple selection mode. Days outside of the min and max dates are
+     * ignored.
+     */
+    public void setDatesSelected(long startMillis, long endMillis, boolean selected) {
+        final TimeZone zone = mMinDate.getTimeZone();
+        mAdapter.getSelection().set(CalendarMath.toEpochDay(startMillis, zone),
+                CalendarMath.toEpochDay(endMillis, zone), selected);
+        mAdapter.notifySelectionChanged();
+    }
+    /**
+     * Selects or deselects the days of the specified dates in multiple
+     * selection mode. Days outside of the min and max dates are ignored.
+     */
+    public void setDatesSelected(long[] timesInMillis, boolean selected) {
+        final TimeZone zone = mMinDate.getTimeZone();
+        final DateSelection selection = mAdapter.getSelection();
+        for (long timeInMillis : timesInMillis) {
+            selection.set(CalendarMath.toEpochDay(timeInMillis, zone), selected);
+        }
+        mAdapter.notifySelectionChanged();
+    }
+    public void clearSelectedDates() {
+        mAdapter.getSelection().clear();
+        mAdapter.notifySelectionChanged();
+    }
+    public boolean isDateSelected(long timeInMillis) {
+        return mAdapter.getSelection().contains(
+                CalendarMath.toEpochDay(timeInMillis, mMinDate.getTimeZone()));
+    }
+    public int getSelectedDateCount() {
+        return mAdapter.getSelection().size();
+    }
+    /**
+     * @return the start of each selected day in ascending order
+     */
+    public long[] getSelectedDates() {
+        final TimeZone zone = mMinDate.getTimeZone();
+        final int[] days = mAdapter.getSelection().toEpochDays();
+        final long[] dates = new long[days.length];
+        for (int i = 0; i < days.length; i++) {
+            dates[i] = CalendarMath.getStartOfEpochDay(days[i], zone);
+        }
+        return dates;
+    }
+    /**
+     * Sets the listener to call when the user toggles a day in multiple
+     * selection mode.
+     */
+    public void setOnSelectedDaysChangedListener(OnSelectedDaysChangedListener listener) {
+        mOnSelectedDaysChangedListener = listener;
+    }
+    /**
+     * Sets the selected range, shown in range mode.
+     *
+     * @param startMillis the first day of the range
+     * @param endMillis the last day of the range, on or after the first
+     */
+    public void setSelectedRange(long startMillis, long endMillis) {
+        mRangeStart = CalendarMath.toEpochDay(startMillis, mMinDate.getTimeZone());
+        mRangeEnd = Math.max(mRangeStart,
+                CalendarMath.toEpochDay(endMillis, mMinDate.getTimeZone()));
+        mAdapter.setSelectedRange(mRangeStart, mRangeEnd);
+    }
+    /**
+     * Sets only the first day of the selected range, as after the user picked
+     * it but not yet the last day.
+     *
+     * @param startMillis the first day of the range
+     */
+    public void setSelectedRangeStart(long startMillis) {
+        mRangeStart = CalendarMath.toEpochDay(startMillis, mMinDate.getTimeZone());
+        mRangeEnd = NO_DAY;
+        mAdapter.setSelectedRange(mRangeStart, mRangeEnd);
+    }
+    public void clearSelectedRange() {
+        mRangeStart = NO_DAY;
+        mRangeEnd = NO_DAY;
+        mAdapter.setSelectedRange(NO_DAY, NO_DAY);
+    }
+    /**
+     * Sets the listener to call when the user picks or changes a range.
+     */
+    public void setOnRangeSelectedListener(OnRangeSelectedListener listener) {
+        mOnRangeSelectedListener = listener;
+    }
+    /**
+     * Sets the listener to call when another month is shown, whether the
+     * user swiped to it or the date or range changed.
+     */
+    public void setOnVisibleMonthChangedListener(OnVisibleMonthChangedListener listener) {
+        mOnVisibleMonthChangedListener = listener;
+    }
+    public int getVisibleYear() {
+        return CalendarMath.getYearForMonthIndex(mMinMonthIndex + mViewPager.getCurrentItem());
+    }
+    public int getVisibleMonth() {
+        return CalendarMath.getMonthForMonthIndex(mMinMonthIndex + mViewPager.getCurrentItem());
+    }
+    /**
+     * Sets the listener to call with the months a swipe is heading to, as
+     * soon as the user starts dragging and before the new page settles.
+     */
+    public void setOnPrefetchMonthListener(OnPrefetchMonthListener listener) {
+        mOnPrefetchMonthListener = listener;
+    }
+    /**
+     * Hints the months past the visible one in a drag direction, nearest
+     * first, skipping months outside of the range.
+     */
+    private void dispatchPrefetchHints(int direction) {
+        final int visibleMonthIndex = mMinMonthIndex + mViewPager.getCurrentItem();
+        for (int i = 1; i <= PREFETCH_HINT_MONTHS; i++) {
+            final int monthIndex = visibleMonthIndex + i * direction;
+            if (monthIndex < mMinMonthIndex || monthIndex > mMaxMonthIndex) {
+                break;
+            }
+            mOnPrefetchMonthListener.onPrefetchMonth(this,
+                    CalendarMath.getYearForMonthIndex(monthIndex),
+                    CalendarMath.getMonthForMonthIndex(monthIndex));
+        }
+    }
+    private void updateVisibleMonth() {
+        final int monthIndex = mMinMonthIndex + mViewPager.getCurrentItem();
+        if (monthIndex != mVisibleMonthIndex) {
+            mVisibleMonthIndex = monthIndex;
+            if (mOnVisibleMonthChangedListener != null) {
+                mOnVisibleMonthChangedListener.onVisibleMonthChanged(this,
+                        CalendarMath.getYearForMonthIndex(monthIndex),
+                        CalendarMath.getMonthForMonthIndex(monthIndex));
+            }
+        }
+    }
+    /**
+     * Starts a new range on a clicked day, unless the day completes a range
+     * started earlier.
+     */
+    private void onRangeDayClicked(int epochDay) {
+        if (mRangeStart == NO_DAY || mRangeEnd != NO_DAY || epochDay < mRangeStart) {
+            mRangeStart = epochDay;
+            mRangeEnd = NO_DAY;
+        } else {
+            mRangeEnd = epochDay;
+        }
+        mAdapter.setSelectedRange(mRangeStart, mRangeEnd);
+        dispatchRangeSelected();
+    }
+    private void dispatchRangeSelected() {
+        if (mOnRangeSelectedListener == null || mRangeStart == NO_DAY) {
+            return;
+        }
+        setCalendarToEpochDay(mRangeStartCalendar, mRangeStart);
+        final Calendar end;
+        if (mRangeEnd != NO_DAY) {
+            setCalendarToEpochDay(mRangeEndCalendar, mRangeEnd);
+            end = mRangeEndCalendar;
+        } else {
+            end = null;
+        }
+        mOnRangeSelectedListener.onRangeSelected(this, mRangeStartCalendar, end);
+    }
+    private static void setCalendarToEpochDay(Calendar calendar, int epochDay) {
+        final int date = CalendarMath.fromEpochDay(epochDay);
+        calendar.clear();
+        calendar.set(CalendarMath.getYear(date), CalendarMath.getMonth(date),
+                CalendarMath.getDayOfMonth(date));
+    }
+    /**
+     * Moves the dragged end of the range to the enabled day under a screen
+     * position, looking it up in whichever month is showing, and turns the
+     * month if the position rests at an edge.
+     */
+    private void onRangeDragMoved(float rawX, float rawY) {
+        getLocationOnScreen(mTempLocation);
+        final float x = rawX - mTempLocation[0];
+        final int edgeDirection;
+        if (x < mEdgeWidth) {
+            edgeDirection = -1;
+        } else if (x > getWidth() - mEdgeWidth) {
+            edgeDirection = 1;
+        } else {
+            edgeDirection = 0;
+        }
+        setEdgeDirection(edgeDirection);
+        final SimpleMonthView monthView = mAdapter.getMonthView(mViewPager.getCurrentItem());
+        if (monthView == null) {
+            return;
+        }
+        monthView.getLocationOnScreen(mTempLocation);
+        final int epochDay = monthView.getEpochDayAtLocation(
+                (int) (rawX - mTempLocation[0] + 0.5f), (int) (rawY - mTempLocation[1] + 0.5f));
+        if (epochDay == NO_DAY) {
+            return;
+        }
+        final int start = Math.min(mRangeDragAnchor, epochDay);
+        final int end = Math.max(mRangeDragAnchor, epochDay);
+        if (start != mRangeStart || end != mRangeEnd) {
+            mRangeStart = start;
+            mRangeEnd = end;
+            mAdapter.setSelectedRange(start, end);
+        }
+    }
+    private void setEdgeDirection(int edgeDirection) {
+        if (mEdgeDirection != edgeDirection) {
+            mEdgeDirection = edgeDirection;
+            removeCallbacks(mEdgePageRunnable);
+            if (edgeDirection != 0) {
+                postDelayed(mEdgePageRunnable, EDGE_PAGE_DELAY);
+            }
+        }
     }
+    /**
+     * Turns the month while a range drag rests at an edge, and keeps turning
+     * until it leaves the edge or ends.
+     */
+    private final Runnable mEdgePageRunnable = new Runnable() {
+        @Override
+        public void run() {
+            final int nextItem = mViewPager.getCurrentItem() + mEdgeDirection;
+            if (nextItem >= 0 && nextItem < mAdapter.getCount()) {
+                mViewPager.setCurrentItem(nextItem, true);
+                postDelayed(this, EDGE_PAGE_DELAY);
+            }
+        }
+    };
+    private final SimpleMonthView.OnRangeDragListener mOnRangeDragListener =
+            new SimpleMonthView.OnRangeDragListener() {
+        @Override
+        public void onRangeDragStarted(SimpleMonthView view, int epochDay) {
+            // Complete an open range so that dragging its only day extends it.
+            if (mRangeEnd == NO_DAY) {
+                mRangeEnd = mRangeStart;
+            }
+            mRangeDragAnchor = epochDay == mRangeStart ? mRangeEnd : mRangeStart;
+        }
+        @Override
+        public void onRangeDragMoved(SimpleMonthView view, float rawX, float rawY) {
+            DayPickerView.this.onRangeDragMoved(rawX, rawY);
+        }
+        @Override
+        public void onRangeDragFinished(SimpleMonthView view) {
+            setEdgeDirection(0);
+            mRangeDragAnchor = NO_DAY;
+            dispatchRangeSelected();
+        }
+    };
     private int getPositionFromDay(long timeInMillis) {
-        final int diffMonthMax = getDiffMonths(mMinDate, mMaxDate);
-        final int diffMonth = getDiffMonths(mMinDate, getTempCalendarForTime(timeInMillis));
-        return Utils.constrain(diffMonth, 0, diffMonthMax);
+        final int day = CalendarMath.fromEpochDay(
+                CalendarMath.toEpochDay(timeInMillis, mMinDate.getTimeZone()));
+        final int monthIndex = CalendarMath.getMonthIndex(
+                CalendarMath.getYear(day), CalendarMath.getMonth(day));
+        return Utils.constrain(monthIndex - mMinMonthIndex, 0, mMaxMonthIndex - mMinMonthIndex);
     }
     private Calendar getTempCalendarForTime(long timeInMillis) {
         if (mTempCalendar == null) {
-            mTempCalendar = Calendar.getInstance();
+            mTempCalendar = CalendarMath.newCalendar();
         }
         mTempCalendar.setTimeInMillis(timeInMillis);
         return mTempCalendar;
@@ -327,12 +738,30 @@ public class DayPickerView extends ViewGroup {
             final float alpha = Math.abs(0.5f - positionOffset) * 2.0f;
             mPrevButton.setAlpha(alpha);
             mNextButton.setAlpha(alpha);
+            // The current item only changes once the drag is released, so
+            // the page to the left of it means a drag towards earlier months.
+            if (mScrollState != ViewPager.SCROLL_STATE_DRAGGING
+                    || mOnPrefetchMonthListener == null || positionOffsetPixels == 0) {
+                return;
+            }
+            final int direction = position < mViewPager.getCurrentItem() ? -1 : 1;
+            if (direction != mPrefetchDirection) {
+                mPrefetchDirection = direction;
+                dispatchPrefetchHints(direction);
+            }
         }
         @Override
-        public void onPageScrollStateChanged(int state) {}
+        public void onPageScrollStateChanged(int state) {
+            if (state == ViewPager.SCROLL_STATE_DRAGGING) {
+                mPrefetchDirection = 0;
+            }
+            mScrollState = state;
+        }
         @Override
         public void onPageSelected(int position) {
             updateButtonVisibility(position);
+            mAdapter.prefetch(position);
+            updateVisibleMonth();
         }
     };
     private final OnClickListener mOnClickListener = new OnClickListener() {
@@ -358,4 +787,29 @@ public class DayPickerView extends ViewGroup {
     public interface OnDaySelectedListener {
         void onDaySelected(DayPickerView view, Calendar day);
     }
+    public interface OnSelectedDaysChangedListener {
+        void onSelectedDaysChanged(DayPickerView view);
+    }
+    public interface OnVisibleMonthChangedListener {
+        /**
+         * @param year the year of the month now shown
+         * @param month the zero-based month now shown
+         */
+        void onVisibleMonthChanged(DayPickerView view, int year, int month);
+    }
+    public interface OnPrefetchMonthListener {
+        /**
+         * @param year the year of a month about to be shown
+         * @param month the zero-based month about to be shown
+         */
+        void onPrefetchMonth(DayPickerView view, int year, int month);
+    }
+    public interface OnRangeSelectedListener {
+        /**
+         * @param start the first day of the range
+         * @param end the last day of the range, or {@code null} if only the
+         *            first day is picked so far
+         */
+        void onRangeSelected(DayPickerView view, Calendar start, Calendar end);
+    }
 }
\ No newline at end of file
@@ -1,118 +1,42 @@
 package space.schrws.cherrypicker;
 
 import android.content.Context;
-import android.graphics.drawable.Drawable;
-import android.os.Build;
+import android.content.res.Resources;
 import android.support.v4.view.ViewPager;
 import android.util.AttributeSet;
-import android.view.View;
-
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.util.ArrayList;
 
 /**
  * Created by Schrws on 2018-10-28.
  */
 public class DayPickerViewPager extends ViewPager {
-    private final ArrayList<View> mMatchParentChildren = new ArrayList<>(1);
+    /** Preferred size of a month page, see date_picker_month_item_material. */
+    private final int mDesiredMonthWidth;
+    private final int mDesiredMonthHeight;
     public DayPickerViewPager(Context context) {
         this(context, null);
     }
     public DayPickerViewPager(Context context, AttributeSet attrs) {
         super(context, attrs);
+        final Resources res = context.getResources();
+        mDesiredMonthWidth = SimpleMonthView.getDesiredWidth(res);
+        mDesiredMonthHeight = SimpleMonthView.getDesiredHeight(res);
     }
 
-    private Method mPopulate = null;
-
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
-        populate();
-
-        // Everything below is mostly copied from FrameLayout.
-        int count = getChildCount();
-        final boolean measureMatchParentChildren =
-                MeasureSpec.getMode(widthMeasureSpec) != MeasureSpec.EXACTLY ||
-                        MeasureSpec.getMode(heightMeasureSpec) != MeasureSpec.EXACTLY;
-        int maxHeight = 0;
-        int maxWidth = 0;
-        int childState = 0;
-        for (int i = 0; i < count; i++) {
-            final View child = getChildAt(i);
-            if (child.getVisibility() != GONE) {
-                measureChild(child, widthMeasureSpec, heightMeasureSpec);
-                final LayoutParams lp = (LayoutParams) child.getLayoutParams();
-                maxWidth = Math.max(maxWidth, child.getMeasuredWidth());
-                maxHeight = Math.max(maxHeight, child.getMeasuredHeight());
-                childState = combineMeasuredStates(childState, child.getMeasuredState());
-                if (measureMatchParentChildren) {
-                    if (lp.width == LayoutParams.MATCH_PARENT ||
-                            lp.height == LayoutParams.MATCH_PARENT) {
-                        mMatchParentChildren.add(child);
-                    }
-                }
-            }
-        }
-        // Account for padding too
-        maxWidth += getPaddingLeft() + getPaddingRight();
-        maxHeight += getPaddingTop() + getPaddingBottom();
-        // Check against our minimum height and width
-        maxHeight = Math.max(maxHeight, getSuggestedMinimumHeight());
-        maxWidth = Math.max(maxWidth, getSuggestedMinimumWidth());
-        // Check against our foreground's minimum height and width
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
-            final Drawable drawable = getForeground();
-            if (drawable != null) {
-                maxHeight = Math.max(maxHeight, drawable.getMinimumHeight());
-                maxWidth = Math.max(maxWidth, drawable.getMinimumWidth());
-            }
-        }
-        setMeasuredDimension(resolveSizeAndState(maxWidth, widthMeasureSpec, childState),
-                resolveSizeAndState(maxHeight, heightMeasureSpec,
-                        childState << MEASURED_HEIGHT_STATE_SHIFT));
-        count = mMatchParentChildren.size();
-        if (count > 1) {
-            for (int i = 0; i < count; i++) {
-                final View child = mMatchParentChildren.get(i);
-                final LayoutParams lp = (LayoutParams) child.getLayoutParams();
-                final int childWidthMeasureSpec;
-                final int childHeightMeasureSpec;
-                if (lp.width == LayoutParams.MATCH_PARENT) {
-                    childWidthMeasureSpec = MeasureSpec.makeMeasureSpec(
-                            getMeasuredWidth() - getPaddingLeft() - getPaddingRight(),
-                            MeasureSpec.EXACTLY);
-                } else {
-                    childWidthMeasureSpec = getChildMeasureSpec(widthMeasureSpec,
-                            getPaddingLeft() + getPaddingRight(),
-                            lp.width);
-                }
-                if (lp.height == LayoutParams.MATCH_PARENT) {
-                    childHeightMeasureSpec = MeasureSpec.makeMeasureSpec(
-                            getMeasuredHeight() - getPaddingTop() - getPaddingBottom(),
-                            MeasureSpec.EXACTLY);
-                } else {
-                    childHeightMeasureSpec = getChildMeasureSpec(heightMeasureSpec,
-                            getPaddingTop() + getPaddingBottom(),
-                            lp.height);
-                }
-                child.measure(childWidthMeasureSpec, childHeightMeasureSpec);
-            }
-        }
-        mMatchParentChildren.clear();
-    }
-
-    private void populate() {
-        if (mPopulate == null) {
-            try {
-                mPopulate = ViewPager.class.getDeclaredMethod("populate", (Class[]) null);
-                mPopulate.setAccessible(true);
-            } catch (NoSuchMethodException ignored) {}
-        }
-
-        if (mPopulate != null) {
-            try {
-                mPopulate.invoke(this);
-            } catch (IllegalAccessException | InvocationTargetException ignored) { }
-        }
+        // Every month page has the same preferred size, so we can size
+        // ourselves without measuring (or even having) any pages. ViewPager
+        // then measures its pages exactly to the resolved size.
+        final int preferredWidth = Math.max(getSuggestedMinimumWidth(),
+                mDesiredMonthWidth + getPaddingLeft() + getPaddingRight());
+        final int preferredHeight = Math.max(getSuggestedMinimumHeight(),
+                mDesiredMonthHeight + getPaddingTop() + getPaddingBottom());
+        final int widthAndState = resolveSizeAndState(preferredWidth, widthMeasureSpec, 0);
+        final int heightAndState = resolveSizeAndState(preferredHeight, heightMeasureSpec, 0);
+        super.onMeasure(
+                MeasureSpec.makeMeasureSpec(widthAndState & MEASURED_SIZE_MASK, MeasureSpec.EXACTLY),
+                MeasureSpec.makeMeasureSpec(heightAndState & MEASURED_SIZE_MASK, MeasureSpec.EXACTLY));
+        // Keep the too-small flags that ViewPager would have dropped.
+        setMeasuredDimension(widthAndState, heightAndState);
     }
 }
@@ -0,0 +1,181 @@
+package space.schrws.cherrypicker;
+
+/**
+ * Pure layout arithmetic for the month grid drawn by {@link SimpleMonthView}:
+ * where the first day of a month falls and which day lies under a point.
+ * Coordinates are relative to the padded area of the view.
+ */
+public class MonthGrid {
+    public static final int DAYS_IN_WEEK = 7;
+    public static final int MAX_WEEKS_IN_MONTH = 6;
+    private static final int CELL_COUNT = DAYS_IN_WEEK * MAX_WEEKS_IN_MONTH;
+    // Per-cell fields in mCells, cells are indexed by row * 7 + column.
+    private static final int CENTER_X = 0;
+    private static final int CENTER_Y = 1;
+    private static final int LEFT = 2;
+    private static final int TOP = 3;
+    private static final int CELL_FIELDS = 4;
+    /** Geometry of all 42 cells with RTL already applied, see {@link #update}. */
+    private final int[] mCells = new int[CELL_COUNT * CELL_FIELDS];
+    private int mPaddedWidth;
+    private int mPaddedHeight;
+    private int mHeaderHeight;
+    private int mCellWidth;
+    private int mDayHeight;
+    private boolean mIsLayoutRtl;
+    private int mDayOffset;
+    private int mDaysInMonth;
+
+    /**
+     * Recomputes the cell table. Must be called whenever the layout, the
+     * layout direction or the displayed month changes.
+     *
+     * @param paddedWidth the width of the padded area
+     * @param paddedHeight the height of the padded area
+     * @param headerHeight the combined height of the month and weekday rows
+     * @param cellWidth the width of a day cell
+     * @param dayHeight the height of a row of days
+     * @param isLayoutRtl whether columns run right to left
+     * @param dayOffset the column of the first day, see {@link #findDayOffset}
+     * @param daysInMonth the number of days in the month
+     */
+    public void update(int paddedWidth, int paddedHeight, int headerHeight, int cellWidth,
+                       int dayHeight, boolean isLayoutRtl, int dayOffset, int daysInMonth) {
+        mPaddedWidth = paddedWidth;
+        mPaddedHeight = paddedHeight;
+        mHeaderHeight = headerHeight;
+        mCellWidth = cellWidth;
+        mDayHeight = dayHeight;
+        mIsLayoutRtl = isLayoutRtl;
+        mDayOffset = dayOffset;
+        mDaysInMonth = daysInMonth;
+        final int[] cells = mCells;
+        for (int row = 0, i = 0; row < MAX_WEEKS_IN_MONTH; row++) {
+            final int top = headerHeight + row * dayHeight;
+            for (int col = 0; col < DAYS_IN_WEEK; col++, i += CELL_FIELDS) {
+                final int colCenter = cellWidth * col + cellWidth / 2;
+                if (isLayoutRtl) {
+                    cells[i + CENTER_X] = paddedWidth - colCenter;
+                    cells[i + LEFT] = paddedWidth - (col + 1) * cellWidth;
+                } else {
+                    cells[i + CENTER_X] = colCenter;
+                    cells[i + LEFT] = col * cellWidth;
+                }
+                cells[i + CENTER_Y] = top + dayHeight / 2;
+                cells[i + TOP] = top;
+            }
+        }
+    }
+
+    public int getDayOffset() {
+        return mDayOffset;
+    }
+
+    public boolean isLayoutRtl() {
+        return mIsLayoutRtl;
+    }
+
+    /**
+     * Returns the horizontal center of a column, for the weekday labels.
+     */
+    public int getColumnCenterX(int col) {
+        return mCells[col * CELL_FIELDS + CENTER_X];
+    }
+
+    /** Returns the horizontal center of a day, for drawing. */
+    public int getCenterX(int day) {
+        return mCells[(day - 1 + mDayOffset) * CELL_FIELDS + CENTER_X];
+    }
+
+    /** Returns the vertical center of a day, for drawing. */
+    public int getCenterY(int day) {
+        return mCells[(day - 1 + mDayOffset) * CELL_FIELDS + CENTER_Y];
+    }
+
+    /** Returns the left edge of a day's cell. */
+    public int getLeft(int day) {
+        return mCells[(day - 1 + mDayOffset) * CELL_FIELDS + LEFT];
+    }
+
+    /** Returns the top edge of a day's cell. */
+    public int getTop(int day) {
+        return mCells[(day - 1 + mDayOffset) * CELL_FIELDS + TOP];
+    }
+
+    public int getCellWidth() {
+        return mCellWidth;
+    }
+
+    public int getDayHeight() {
+        return mDayHeight;
+    }
+
+    /**
+     * Returns the day of the month at the specified position, relative to the
+     * padded area, or -1 if the position wasn't in a valid day.
+     */
+    public int getDayAt(int paddedX, int paddedY) {
+        if (mDayHeight == 0) {
+            // Not laid out yet.
+            return -1;
+        }
+        return getDayAtLocation(paddedX, paddedY, mPaddedWidth, mPaddedHeight, mHeaderHeight,
+                mDayHeight, mIsLayoutRtl, mDayOffset, mDaysInMonth);
+    }
+
+    /**
+     * Returns the column of the first day of the month.
+     *
+     * @param dayOfWeekStart the day of week of the first day of the month,
+     *                       {@link java.util.Calendar#SUNDAY} through
+     *                       {@link java.util.Calendar#SATURDAY}
+     * @param weekStart the first day of the week
+     */
+    public static int findDayOffset(int dayOfWeekStart, int weekStart) {
+        final int offset = dayOfWeekStart - weekStart;
+        if (dayOfWeekStart < weekStart) {
+            return offset + DAYS_IN_WEEK;
+        }
+        return offset;
+    }
+
+    /**
+     * Calculates the day of the month at the specified position. Returns the
+     * day of the month or -1 if the position wasn't in a valid day.
+     *
+     * @param paddedX the x position, relative to the padded area
+     * @param paddedY the y position, relative to the padded area
+     * @param paddedWidth the width of the padded area
+     * @param paddedHeight the height of the padded area
+     * @param headerHeight the combined height of the month and weekday rows
+     * @param dayHeight the height of a row of days
+     * @param isLayoutRtl whether columns run right to left
+     * @param dayOffset the column of the first day, see {@link #findDayOffset}
+     * @param daysInMonth the number of days in the month
+     */
+    public static int getDayAtLocation(int paddedX, int paddedY, int paddedWidth,
+                                       int paddedHeight, int headerHeight, int dayHeight,
+                                       boolean isLayoutRtl, int dayOffset, int daysInMonth) {
+        if (paddedX < 0 || paddedX >= paddedWidth) {
+            return -1;
+        }
+        if (paddedY < headerHeight || paddedY >= paddedHeight) {
+            return -1;
+        }
+        // Adjust for RTL after applying padding.
+        final int paddedXRtl;
+        if (isLayoutRtl) {
+            paddedXRtl = paddedWidth - 1 - paddedX;
+        } else {
+            paddedXRtl = paddedX;
+        }
+        final int row = (paddedY - headerHeight) / dayHeight;
+        final int col = (paddedXRtl * DAYS_IN_WEEK) / paddedWidth;
+        final int index = col + row * DAYS_IN_WEEK;
+        final int day = index + 1 - dayOffset;
+        if (day < 1 || day > daysInMonth) {
+            return -1;
+        }
+        return day;
+    }
+}
@@ -0,0 +1,72 @@
+package space.schrws.cherrypicker;
+
+/**
+ * Least-recently-used cache of per-month day masks, keyed by month index (see
+ * {@link CalendarMath#getMonthIndex}). Bit {@code dayOfMonth - 1} of a mask is
+ * set if that day is enabled.
+ * <p>
+ * Lookups scan every slot, which for the few dozen months a picker keeps
+ * around is cheaper than hashing and doesn't box.
+ */
+class MonthMaskCache {
+    /** Returned by {@link #get} for months that aren't cached. */
+    static final int MISSING = -1;
+    private final int[] mMonthIndices;
+    private final int[] mMasks;
+    /** Value of {@link #mClock} when each slot was last used. */
+    private final long[] mLastUsed;
+    private int mSize;
+    private long mClock;
+    /**
+     * @param capacity the maximum number of months to keep
+     */
+    MonthMaskCache(int capacity) {
+        mMonthIndices = new int[capacity];
+        mMasks = new int[capacity];
+        mLastUsed = new long[capacity];
+    }
+    /**
+     * @return the mask of the month, or {@link #MISSING}
+     */
+    int get(int monthIndex) {
+        final int slot = indexOf(monthIndex);
+        if (slot < 0) {
+            return MISSING;
+        }
+        mLastUsed[slot] = ++mClock;
+        return mMasks[slot];
+    }
+    /**
+     * Caches the mask of a month, evicting the least recently used month if
+     * the cache is full.
+     */
+    void put(int monthIndex, int mask) {
+        int slot = indexOf(monthIndex);
+        if (slot < 0) {
+            if (mSize < mMonthIndices.length) {
+                slot = mSize++;
+            } else {
+                slot = 0;
+                for (int i = 1; i < mSize; i++) {
+                    if (mLastUsed[i] < mLastUsed[slot]) {
+                        slot = i;
+                    }
+                }
+            }
+            mMonthIndices[slot] = monthIndex;
+        }
+        mMasks[slot] = mask;
+        mLastUsed[slot] = ++mClock;
+    }
+    void clear() {
+        mSize = 0;
+    }
+    private int indexOf(int monthIndex) {
+        for (int i = 0; i < mSize; i++) {
+            if (mMonthIndices[i] == monthIndex) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,181 @@
+package space.schrws.cherrypicker;
+
+import android.content.Context;
+import android.util.ArrayMap;
+import android.util.SparseArray;
+import android.view.View;
+
+import java.util.ArrayList;
+
+/**
+ * Bounded pool of month item views, keyed by the context they were inflated
+ * with and their item layout, which lets
+ * {@link DayPickerPagerAdapter} reuse pages instead of inflating a new one
+ * for every month it shows.
+ * <p>
+ * Pooled views keep the text appearances they were last styled with, but
+ * go back to default colors, so a page reused by another picker never shows
+ * the colors of the previous one. A single pool may be shared by several pickers in the same
+ * Activity through {@link CherryDatePicker#setMonthViewPool(MonthViewPool)}.
+ * Pickers themed differently, e.g. one inside a dialog, only get views
+ * inflated with their own context back, so a page never shows another
+ * theme's drawables or attributes.
+ * <p>
+ * Idle views are only kept for contexts with a picker attached to a window.
+ * Once the last one is detached, e.g. when its dialog is dismissed, the
+ * views of that context are dropped, so the pool doesn't keep the context
+ * alive.
+ * <p>
+ * This class is not thread-safe and must only be used on the UI thread.
+ */
+public class MonthViewPool {
+    private static final int DEFAULT_MAX_SIZE = 5;
+    private final ArrayMap<Context, SparseArray<ArrayList<View>>> mScrap = new ArrayMap<>();
+    /** Number of attached pickers using each context. */
+    private final ArrayMap<Context, Integer> mAttachedCounts = new ArrayMap<>();
+    private int mMaxSize;
+    private int mHitCount;
+    private int mMissCount;
+    public MonthViewPool() {
+        this(DEFAULT_MAX_SIZE);
+    }
+    /**
+     * @param maxSize the maximum number of idle views kept per context and
+     *                item layout
+     */
+    public MonthViewPool(int maxSize) {
+        setMaxSize(maxSize);
+    }
+    /**
+     * Sets the maximum number of idle views kept per context and item layout,
+     * trimming the pool if it currently holds more.
+     *
+     * @param maxSize the maximum number of idle views, or 0 to disable pooling
+     */
+    public void setMaxSize(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize must be >= 0");
+        }
+        mMaxSize = maxSize;
+        for (int i = mScrap.size() - 1; i >= 0; i--) {
+            final SparseArray<ArrayList<View>> scrapByLayout = mScrap.valueAt(i);
+            final int count = scrapByLayout.size();
+            for (int j = 0; j < count; j++) {
+                final ArrayList<View> scrap = scrapByLayout.valueAt(j);
+                while (scrap.size() > maxSize) {
+                    scrap.remove(scrap.size() - 1);
+                }
+            }
+        }
+    }
+    public int getMaxSize() {
+        return mMaxSize;
+    }
+    /**
+     * Returns an idle view inflated with the specified context from the
+     * specified layout, or {@code null} if the caller needs to inflate one.
+     *
+     * @param context the context of the inflater the caller would use
+     * @param layoutResId the item layout resource ID
+     */
+    View acquire(Context context, int layoutResId) {
+        final SparseArray<ArrayList<View>> scrapByLayout = mScrap.get(context);
+        final ArrayList<View> scrap = scrapByLayout != null
+                ? scrapByLayout.get(layoutResId) : null;
+        if (scrap == null || scrap.isEmpty()) {
+            mMissCount++;
+            return null;
+        }
+        mHitCount++;
+        return scrap.remove(scrap.size() - 1);
+    }
+    /**
+     * Returns a detached view to the pool. The view is dropped if the pool is
+     * already full, or if no picker using its context is attached.
+     *
+     * @param context the context of the inflater the view was inflated with
+     * @param layoutResId the layout resource ID the view was inflated from
+     * @param view the view to recycle
+     */
+    void release(Context context, int layoutResId, View view) {
+        if (view.getParent() != null) {
+            throw new IllegalStateException("Recycled views must be detached");
+        }
+        if (!mAttachedCounts.containsKey(context)) {
+            return;
+        }
+        SparseArray<ArrayList<View>> scrapByLayout = mScrap.get(context);
+        if (scrapByLayout == null) {
+            scrapByLayout = new SparseArray<>();
+            mScrap.put(context, scrapByLayout);
+        }
+        ArrayList<View> scrap = scrapByLayout.get(layoutResId);
+        if (scrap == null) {
+            scrap = new ArrayList<>(mMaxSize);
+            scrapByLayout.put(layoutResId, scrap);
+        }
+        if (scrap.size() < mMaxSize) {
+            scrap.add(view);
+        }
+    }
+    /**
+     * Called when a picker using this pool is attached to a window.
+     *
+     * @param context the context of the inflater of the picker
+     */
+    void onPickerAttached(Context context) {
+        final Integer count = mAttachedCounts.get(context);
+        mAttachedCounts.put(context, count == null ? 1 : count + 1);
+    }
+    /**
+     * Called when a picker using this pool is detached from its window. The
+     * idle views of its context are dropped once no picker using it is
+     * attached.
+     *
+     * @param context the context of the inflater of the picker
+     */
+    void onPickerDetached(Context context) {
+        final Integer count = mAttachedCounts.get(context);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            mAttachedCounts.put(context, count - 1);
+        } else {
+            mAttachedCounts.remove(context);
+            mScrap.remove(context);
+        }
+    }
+    /**
+     * Drops every idle view, e.g. after a configuration change made their
+     * styling stale.
+     */
+    public void clear() {
+        mScrap.clear();
+    }
+    /**
+     * Drops the idle views inflated with the specified context right away,
+     * without waiting for the pickers using it to be detached.
+     *
+     * @param context the context to drop the views of
+     */
+    public void clear(Context context) {
+        mScrap.remove(context);
+    }
+    /**
+     * @return the number of {@link #acquire} calls served from the pool
+     */
+    public int getHitCount() {
+        return mHitCount;
+    }
+    /**
+     * @return the number of {@link #acquire} calls that required an inflate
+     */
+    public int getMissCount() {
+        return mMissCount;
+    }
+    public void resetCounters() {
+        mHitCount = 0;
+        mMissCount = 0;
+    }
+}
@@ -0,0 +1,72 @@
+package space.schrws.cherrypicker;
+
+/**
+ * Counts the expensive operations performed by a picker's views, so that
+ * frame-cost harnesses can report work per operation (e.g. per page swipe)
+ * alongside wall time and allocations.
+ * <p>
+ * Counters are only updated on the UI thread.
+ */
+public class PickerMetrics {
+    private int mInflateCount;
+    private int mBindCount;
+    private int mDrawCount;
+    private int mGridRecordCount;
+    private int mYearBindCount;
+    void onInflate() {
+        mInflateCount++;
+    }
+    void onBind() {
+        mBindCount++;
+    }
+    void onDraw() {
+        mDrawCount++;
+    }
+    void onGridRecord() {
+        mGridRecordCount++;
+    }
+    void onYearBind() {
+        mYearBindCount++;
+    }
+    /** @return the number of month pages inflated */
+    public int getInflateCount() {
+        return mInflateCount;
+    }
+    /** @return the number of month pages bound to a month */
+    public int getBindCount() {
+        return mBindCount;
+    }
+    /** @return the number of month page draws */
+    public int getDrawCount() {
+        return mDrawCount;
+    }
+    /** @return the number of times a month's static grid was recorded */
+    public int getGridRecordCount() {
+        return mGridRecordCount;
+    }
+    /** @return the number of year list items bound */
+    public int getYearBindCount() {
+        return mYearBindCount;
+    }
+    public void reset() {
+        mInflateCount = 0;
+        mBindCount = 0;
+        mDrawCount = 0;
+        mGridRecordCount = 0;
+        mYearBindCount = 0;
+    }
+    /**
+     * @return the counters as a flat JSON object
+     */
+    public String toJson() {
+        return "{\"inflate\":" + mInflateCount
+                + ",\"bind\":" + mBindCount
+                + ",\"draw\":" + mDrawCount
+                + ",\"gridRecord\":" + mGridRecordCount
+                + ",\"yearBind\":" + mYearBindCount + "}";
+    }
+    @Override
+    public String toString() {
+        return toJson();
+    }
+}
@@ -2,23 +2,27 @@ package space.schrws.cherrypicker;
 
 import android.content.Context;
 import android.content.res.ColorStateList;
+import android.content.res.Configuration;
 import android.content.res.Resources;
-import android.content.res.TypedArray;
 import android.graphics.Canvas;
+import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Paint.Align;
 import android.graphics.Paint.Style;
+import android.graphics.Picture;
 import android.graphics.Rect;
+import android.graphics.Region;
 import android.graphics.Typeface;
-import android.icu.text.DisplayContext;
-import android.icu.text.SimpleDateFormat;
+import android.os.Build;
 import android.os.Bundle;
+import android.support.annotation.VisibleForTesting;
 import android.support.v4.view.ViewCompat;
 import android.support.v4.view.accessibility.AccessibilityNodeInfoCompat;
 import android.support.v4.widget.ExploreByTouchHelper;
 import android.text.TextPaint;
 import android.text.format.DateFormat;
 import android.util.AttributeSet;
+import android.util.SparseArray;
 import android.util.StateSet;
 import android.view.KeyEvent;
 import android.view.MotionEvent;
@@ -28,9 +32,7 @@ import android.view.ViewParent;
 import android.view.accessibility.AccessibilityEvent;
 import android.view.accessibility.AccessibilityNodeInfo;
 import android.view.accessibility.AccessibilityNodeInfo.AccessibilityAction;
-import android.widget.TextView;
 
-import java.text.NumberFormat;
 import java.util.Calendar;
 import java.util.List;
 import java.util.Locale;
@@ -41,22 +43,44 @@ import java.util.Locale;
 public class SimpleMonthView extends View {
     private static final int DAYS_IN_WEEK = 7;
     private static final int MAX_WEEKS_IN_MONTH = 6;
+    private static final int MAX_DAYS_IN_MONTH = 31;
+    /** Mask passed to {@link #setMonthParams} to enable every day. */
+    static final int ALL_DAYS_ENABLED = 0x7FFFFFFF;
+    /**
+     * Mask passed to {@link #setMonthParams} while the enabled days are still
+     * being loaded. Until {@link #setEnabledDays} is called, every day is
+     * drawn disabled and can't be picked.
+     */
+    static final int ENABLED_DAYS_PENDING = -1;
+    /** Passed to {@link #setSelectedRange} when no range is selected. */
+    static final int NO_RANGE = -1;
+    /** Returned by {@link #getEpochDayAtLocation} outside of enabled days. */
+    static final int NO_EPOCH_DAY = Integer.MIN_VALUE;
+    private static final int RANGE_ALPHA = 0x40;
     private static final int DEFAULT_SELECTED_DAY = -1;
     private static final int DEFAULT_WEEK_START = Calendar.SUNDAY;
-    private static final String MONTH_YEAR_FORMAT = "MMMMy";
     private static final int SELECTED_HIGHLIGHT_ALPHA = 0xB0;
+    /** The color of a new Paint, which paints keep until a color is set. */
+    private static final int DEFAULT_PAINT_COLOR = Color.BLACK;
+    /** Distance from the center of a day to its dot or badge, in day heights. */
+    private static final float DECORATION_OFFSET = 0.32f;
     private final TextPaint mMonthPaint = new TextPaint();
     private final TextPaint mDayOfWeekPaint = new TextPaint();
     private final TextPaint mDayPaint = new TextPaint();
     private final Paint mDaySelectorPaint = new Paint();
     private final Paint mDayHighlightPaint = new Paint();
     private final Paint mDayHighlightSelectorPaint = new Paint();
+    /** Shared by the backgrounds and dots of every decoration. */
+    private final Paint mDecorationPaint = new Paint();
+    private final TextPaint mBadgePaint = new TextPaint();
+    private final Paint mRangePaint = new Paint();
+    private final int mDotRadius;
     /** Array of single-character weekday labels ordered by column index. */
     private final String[] mDayOfWeekLabels = new String[7];
     private final Calendar mCalendar;
     private final Locale mLocale;
     private final MonthViewTouchHelper mTouchHelper;
-    private final NumberFormat mDayFormatter;
+    private final DateFormatCache mFormats;
     // Desired dimensions.
     private final int mDesiredMonthHeight;
     private final int mDesiredDayOfWeekHeight;
@@ -94,12 +118,61 @@ public class SimpleMonthView extends View {
     private int mEnabledDayStart = 1;
     /** The day of month for the last (inclusive) enabled day. */
     private int mEnabledDayEnd = 31;
+    /**
+     * Enabled days within the enabled range, bit {@code day - 1} for each
+     * day. Combines the range with the mask passed to {@link #setMonthParams}.
+     */
+    private int mEnabledDays = ALL_DAYS_ENABLED;
+    private DayDecorator mDayDecorator;
+    /**
+     * Decorations of the current month by day, rebuilt from the decorator on
+     * each bind and iterated in day order while drawing.
+     */
+    private final SparseArray<DayDecoration> mDecorations = new SparseArray<>();
+    /**
+     * First and last day of the selected range relative to this month, or
+     * {@link #NO_RANGE}. Either may be 0 or {@code mDaysInMonth + 1} when the
+     * range continues into the previous or next month.
+     */
+    private int mRangeStart = NO_RANGE;
+    private int mRangeEnd = NO_RANGE;
+    /**
+     * Days selected in multiple selection mode, bit {@code day - 1} for each
+     * day. Like the activated day, these are drawn over the recorded grid and
+     * clipped out of its replay, so toggling one never records it again.
+     */
+    private int mSelectedDays;
+    private OnRangeDragListener mOnRangeDragListener;
+    /** Day a range drag started on, or -1 if no drag is in progress. */
+    private int mRangeDragDay = -1;
+    private boolean mRangeDragMoved;
     /** Optional listener for handling day click actions. */
     private OnDayClickListener mOnDayClickListener;
     private ColorStateList mDayTextColor;
+    /** Text appearances currently applied, used to skip redundant parsing. */
+    private int mMonthTextAppearance;
+    private int mDayOfWeekTextAppearance;
+    private int mDayTextAppearance;
     private int mHighlightedDay = -1;
     private int mPreviouslyHighlightedDay = -1;
     private boolean mIsTouchHighlighted = false;
+    private final Rect mTempRect = new Rect();
+    private final Rect mDirtyRect = new Rect();
+    // Drawing metrics, used to verify partial invalidation.
+    private int mDrawCount;
+    private int mDrawnCellCount;
+    private long mInvalidatedArea;
+    /**
+     * Recording of everything but the today, activated, highlighted, range
+     * end and selected days, replayed on each frame until one of its inputs
+     * changes.
+     */
+    private Picture mGridPicture;
+    private boolean mGridDirty = true;
+    /** Cell geometry for the current month and layout, see {@link #updateGrid()}. */
+    private final MonthGrid mGrid = new MonthGrid();
+    private int mGridRecordCount;
+    private PickerMetrics mMetrics;
     public SimpleMonthView(Context context) {
         this(context, null);
     }
@@ -117,6 +190,7 @@ public class SimpleMonthView extends View {
         mDesiredDayHeight = res.getDimensionPixelSize(R.dimen.date_picker_day_height);
         mDesiredCellWidth = res.getDimensionPixelSize(R.dimen.date_picker_day_width);
         mDesiredDaySelectorRadius = res.getDimensionPixelSize(R.dimen.date_picker_day_selector_radius);
+        mDotRadius = res.getDimensionPixelSize(R.dimen.date_picker_day_dot_radius);
         // Set up accessibility components.
         mTouchHelper = new MonthViewTouchHelper(this);
         ViewCompat.setAccessibilityDelegate(this, mTouchHelper);
@@ -124,23 +198,22 @@ public class SimpleMonthView extends View {
                 ViewCompat.IMPORTANT_FOR_ACCESSIBILITY_YES);
         mLocale = res.getConfiguration().locale;
         mCalendar = Calendar.getInstance(mLocale);
-        mDayFormatter = NumberFormat.getIntegerInstance(mLocale);
+        mFormats = DateFormatCache.get(mLocale);
+        mYear = mCalendar.get(Calendar.YEAR);
+        mMonth = mCalendar.get(Calendar.MONTH);
         updateMonthYearLabel();
         updateDayOfWeekLabels();
         initPaints(res);
     }
     private void updateMonthYearLabel() {
-        final String format = DateFormat.getBestDateTimePattern(mLocale, MONTH_YEAR_FORMAT);
-        final SimpleDateFormat formatter = new SimpleDateFormat(format, mLocale);
-        formatter.setContext(DisplayContext.CAPITALIZATION_FOR_STANDALONE);
-        mMonthYearLabel = formatter.format(mCalendar.getTime());
+        mMonthYearLabel = mFormats.getMonthYearLabel(mYear, mMonth);
     }
     private void updateDayOfWeekLabels() {
-        // Use tiny (e.g. single-character) weekday names from ICU. The indices
-        // for this list correspond to Calendar days, e.g. SUNDAY is index 1.
-        //final String[] tinyWeekdayNames = LocaleData.get(mLocale).tinyWeekdayNames;
+        // Use narrow (e.g. single-character) weekday names from ICU. The
+        // indices for this list correspond to Calendar days, e.g. SUNDAY is 1.
         for (int i = 0; i < DAYS_IN_WEEK; i++) {
-            mDayOfWeekLabels[i] = "ASD"; //tinyWeekdayNames[(mWeekStart + i - 1) % DAYS_IN_WEEK + 1];
+            mDayOfWeekLabels[i] = mFormats.getNarrowWeekday(
+                    (mWeekStart + i - 1) % DAYS_IN_WEEK + 1);
         }
     }
     /**
@@ -152,20 +225,7 @@ public class SimpleMonthView extends View {
      * @return the text color, if available
      */
     private ColorStateList applyTextAppearance(Paint p, int resId) {
-        final TypedArray ta = getContext().obtainStyledAttributes(null,
-                R.styleable.TextAppearance, 0, resId);
-        final String fontFamily = ta.getString(R.styleable.TextAppearance_fontFamily);
-        if (fontFamily != null) {
-            p.setTypeface(Typeface.create(fontFamily, Typeface.NORMAL));
-        }
-        p.setTextSize(ta.getDimensionPixelSize(R.styleable.TextAppearance_textSize, (int) p.getTextSize()));
-        final ColorStateList textColor = new TextView(getContext()).getTextColors();
-        if (textColor != null) {
-            final int enabledColor = textColor.getColorForState(ENABLED_STATE_SET, 0);
-            p.setColor(enabledColor);
-        }
-        ta.recycle();
-        return textColor;
+        return TextAppearanceCache.get(getContext(), resId).apply(p);
     }
     public int getMonthHeight() {
         return mMonthHeight;
@@ -174,19 +234,31 @@ public class SimpleMonthView extends View {
         return mCellWidth;
     }
     public void setMonthTextAppearance(int resId) {
+        if (resId == mMonthTextAppearance) {
+            return;
+        }
+        mMonthTextAppearance = resId;
         applyTextAppearance(mMonthPaint, resId);
-        invalidate();
+        invalidateGrid();
     }
     public void setDayOfWeekTextAppearance(int resId) {
+        if (resId == mDayOfWeekTextAppearance) {
+            return;
+        }
+        mDayOfWeekTextAppearance = resId;
         applyTextAppearance(mDayOfWeekPaint, resId);
-        invalidate();
+        invalidateGrid();
     }
     public void setDayTextAppearance(int resId) {
+        if (resId == mDayTextAppearance) {
+            return;
+        }
+        mDayTextAppearance = resId;
         final ColorStateList textColor = applyTextAppearance(mDayPaint, resId);
         if (textColor != null) {
             mDayTextColor = textColor;
         }
-        invalidate();
+        invalidateGrid();
     }
     /**
      * Sets up the text and style properties for painting.
@@ -198,6 +270,7 @@ public class SimpleMonthView extends View {
         final int monthTextSize = res.getDimensionPixelSize(R.dimen.date_picker_month_text_size);
         final int dayOfWeekTextSize = res.getDimensionPixelSize(R.dimen.date_picker_day_of_week_text_size);
         final int dayTextSize =  res.getDimensionPixelSize(R.dimen.date_picker_day_text_size);
+        final int badgeTextSize = res.getDimensionPixelSize(R.dimen.date_picker_day_badge_text_size);
         mMonthPaint.setAntiAlias(true);
         mMonthPaint.setTextSize(monthTextSize);
         mMonthPaint.setTypeface(Typeface.create(monthTypeface, Typeface.NORMAL));
@@ -219,38 +292,92 @@ public class SimpleMonthView extends View {
         mDayPaint.setTypeface(Typeface.create(dayTypeface, Typeface.NORMAL));
         mDayPaint.setTextAlign(Align.CENTER);
         mDayPaint.setStyle(Style.FILL);
+        mDecorationPaint.setAntiAlias(true);
+        mDecorationPaint.setStyle(Style.FILL);
+        mBadgePaint.setAntiAlias(true);
+        mBadgePaint.setTextSize(badgeTextSize);
+        mBadgePaint.setTypeface(Typeface.create(dayTypeface, Typeface.NORMAL));
+        mBadgePaint.setTextAlign(Align.CENTER);
+        mBadgePaint.setStyle(Style.FILL);
+        mRangePaint.setAntiAlias(true);
+        mRangePaint.setStyle(Style.FILL);
     }
     void setMonthTextColor(ColorStateList monthTextColor) {
         final int enabledColor = monthTextColor.getColorForState(ENABLED_STATE_SET, 0);
         mMonthPaint.setColor(enabledColor);
-        invalidate();
+        invalidateGrid();
     }
     void setDayOfWeekTextColor(ColorStateList dayOfWeekTextColor) {
         final int enabledColor = dayOfWeekTextColor.getColorForState(ENABLED_STATE_SET, 0);
         mDayOfWeekPaint.setColor(enabledColor);
-        invalidate();
+        invalidateGrid();
     }
     void setDayTextColor(ColorStateList dayTextColor) {
         mDayTextColor = dayTextColor;
-        invalidate();
+        invalidateGrid();
+    }
+    /**
+     * Drops the text colors set through {@link #setMonthTextColor},
+     * {@link #setDayOfWeekTextColor} and {@link #setDayTextColor}, going
+     * back to those of the text appearances.
+     */
+    void resetTextColors() {
+        mMonthPaint.setColor(DEFAULT_PAINT_COLOR);
+        mDayOfWeekPaint.setColor(DEFAULT_PAINT_COLOR);
+        reapplyTextAppearances();
+        invalidateGrid();
     }
+    /**
+     * Sets the color of the selected day, or restores the default one if
+     * {@code dayBackgroundColor} is {@code null}.
+     */
     void setDaySelectorColor(ColorStateList dayBackgroundColor) {
-        final int activatedColor = dayBackgroundColor.getColorForState(
-                Utils.getState(Utils.VIEW_STATE_ENABLED | Utils.VIEW_STATE_ACTIVATED), 0);
+        final int activatedColor = dayBackgroundColor == null ? DEFAULT_PAINT_COLOR
+                : dayBackgroundColor.getColorForState(
+                        Utils.getState(Utils.VIEW_STATE_ENABLED | Utils.VIEW_STATE_ACTIVATED), 0);
         mDaySelectorPaint.setColor(activatedColor);
         mDayHighlightSelectorPaint.setColor(activatedColor);
         mDayHighlightSelectorPaint.setAlpha(SELECTED_HIGHLIGHT_ALPHA);
+        mRangePaint.setColor(activatedColor);
+        mRangePaint.setAlpha(RANGE_ALPHA);
         invalidate();
     }
+    /**
+     * Sets the color of the pressed day, or restores the default one if
+     * {@code dayHighlightColor} is {@code null}.
+     */
     void setDayHighlightColor(ColorStateList dayHighlightColor) {
-        final int pressedColor = dayHighlightColor.getColorForState(
-                Utils.getState(Utils.VIEW_STATE_ENABLED | Utils.VIEW_STATE_PRESSED), 0);
+        final int pressedColor = dayHighlightColor == null ? DEFAULT_PAINT_COLOR
+                : dayHighlightColor.getColorForState(
+                        Utils.getState(Utils.VIEW_STATE_ENABLED | Utils.VIEW_STATE_PRESSED), 0);
         mDayHighlightPaint.setColor(pressedColor);
         invalidate();
     }
     public void setOnDayClickListener(OnDayClickListener listener) {
         mOnDayClickListener = listener;
     }
+    /**
+     * Sets the metrics to report draws to, or {@code null} for none.
+     */
+    void setMetrics(PickerMetrics metrics) {
+        mMetrics = metrics;
+    }
+    /**
+     * Clears transient touch and focus state before the view is reused for
+     * another month, along with the colors set by its picker, since a pool
+     * shared between pickers may hand it to another one.
+     */
+    void onRecycled() {
+        mHighlightedDay = -1;
+        mPreviouslyHighlightedDay = -1;
+        mIsTouchHighlighted = false;
+        mOnDayClickListener = null;
+        mOnRangeDragListener = null;
+        mRangeDragDay = -1;
+        setDaySelectorColor(null);
+        setDayHighlightColor(null);
+        resetTextColors();
+    }
     @Override
     public boolean dispatchHoverEvent(MotionEvent event) {
         // First right-of-refusal goes the touch exploration helper.
@@ -261,15 +388,34 @@ public class SimpleMonthView extends View {
         final int x = (int) (event.getX() + 0.5f);
         final int y = (int) (event.getY() + 0.5f);
         final int action = event.getAction();
+        if (action == MotionEvent.ACTION_DOWN && mOnRangeDragListener != null) {
+            // Dragging either end of the range moves that end.
+            final int touchedDay = getDayAtLocation(x, y);
+            if (touchedDay > 0 && isDayEnabled(touchedDay)
+                    && (touchedDay == mRangeStart || touchedDay == mRangeEnd)) {
+                mRangeDragDay = touchedDay;
+                mRangeDragMoved = false;
+                final ViewParent parent = getParent();
+                if (parent != null) {
+                    parent.requestDisallowInterceptTouchEvent(true);
+                }
+                mOnRangeDragListener.onRangeDragStarted(this,
+                        CalendarMath.toEpochDay(mYear, mMonth, touchedDay));
+            }
+        }
+        if (mRangeDragDay != -1) {
+            return onRangeDragEvent(event, x, y);
+        }
         switch (action) {
             case MotionEvent.ACTION_DOWN:
             case MotionEvent.ACTION_MOVE:
                 final int touchedItem = getDayAtLocation(x, y);
                 mIsTouchHighlighted = true;
                 if (mHighlightedDay != touchedItem) {
+                    final int previouslyHighlightedDay = mHighlightedDay;
                     mHighlightedDay = touchedItem;
                     mPreviouslyHighlightedDay = touchedItem;
-                    invalidate();
+                    invalidateDays(previouslyHighlightedDay, touchedItem);
                 }
                 if (action == MotionEvent.ACTION_DOWN && touchedItem < 0) {
                     // Touch something that's not an item, reject event.
@@ -282,9 +428,40 @@ public class SimpleMonthView extends View {
                 // Fall through.
             case MotionEvent.ACTION_CANCEL:
                 // Reset touched day on stream end.
+                final int highlightedDay = mHighlightedDay;
                 mHighlightedDay = -1;
                 mIsTouchHighlighted = false;
-                invalidate();
+                invalidateDays(highlightedDay, -1);
+                break;
+        }
+        return true;
+    }
+    /**
+     * Forwards a touch event of a range drag to the drag listener, which
+     * resolves the position against whichever month is showing. A drag that
+     * never leaves its day is a click.
+     */
+    private boolean onRangeDragEvent(MotionEvent event, int x, int y) {
+        switch (event.getAction()) {
+            case MotionEvent.ACTION_MOVE:
+                if (!mRangeDragMoved && getDayAtLocation(x, y) == mRangeDragDay) {
+                    break;
+                }
+                mRangeDragMoved = true;
+                if (mOnRangeDragListener != null) {
+                    mOnRangeDragListener.onRangeDragMoved(this, event.getRawX(), event.getRawY());
+                }
+                break;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                final int day = mRangeDragDay;
+                mRangeDragDay = -1;
+                if (mOnRangeDragListener != null) {
+                    mOnRangeDragListener.onRangeDragFinished(this);
+                }
+                if (!mRangeDragMoved && event.getAction() == MotionEvent.ACTION_UP) {
+                    onDayClicked(day);
+                }
                 break;
         }
         return true;
@@ -296,34 +473,27 @@ public class SimpleMonthView extends View {
         // day to the left, top, right, or bottom). Focus forward and back jumps out of the
         // SimpleMonthView, skipping over other SimpleMonthViews in the parent ViewPager
         // to the next focusable View in the hierarchy.
+        final int previouslyHighlightedDay = mHighlightedDay;
         boolean focusChanged = false;
         switch (event.getKeyCode()) {
             case KeyEvent.KEYCODE_DPAD_LEFT:
                 if (event.hasNoModifiers()) {
-                    focusChanged = moveOneDay(Utils.isLayoutRtl(this));
+                    focusChanged = moveOneDay(mGrid.isLayoutRtl());
                 }
                 break;
             case KeyEvent.KEYCODE_DPAD_RIGHT:
                 if (event.hasNoModifiers()) {
-                    focusChanged = moveOneDay(!Utils.isLayoutRtl(this));
+                    focusChanged = moveOneDay(!mGrid.isLayoutRtl());
                 }
                 break;
             case KeyEvent.KEYCODE_DPAD_UP:
                 if (event.hasNoModifiers()) {
-                    ensureFocusedDay();
-                    if (mHighlightedDay > 7) {
-                        mHighlightedDay -= 7;
-                        focusChanged = true;
-                    }
+                    focusChanged = moveFocusedDay(-DAYS_IN_WEEK, false);
                 }
                 break;
             case KeyEvent.KEYCODE_DPAD_DOWN:
                 if (event.hasNoModifiers()) {
-                    ensureFocusedDay();
-                    if (mHighlightedDay <= mDaysInMonth - 7) {
-                        mHighlightedDay += 7;
-                        focusChanged = true;
-                    }
+                    focusChanged = moveFocusedDay(DAYS_IN_WEEK, false);
                 }
                 break;
             case KeyEvent.KEYCODE_DPAD_CENTER:
@@ -357,27 +527,40 @@ public class SimpleMonthView extends View {
             }
         }
         if (focusChanged) {
-            invalidate();
+            invalidateDays(previouslyHighlightedDay, mHighlightedDay);
             return true;
         } else {
             return super.onKeyDown(keyCode, event);
         }
     }
     private boolean moveOneDay(boolean positive) {
+        return moveFocusedDay(positive ? 1 : -1, true);
+    }
+    /**
+     * Moves the focused day by steps of the specified number of days,
+     * skipping days that can't be picked. The focus stays put if no enabled
+     * day is left in that direction.
+     *
+     * @param step the number of days to move by per step
+     * @param withinWeek whether to stop at the start or end of the week
+     * @return whether the focused day changed
+     */
+    private boolean moveFocusedDay(int step, boolean withinWeek) {
         ensureFocusedDay();
-        boolean focusChanged = false;
-        if (positive) {
-            if (!isLastDayOfWeek(mHighlightedDay) && mHighlightedDay < mDaysInMonth) {
-                mHighlightedDay++;
-                focusChanged = true;
+        int day = mHighlightedDay;
+        while (true) {
+            if (withinWeek && (step > 0 ? isLastDayOfWeek(day) : isFirstDayOfWeek(day))) {
+                return false;
             }
-        } else {
-            if (!isFirstDayOfWeek(mHighlightedDay) && mHighlightedDay > 1) {
-                mHighlightedDay--;
-                focusChanged = true;
+            day += step;
+            if (!isValidDayOfMonth(day)) {
+                return false;
+            }
+            if (isDayEnabled(day)) {
+                mHighlightedDay = day;
+                return true;
             }
         }
-        return focusChanged;
     }
     @Override
     protected void onFocusChanged(boolean gainFocus, int direction, Rect previouslyFocusedRect) {
@@ -453,7 +636,7 @@ public class SimpleMonthView extends View {
             int centerX = previouslyFocusedRect.centerX();
             final int columnFromLeft =
                     Utils.constrain(centerX / mCellWidth, 0, DAYS_IN_WEEK - 1);
-            return Utils.isLayoutRtl(this) ? DAYS_IN_WEEK - columnFromLeft - 1: columnFromLeft;
+            return mGrid.isLayoutRtl() ? DAYS_IN_WEEK - columnFromLeft - 1: columnFromLeft;
         }
     }
     @Override
@@ -480,7 +663,9 @@ public class SimpleMonthView extends View {
             mHighlightedDay = mActivatedDay;
             return;
         }
-        mHighlightedDay = 1;
+        // Prefer the first day that can be picked.
+        final int firstEnabledDay = Integer.numberOfTrailingZeros(mEnabledDays) + 1;
+        mHighlightedDay = firstEnabledDay <= mDaysInMonth ? firstEnabledDay : 1;
     }
     private boolean isFirstDayOfWeek(int day) {
         final int offset = findDayOffset();
@@ -495,11 +680,167 @@ public class SimpleMonthView extends View {
         final int paddingLeft = getPaddingLeft();
         final int paddingTop = getPaddingTop();
         canvas.translate(paddingLeft, paddingTop);
-        drawMonth(canvas);
-        drawDaysOfWeek(canvas);
-        drawDays(canvas);
+        mDrawCount++;
+        if (mMetrics != null) {
+            mMetrics.onDraw();
+        }
+        // The range is drawn under the grid, so moving it never re-records.
+        drawRange(canvas);
+        if (canDrawPicture(canvas)) {
+            drawFromGridPicture(canvas);
+        } else {
+            // Hardware rendering redraws the whole display list regardless of
+            // the dirty region, but software rendering clips to it, so we can
+            // skip anything outside of it.
+            final boolean clipToDirty = !canvas.isHardwareAccelerated();
+            final int headerHeight = mMonthHeight + mDayOfWeekHeight;
+            if (!clipToDirty || !canvas.quickReject(
+                    0, 0, mPaddedWidth, headerHeight, Canvas.EdgeType.AA)) {
+                drawMonth(canvas);
+                drawDaysOfWeek(canvas);
+            }
+            drawDays(canvas, clipToDirty, false);
+        }
         canvas.translate(-paddingLeft, -paddingTop);
     }
+    /**
+     * Hardware canvases only support drawing pictures from M onwards.
+     */
+    private static boolean canDrawPicture(Canvas canvas) {
+        return !canvas.isHardwareAccelerated()
+                || Build.VERSION.SDK_INT >= Build.VERSION_CODES.M;
+    }
+    /**
+     * Replays the static grid, re-recording it first if its inputs changed,
+     * then draws the today, activated, highlighted, range end and selected
+     * days on top. Those cells are clipped out of the replay so they are only
+     * drawn once, and changing them never re-records the grid.
+     */
+    private void drawFromGridPicture(Canvas canvas) {
+        if (mGridPicture == null || mGridDirty) {
+            if (mGridPicture == null) {
+                mGridPicture = new Picture();
+            }
+            final Canvas recording = mGridPicture.beginRecording(mPaddedWidth, mPaddedHeight);
+            drawMonth(recording);
+            drawDaysOfWeek(recording);
+            drawDays(recording, false, true);
+            mGridPicture.endRecording();
+            mGridDirty = false;
+            mGridRecordCount++;
+            if (mMetrics != null) {
+                mMetrics.onGridRecord();
+            }
+        }
+        // One bit per day drawn over the grid, so each is drawn only once.
+        final int dynamicDays = mSelectedDays | getDayBit(mToday) | getDayBit(mActivatedDay)
+                | getDayBit(mHighlightedDay) | getDayBit(mRangeStart) | getDayBit(mRangeEnd);
+        canvas.save();
+        for (int days = dynamicDays; days != 0; days &= days - 1) {
+            clipOutDay(canvas, Integer.numberOfTrailingZeros(days) + 1);
+        }
+        canvas.drawPicture(mGridPicture);
+        canvas.restore();
+        final float halfLineHeight = (mDayPaint.ascent() + mDayPaint.descent()) / 2f;
+        for (int days = dynamicDays; days != 0; days &= days - 1) {
+            drawDynamicDay(canvas, Integer.numberOfTrailingZeros(days) + 1, halfLineHeight);
+        }
+    }
+    /**
+     * @return bit {@code day - 1}, or 0 if the day isn't in this month
+     */
+    private int getDayBit(int day) {
+        return isValidDayOfMonth(day) ? 1 << (day - 1) : 0;
+    }
+    /**
+     * Draws the selected range as one bar per week row, from the center of
+     * its first day to the center of its last day. Where the range continues
+     * on another row or month, the bar runs to the edge of the cell instead.
+     * The ends of the range get their selector circles from drawDay.
+     */
+    private void drawRange(Canvas canvas) {
+        if (mRangeStart == NO_RANGE) {
+            return;
+        }
+        final MonthGrid grid = mGrid;
+        final boolean isLayoutRtl = grid.isLayoutRtl();
+        final int halfCellWidth = mCellWidth / 2;
+        final int radius = mDaySelectorRadius;
+        final int last = Math.min(mRangeEnd, mDaysInMonth);
+        int first = Math.max(mRangeStart, 1);
+        while (first <= last) {
+            final int column = (grid.getDayOffset() + first - 1) % DAYS_IN_WEEK;
+            final int rowLast = Math.min(last, first + DAYS_IN_WEEK - 1 - column);
+            int startX = grid.getCenterX(first);
+            int endX = grid.getCenterX(rowLast);
+            if (first > mRangeStart) {
+                startX += isLayoutRtl ? halfCellWidth : -halfCellWidth;
+            }
+            if (rowLast < mRangeEnd) {
+                endX += isLayoutRtl ? -halfCellWidth : halfCellWidth;
+            }
+            final int centerY = grid.getCenterY(first);
+            canvas.drawRect(Math.min(startX, endX), centerY - radius,
+                    Math.max(startX, endX), centerY + radius, mRangePaint);
+            first = rowLast + 1;
+        }
+    }
+    private void clipOutDay(Canvas canvas, int day) {
+        if (isValidDayOfMonth(day)) {
+            final int halfCellWidth = mCellWidth / 2;
+            final int halfCellHeight = mDayHeight / 2;
+            final int centerX = getDayCenterX(day);
+            final int centerY = getDayCenterY(day);
+            final int left = centerX - halfCellWidth;
+            final int top = centerY - halfCellHeight;
+            final int right = centerX + halfCellWidth;
+            final int bottom = centerY + halfCellHeight;
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+                canvas.clipOutRect(left, top, right, bottom);
+            } else {
+                clipOutRectCompat(canvas, left, top, right, bottom);
+            }
+        }
+    }
+    /**
+     * Clips out a rectangle before API 26, which has no clipOutRect and only
+     * the region operations deprecated since.
+     */
+    @SuppressWarnings("deprecation")
+    private static void clipOutRectCompat(Canvas canvas, int left, int top, int right,
+                                          int bottom) {
+        canvas.clipRect(left, top, right, bottom, Region.Op.DIFFERENCE);
+    }
+    private void drawDynamicDay(Canvas canvas, int day, float halfLineHeight) {
+        if (isValidDayOfMonth(day)) {
+            drawDay(canvas, day, getDayCenterX(day), getDayCenterY(day), halfLineHeight,
+                    mDecorations.get(day), false);
+        }
+    }
+    /**
+     * Marks the recorded static grid as stale and schedules a redraw. Must be
+     * called whenever anything other than the today, activated, highlighted,
+     * range end or selected days changes what the grid looks like.
+     */
+    private void invalidateGrid() {
+        mGridDirty = true;
+        invalidate();
+    }
+    /**
+     * @return the number of times the static grid was recorded
+     */
+    @VisibleForTesting
+    int getGridRecordCount() {
+        return mGridRecordCount;
+    }
+    @VisibleForTesting
+    int getDaySelectorColor() {
+        return mDaySelectorPaint.getColor();
+    }
+    @VisibleForTesting
+    ColorStateList getDayTextColor() {
+        return mDayTextColor;
+    }
     private void drawMonth(Canvas canvas) {
         final float x = mPaddedWidth / 2f;
         // Vertically centered within the month header height.
@@ -514,81 +855,146 @@ public class SimpleMonthView extends View {
         final TextPaint p = mDayOfWeekPaint;
         final int headerHeight = mMonthHeight;
         final int rowHeight = mDayOfWeekHeight;
-        final int colWidth = mCellWidth;
         // Text is vertically centered within the day of week height.
         final float halfLineHeight = (p.ascent() + p.descent()) / 2f;
         final int rowCenter = headerHeight + rowHeight / 2;
         for (int col = 0; col < DAYS_IN_WEEK; col++) {
-            final int colCenter = colWidth * col + colWidth / 2;
-            final int colCenterRtl;
-            if (Utils.isLayoutRtl(this)) {
-                colCenterRtl = mPaddedWidth - colCenter;
-            } else {
-                colCenterRtl = colCenter;
-            }
+            final int colCenterRtl = mGrid.getColumnCenterX(col);
             final String label = mDayOfWeekLabels[col];
             canvas.drawText(label, colCenterRtl, rowCenter - halfLineHeight, p);
         }
     }
     /**
      * Draws the month days.
+     *
+     * @param clipToDirty whether to skip days outside of the canvas clip
+     * @param staticOnly whether to draw every day in its plain enabled or
+     *                   disabled state, ignoring selection, highlight and today
      */
-    private void drawDays(Canvas canvas) {
+    private void drawDays(Canvas canvas, boolean clipToDirty, boolean staticOnly) {
         final TextPaint p = mDayPaint;
-        final int headerHeight = mMonthHeight + mDayOfWeekHeight;
-        final int rowHeight = mDayHeight;
-        final int colWidth = mCellWidth;
+        final MonthGrid grid = mGrid;
         // Text is vertically centered within the row height.
         final float halfLineHeight = (p.ascent() + p.descent()) / 2f;
-        int rowCenter = headerHeight + rowHeight / 2;
-        for (int day = 1, col = findDayOffset(); day <= mDaysInMonth; day++) {
-            final int colCenter = colWidth * col + colWidth / 2;
-            final int colCenterRtl;
-            if (Utils.isLayoutRtl(this)) {
-                colCenterRtl = mPaddedWidth - colCenter;
-            } else {
-                colCenterRtl = colCenter;
+        // Extent of a cell, including the overhang of its selector circle.
+        final int halfCellWidth = Math.max(mCellWidth / 2, mDaySelectorRadius);
+        final int halfCellHeight = Math.max(mDayHeight / 2, mDaySelectorRadius);
+        // Decorations are sorted by day, so walk them alongside the days.
+        final SparseArray<DayDecoration> decorations = mDecorations;
+        final int decorationCount = decorations.size();
+        int decorationIndex = 0;
+        for (int day = 1; day <= mDaysInMonth; day++) {
+            DayDecoration decoration = null;
+            if (decorationIndex < decorationCount && decorations.keyAt(decorationIndex) == day) {
+                decoration = decorations.valueAt(decorationIndex++);
             }
-            int stateMask = 0;
-            final boolean isDayEnabled = isDayEnabled(day);
-            if (isDayEnabled) {
-                stateMask |= Utils.VIEW_STATE_ENABLED;
+            final int colCenterRtl = grid.getCenterX(day);
+            final int rowCenter = grid.getCenterY(day);
+            if (!clipToDirty || !canvas.quickReject(colCenterRtl - halfCellWidth,
+                    rowCenter - halfCellHeight, colCenterRtl + halfCellWidth,
+                    rowCenter + halfCellHeight, Canvas.EdgeType.AA)) {
+                drawDay(canvas, day, colCenterRtl, rowCenter, halfLineHeight, decoration,
+                        staticOnly);
             }
-            final boolean isDayActivated = mActivatedDay == day;
-            final boolean isDayHighlighted = mHighlightedDay == day;
-            if (isDayActivated) {
-                stateMask |= Utils.VIEW_STATE_ACTIVATED;
+        }
+    }
+    /**
+     * Draws a single day centered on the specified position.
+     *
+     * @param decoration the decoration of the day, or {@code null}
+     * @param staticOnly whether to ignore selection, highlight and today
+     */
+    private void drawDay(Canvas canvas, int day, int colCenterRtl, int rowCenter,
+                         float halfLineHeight, DayDecoration decoration, boolean staticOnly) {
+        mDrawnCellCount++;
+        int stateMask = 0;
+        final boolean isDayEnabled = isDayEnabled(day);
+        if (isDayEnabled) {
+            stateMask |= Utils.VIEW_STATE_ENABLED;
+        }
+        final boolean isDayActivated = !staticOnly
+                && (isDayActivated(day) || isDaySelected(day));
+        final boolean isDayHighlighted = !staticOnly && mHighlightedDay == day;
+        if (!isDayActivated && decoration != null
+                && decoration.getBackgroundColor() != DayDecoration.NO_COLOR) {
+            mDecorationPaint.setColor(decoration.getBackgroundColor());
+            canvas.drawCircle(colCenterRtl, rowCenter, mDaySelectorRadius, mDecorationPaint);
+        }
+        if (isDayActivated) {
+            stateMask |= Utils.VIEW_STATE_ACTIVATED;
+            // Adjust the circle to be centered on the row.
+            final Paint paint = isDayHighlighted ? mDayHighlightSelectorPaint :
+                    mDaySelectorPaint;
+            canvas.drawCircle(colCenterRtl, rowCenter, mDaySelectorRadius, paint);
+        } else if (isDayHighlighted) {
+            stateMask |= Utils.VIEW_STATE_PRESSED;
+            if (isDayEnabled) {
                 // Adjust the circle to be centered on the row.
-                final Paint paint = isDayHighlighted ? mDayHighlightSelectorPaint :
-                        mDaySelectorPaint;
-                canvas.drawCircle(colCenterRtl, rowCenter, mDaySelectorRadius, paint);
-            } else if (isDayHighlighted) {
-                stateMask |= Utils.VIEW_STATE_PRESSED;
-                if (isDayEnabled) {
-                    // Adjust the circle to be centered on the row.
-                    canvas.drawCircle(colCenterRtl, rowCenter,
-                            mDaySelectorRadius, mDayHighlightPaint);
-                }
-            }
-            final boolean isDayToday = mToday == day;
-            final int dayTextColor;
-            if (isDayToday && !isDayActivated) {
-                dayTextColor = mDaySelectorPaint.getColor();
-            } else {
-                final int[] stateSet = Utils.getState(stateMask);
-                dayTextColor = mDayTextColor.getColorForState(stateSet, 0);
-            }
-            p.setColor(dayTextColor);
-            canvas.drawText(mDayFormatter.format(day), colCenterRtl, rowCenter - halfLineHeight, p);
-            col++;
-            if (col == DAYS_IN_WEEK) {
-                col = 0;
-                rowCenter += rowHeight;
+                canvas.drawCircle(colCenterRtl, rowCenter,
+                        mDaySelectorRadius, mDayHighlightPaint);
             }
         }
+        final boolean isDayToday = !staticOnly && mToday == day;
+        final int dayTextColor;
+        if (isDayToday && !isDayActivated) {
+            dayTextColor = mDaySelectorPaint.getColor();
+        } else {
+            final int[] stateSet = Utils.getState(stateMask);
+            dayTextColor = mDayTextColor.getColorForState(stateSet, 0);
+        }
+        final TextPaint p = mDayPaint;
+        p.setColor(dayTextColor);
+        final char[] dayNumber = mFormats.getDayNumber(day);
+        canvas.drawText(dayNumber, 0, dayNumber.length, colCenterRtl,
+                rowCenter - halfLineHeight, p);
+        if (decoration != null) {
+            drawDecoration(canvas, decoration, colCenterRtl,
+                    rowCenter + (int) (mDayHeight * DECORATION_OFFSET));
+        }
+    }
+    /**
+     * Draws the badge or dot of a decoration centered on the specified
+     * position.
+     */
+    private void drawDecoration(Canvas canvas, DayDecoration decoration, int centerX,
+                                int centerY) {
+        final String badge = decoration.getBadge();
+        if (badge != null) {
+            final TextPaint p = mBadgePaint;
+            p.setColor(decoration.getBadgeColor());
+            final float halfLineHeight = (p.ascent() + p.descent()) / 2f;
+            canvas.drawText(badge, centerX, centerY - halfLineHeight, p);
+        } else if (decoration.getDotColor() != DayDecoration.NO_COLOR) {
+            mDecorationPaint.setColor(decoration.getDotColor());
+            canvas.drawCircle(centerX, centerY, mDotRadius, mDecorationPaint);
+        }
+    }
+    /**
+     * Returns the horizontal center of a day, relative to the padded area.
+     */
+    private int getDayCenterX(int day) {
+        return mGrid.getCenterX(day);
+    }
+    /**
+     * Returns the vertical center of a day, relative to the padded area.
+     */
+    private int getDayCenterY(int day) {
+        return mGrid.getCenterY(day);
+    }
+    /**
+     * @return whether the day is selected, or is either end of the range
+     */
+    private boolean isDayActivated(int day) {
+        return day == mActivatedDay || day == mRangeStart || day == mRangeEnd;
+    }
+    /**
+     * @return whether the day is selected in multiple selection mode
+     */
+    private boolean isDaySelected(int day) {
+        return day >= 1 && day <= MAX_DAYS_IN_MONTH && (mSelectedDays & (1 << (day - 1))) != 0;
     }
     private boolean isDayEnabled(int day) {
-        return day >= mEnabledDayStart && day <= mEnabledDayEnd;
+        return day >= 1 && day <= MAX_DAYS_IN_MONTH && (mEnabledDays & (1 << (day - 1))) != 0;
     }
     private boolean isValidDayOfMonth(int day) {
         return day >= 1 && day <= mDaysInMonth;
@@ -606,10 +1012,73 @@ public class SimpleMonthView extends View {
      *                   the selection
      */
     public void setSelectedDay(int dayOfMonth) {
+        final int previouslyActivatedDay = mActivatedDay;
+        if (previouslyActivatedDay == dayOfMonth) {
+            return;
+        }
         mActivatedDay = dayOfMonth;
         // Invalidate cached accessibility information.
         mTouchHelper.invalidateRoot();
-        invalidate();
+        invalidateDays(previouslyActivatedDay, dayOfMonth);
+    }
+    /**
+     * Invalidates only the cells of the specified days, including the
+     * overhang of their selector circles. Invalid days are ignored.
+     */
+    // invalidate(Rect) is deprecated because hardware rendering ignores the
+    // dirty rect and redraws the whole display list, but software rendering
+    // still clips to it, see onDraw.
+    @SuppressWarnings("deprecation")
+    private void invalidateDays(int firstDay, int secondDay) {
+        final Rect dirty = mDirtyRect;
+        dirty.setEmpty();
+        if (getDirtyBoundsForDay(firstDay, mTempRect)) {
+            dirty.union(mTempRect);
+        }
+        if (getDirtyBoundsForDay(secondDay, mTempRect)) {
+            dirty.union(mTempRect);
+        }
+        if (!dirty.isEmpty()) {
+            mInvalidatedArea += (long) dirty.width() * dirty.height();
+            invalidate(dirty);
+        }
+    }
+    private boolean getDirtyBoundsForDay(int day, Rect outBounds) {
+        if (!getBoundsForDay(day, outBounds)) {
+            return false;
+        }
+        final int centerX = outBounds.centerX();
+        final int centerY = outBounds.centerY();
+        final int radius = mDaySelectorRadius;
+        outBounds.union(centerX - radius, centerY - radius, centerX + radius, centerY + radius);
+        return true;
+    }
+    /**
+     * @return the number of times this view was drawn
+     */
+    @VisibleForTesting
+    int getDrawCount() {
+        return mDrawCount;
+    }
+    /**
+     * @return the number of day cells drawn, skipped cells excluded
+     */
+    @VisibleForTesting
+    int getDrawnCellCount() {
+        return mDrawnCellCount;
+    }
+    /**
+     * @return the total area, in pixels, of partial invalidations
+     */
+    @VisibleForTesting
+    long getInvalidatedArea() {
+        return mInvalidatedArea;
+    }
+    @VisibleForTesting
+    void resetDrawMetrics() {
+        mDrawCount = 0;
+        mDrawnCellCount = 0;
+        mInvalidatedArea = 0;
     }
     /**
      * Sets the first day of the week.
@@ -625,8 +1094,9 @@ public class SimpleMonthView extends View {
         }
         updateDayOfWeekLabels();
         // Invalidate cached accessibility information.
+        updateGrid();
         mTouchHelper.invalidateRoot();
-        invalidate();
+        invalidateGrid();
     }
     /**
      * Sets all the parameters for displaying this week.
@@ -643,65 +1113,173 @@ public class SimpleMonthView extends View {
      *                  {@link Calendar#SUNDAY} through {@link Calendar#SATURDAY}
      * @param enabledDayStart the first enabled day
      * @param enabledDayEnd the last enabled day
+     * @param enabledDays the days that are enabled within that range, bit
+     *                    {@code day - 1} for each day, or
+     *                    {@link #ALL_DAYS_ENABLED}
      */
     void setMonthParams(int selectedDay, int month, int year, int weekStart, int enabledDayStart,
-                        int enabledDayEnd) {
+                        int enabledDayEnd, int enabledDays) {
         mActivatedDay = selectedDay;
         if (isValidMonth(month)) {
             mMonth = month;
         }
         mYear = year;
-        mCalendar.set(Calendar.MONTH, mMonth);
-        mCalendar.set(Calendar.YEAR, mYear);
-        mCalendar.set(Calendar.DAY_OF_MONTH, 1);
-        mDayOfWeekStart = mCalendar.get(Calendar.DAY_OF_WEEK);
+        mDayOfWeekStart = CalendarMath.getDayOfWeek(mYear, mMonth, 1);
         if (isValidDayOfWeek(weekStart)) {
             mWeekStart = weekStart;
         } else {
             mWeekStart = mCalendar.getFirstDayOfWeek();
         }
+        mDaysInMonth = CalendarMath.getDaysInMonth(mMonth, mYear);
         // Figure out what day today is.
-        final Calendar today = Calendar.getInstance();
-        mToday = -1;
-        mDaysInMonth = getDaysInMonth(mMonth, mYear);
-        for (int i = 0; i < mDaysInMonth; i++) {
-            final int day = i + 1;
-            if (sameDay(day, today)) {
-                mToday = day;
-            }
+        final int today = CalendarMath.fromEpochDay(CalendarMath.toEpochDay(
+                System.currentTimeMillis(), mCalendar.getTimeZone()));
+        if (CalendarMath.getYear(today) == mYear && CalendarMath.getMonth(today) == mMonth) {
+            mToday = CalendarMath.getDayOfMonth(today);
+        } else {
+            mToday = -1;
         }
         mEnabledDayStart = Utils.constrain(enabledDayStart, 1, mDaysInMonth);
         mEnabledDayEnd = Utils.constrain(enabledDayEnd, mEnabledDayStart, mDaysInMonth);
+        mEnabledDays = applyEnabledDayRange(enabledDays);
+        buildDayDecorations();
         updateMonthYearLabel();
         updateDayOfWeekLabels();
+        updateGrid();
         // Invalidate cached accessibility information.
         mTouchHelper.invalidateRoot();
-        invalidate();
+        invalidateGrid();
+    }
+    /**
+     * Replaces the enabled days of the current month, e.g. once a mask
+     * passed as {@link #ENABLED_DAYS_PENDING} has been loaded.
+     *
+     * @param enabledDays the days that are enabled within the enabled range,
+     *                    bit {@code day - 1} for each day
+     */
+    void setEnabledDays(int enabledDays) {
+        final int mask = applyEnabledDayRange(enabledDays);
+        if (mEnabledDays != mask) {
+            mEnabledDays = mask;
+            mTouchHelper.invalidateRoot();
+            invalidateGrid();
+        }
+    }
+    /**
+     * Sets the selected range, relative to the current month.
+     *
+     * @param start the first day of the range, 0 if it starts in an earlier
+     *              month, or {@link #NO_RANGE}
+     * @param end the last day of the range, {@code daysInMonth + 1} if it
+     *            ends in a later month, or {@link #NO_RANGE}
+     */
+    void setSelectedRange(int start, int end) {
+        if (mRangeStart != start || mRangeEnd != end) {
+            mRangeStart = start;
+            mRangeEnd = end;
+            // The range isn't part of the recorded grid.
+            mTouchHelper.invalidateRoot();
+            invalidate();
+        }
+    }
+    /**
+     * Sets the days selected in multiple selection mode. Selected days are
+     * drawn over the recorded grid, so if a single day was toggled only its
+     * cell is redrawn.
+     *
+     * @param selectedDays bit {@code day - 1} for each selected day
+     */
+    void setSelectedDays(int selectedDays) {
+        final int changed = mSelectedDays ^ selectedDays;
+        if (changed == 0) {
+            return;
+        }
+        mSelectedDays = selectedDays;
+        mTouchHelper.invalidateRoot();
+        if (Integer.bitCount(changed) == 1) {
+            invalidateDays(Integer.numberOfTrailingZeros(changed) + 1, -1);
+        } else {
+            invalidate();
+        }
+    }
+    /**
+     * Sets the listener for drags of the ends of the selected range. Range
+     * drags are only recognized while a listener is set.
+     */
+    void setOnRangeDragListener(OnRangeDragListener listener) {
+        mOnRangeDragListener = listener;
+    }
+    /**
+     * Returns the enabled day at the specified position, relative to the
+     * view, as an epoch day.
+     *
+     * @return the epoch day, or {@link #NO_EPOCH_DAY}
+     */
+    int getEpochDayAtLocation(int x, int y) {
+        final int day = getDayAtLocation(x, y);
+        if (day < 1 || !isDayEnabled(day)) {
+            return NO_EPOCH_DAY;
+        }
+        return CalendarMath.toEpochDay(mYear, mMonth, day);
+    }
+    /**
+     * Sets the decorator queried by the next {@link #setMonthParams} or
+     * {@link #updateDayDecorations}.
+     */
+    void setDayDecorator(DayDecorator decorator) {
+        mDayDecorator = decorator;
+    }
+    /**
+     * Re-queries the decorator for every day of the current month and
+     * redraws the month once.
+     */
+    void updateDayDecorations() {
+        buildDayDecorations();
+        mTouchHelper.invalidateRoot();
+        invalidateGrid();
+    }
+    private void buildDayDecorations() {
+        final SparseArray<DayDecoration> decorations = mDecorations;
+        decorations.clear();
+        final DayDecorator decorator = mDayDecorator;
+        if (decorator == null) {
+            return;
+        }
+        for (int day = 1; day <= mDaysInMonth; day++) {
+            final DayDecoration decoration = decorator.getDecoration(mYear, mMonth, day);
+            if (decoration != null) {
+                // Days are visited in order, so this never shifts the arrays.
+                decorations.append(day, decoration);
+            }
+        }
+    }
+    /**
+     * Restricts an enabled days mask to the enabled range.
+     */
+    private int applyEnabledDayRange(int enabledDays) {
+        if (enabledDays == ENABLED_DAYS_PENDING) {
+            return 0;
+        }
+        final int rangeMask = (ALL_DAYS_ENABLED >>> (MAX_DAYS_IN_MONTH - mEnabledDayEnd))
+                & ~((1 << (mEnabledDayStart - 1)) - 1);
+        return enabledDays & rangeMask;
+    }
+    /**
+     * Returns the preferred width of a month, excluding padding, without
+     * needing an instance.
+     */
+    static int getDesiredWidth(Resources res) {
+        return res.getDimensionPixelSize(R.dimen.date_picker_day_width) * DAYS_IN_WEEK;
     }
-    private static int getDaysInMonth(int month, int year) {
-        switch (month) {
-            case Calendar.JANUARY:
-            case Calendar.MARCH:
-            case Calendar.MAY:
-            case Calendar.JULY:
-            case Calendar.AUGUST:
-            case Calendar.OCTOBER:
-            case Calendar.DECEMBER:
-                return 31;
-            case Calendar.APRIL:
-            case Calendar.JUNE:
-            case Calendar.SEPTEMBER:
-            case Calendar.NOVEMBER:
-                return 30;
-            case Calendar.FEBRUARY:
-                return (year % 4 == 0) ? 29 : 28;
-            default:
-                throw new IllegalArgumentException("Invalid Month");
-        }
-    }
-    private boolean sameDay(int day, Calendar today) {
-        return mYear == today.get(Calendar.YEAR) && mMonth == today.get(Calendar.MONTH)
-                && day == today.get(Calendar.DAY_OF_MONTH);
+    /**
+     * Returns the preferred height of a month, excluding padding, without
+     * needing an instance. Always accounts for {@link #MAX_WEEKS_IN_MONTH}
+     * rows so that every month has the same height.
+     */
+    static int getDesiredHeight(Resources res) {
+        return res.getDimensionPixelSize(R.dimen.date_picker_day_height) * MAX_WEEKS_IN_MONTH
+                + res.getDimensionPixelSize(R.dimen.date_picker_day_of_week_height)
+                + res.getDimensionPixelSize(R.dimen.date_picker_month_height);
     }
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
@@ -715,8 +1293,37 @@ public class SimpleMonthView extends View {
         setMeasuredDimension(resolvedWidth, resolvedHeight);
     }
     @Override
+    protected void onConfigurationChanged(Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        // Text appearances may resolve differently now, so re-apply them.
+        reapplyTextAppearances();
+    }
+    /**
+     * Applies the text appearances again, even though they did not change.
+     */
+    private void reapplyTextAppearances() {
+        final int monthTextAppearance = mMonthTextAppearance;
+        final int dayOfWeekTextAppearance = mDayOfWeekTextAppearance;
+        final int dayTextAppearance = mDayTextAppearance;
+        mMonthTextAppearance = 0;
+        mDayOfWeekTextAppearance = 0;
+        mDayTextAppearance = 0;
+        if (monthTextAppearance != 0) {
+            setMonthTextAppearance(monthTextAppearance);
+        }
+        if (dayOfWeekTextAppearance != 0) {
+            setDayOfWeekTextAppearance(dayOfWeekTextAppearance);
+        }
+        if (dayTextAppearance != 0) {
+            setDayTextAppearance(dayTextAppearance);
+        }
+    }
+    @Override
     public void onRtlPropertiesChanged(int layoutDirection) {
         super.onRtlPropertiesChanged(layoutDirection);
+        // Columns are mirrored in the cell table and the recorded grid.
+        updateGrid();
+        mGridDirty = true;
         requestLayout();
     }
     @Override
@@ -740,6 +1347,7 @@ public class SimpleMonthView extends View {
         }
         mPaddedWidth = paddedWidth;
         mPaddedHeight = paddedHeight;
+        mGridDirty = true;
         // We may have been laid out smaller than our preferred size. If so,
         // scale all dimensions to fit.
         final int measuredPaddedHeight = getMeasuredHeight() - paddingTop - paddingBottom;
@@ -756,15 +1364,21 @@ public class SimpleMonthView extends View {
         final int maxSelectorHeight = mDayHeight / 2 + paddingBottom;
         mDaySelectorRadius = Math.min(mDesiredDaySelectorRadius,
                 Math.min(maxSelectorWidth, maxSelectorHeight));
+        updateGrid();
         // Invalidate cached accessibility information.
         mTouchHelper.invalidateRoot();
     }
     private int findDayOffset() {
-        final int offset = mDayOfWeekStart - mWeekStart;
-        if (mDayOfWeekStart < mWeekStart) {
-            return offset + DAYS_IN_WEEK;
-        }
-        return offset;
+        return MonthGrid.findDayOffset(mDayOfWeekStart, mWeekStart);
+    }
+    /**
+     * Recomputes the cell table used for hit-testing, drawing and
+     * accessibility bounds. Must be called whenever the month, week start,
+     * layout direction or layout changes.
+     */
+    private void updateGrid() {
+        mGrid.update(mPaddedWidth, mPaddedHeight, mMonthHeight + mDayOfWeekHeight, mCellWidth,
+                mDayHeight, Utils.isLayoutRtl(this), findDayOffset(), mDaysInMonth);
     }
     /**
      * Calculates the day of the month at the specified touch position. Returns
@@ -776,30 +1390,7 @@ public class SimpleMonthView extends View {
      *         a valid day
      */
     private int getDayAtLocation(int x, int y) {
-        final int paddedX = x - getPaddingLeft();
-        if (paddedX < 0 || paddedX >= mPaddedWidth) {
-            return -1;
-        }
-        final int headerHeight = mMonthHeight + mDayOfWeekHeight;
-        final int paddedY = y - getPaddingTop();
-        if (paddedY < headerHeight || paddedY >= mPaddedHeight) {
-            return -1;
-        }
-        // Adjust for RTL after applying padding.
-        final int paddedXRtl;
-        if (Utils.isLayoutRtl(this)) {
-            paddedXRtl = mPaddedWidth - paddedX;
-        } else {
-            paddedXRtl = paddedX;
-        }
-        final int row = (paddedY - headerHeight) / mDayHeight;
-        final int col = (paddedXRtl * DAYS_IN_WEEK) / mPaddedWidth;
-        final int index = col + row * DAYS_IN_WEEK;
-        final int day = index + 1 - findDayOffset();
-        if (!isValidDayOfMonth(day)) {
-            return -1;
-        }
-        return day;
+        return mGrid.getDayAt(x - getPaddingLeft(), y - getPaddingTop());
     }
     /**
      * Calculates the bounds of the specified day.
@@ -811,22 +1402,10 @@ public class SimpleMonthView extends View {
         if (!isValidDayOfMonth(id)) {
             return false;
         }
-        final int index = id - 1 + findDayOffset();
-        // Compute left edge, taking into account RTL.
-        final int col = index % DAYS_IN_WEEK;
-        final int colWidth = mCellWidth;
-        final int left;
-        if (Utils.isLayoutRtl(this)) {
-            left = getWidth() - getPaddingRight() - (col + 1) * colWidth;
-        } else {
-            left = getPaddingLeft() + col * colWidth;
-        }
-        // Compute top edge.
-        final int row = index / DAYS_IN_WEEK;
-        final int rowHeight = mDayHeight;
-        final int headerHeight = mMonthHeight + mDayOfWeekHeight;
-        final int top = getPaddingTop() + headerHeight + row * rowHeight;
-        outBounds.set(left, top, left + colWidth, top + rowHeight);
+        final MonthGrid grid = mGrid;
+        final int left = getPaddingLeft() + grid.getLeft(id);
+        final int top = getPaddingTop() + grid.getTop(id);
+        outBounds.set(left, top, left + grid.getCellWidth(), top + grid.getDayHeight());
         return true;
     }
     /**
@@ -840,7 +1419,7 @@ public class SimpleMonthView extends View {
             return false;
         }
         if (mOnDayClickListener != null) {
-            final Calendar date = Calendar.getInstance();
+            final Calendar date = CalendarMath.newCalendar();
             date.set(mYear, mMonth, day);
             mOnDayClickListener.onDayClick(this, date);
         }
@@ -869,7 +1448,7 @@ public class SimpleMonthView extends View {
     private class MonthViewTouchHelper extends ExploreByTouchHelper {
         private static final String DATE_FORMAT = "dd MMMM yyyy";
         private final Rect mTempRect = new Rect();
-        private final Calendar mTempCalendar = Calendar.getInstance();
+        private final Calendar mTempCalendar = CalendarMath.newCalendar();
         public MonthViewTouchHelper(View host) {
             super(host);
         }
@@ -910,10 +1489,14 @@ public class SimpleMonthView extends View {
                 node.addAction(AccessibilityNodeInfoCompat.AccessibilityActionCompat.ACTION_CLICK);
             }
             node.setEnabled(isDayEnabled);
-            if (virtualViewId == mActivatedDay) {
+            if (isDayActivated(virtualViewId) || isDaySelected(virtualViewId)) {
                 // TODO: This should use activated once that's supported.
                 node.setChecked(true);
             }
+            if (mRangeStart != NO_RANGE && virtualViewId >= mRangeStart
+                    && virtualViewId <= mRangeEnd) {
+                node.setSelected(true);
+            }
         }
         @Override
         protected boolean onPerformActionForVirtualView(int virtualViewId, int action,
@@ -933,7 +1516,12 @@ public class SimpleMonthView extends View {
         private CharSequence getDayDescription(int id) {
             if (isValidDayOfMonth(id)) {
                 mTempCalendar.set(mYear, mMonth, id);
-                return DateFormat.format(DATE_FORMAT, mTempCalendar.getTimeInMillis());
+                final CharSequence date = DateFormat.format(DATE_FORMAT, mTempCalendar);
+                final DayDecoration decoration = mDecorations.get(id);
+                if (decoration != null && decoration.getBadge() != null) {
+                    return date + ", " + decoration.getBadge();
+                }
+                return date;
             }
             return "";
         }
@@ -945,7 +1533,7 @@ public class SimpleMonthView extends View {
          */
         private CharSequence getDayText(int id) {
             if (isValidDayOfMonth(id)) {
-                return mDayFormatter.format(id);
+                return mFormats.getDayNumberLabel(id);
             }
             return null;
         }
@@ -956,4 +1544,13 @@ public class SimpleMonthView extends View {
     public interface OnDayClickListener {
         void onDayClick(SimpleMonthView view, Calendar day);
     }
+    /**
+     * Receives drags of the ends of the selected range. Positions are raw
+     * screen coordinates, since a drag may move on to another month.
+     */
+    interface OnRangeDragListener {
+        void onRangeDragStarted(SimpleMonthView view, int epochDay);
+        void onRangeDragMoved(SimpleMonthView view, float rawX, float rawY);
+        void onRangeDragFinished(SimpleMonthView view);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,107 @@
+package space.schrws.cherrypicker;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.util.SparseArray;
+
+import java.util.WeakHashMap;
+
+/**
+ * Caches text appearance resources resolved against a theme, so that month
+ * pages can be styled without parsing attributes again.
+ * <p>
+ * One cache exists per {@link Resources.Theme}. It is dropped automatically
+ * when the resource configuration changes; callers that mutate a theme in
+ * place must call {@link #invalidate()} themselves.
+ */
+class TextAppearanceCache {
+    private static final WeakHashMap<Resources.Theme, TextAppearanceCache> sCaches =
+            new WeakHashMap<>();
+    private final Configuration mConfiguration;
+    private final SparseArray<Entry> mEntries = new SparseArray<>();
+    private TextAppearanceCache(Configuration configuration) {
+        mConfiguration = new Configuration(configuration);
+    }
+    /**
+     * Returns the text appearance for the specified resource ID, resolved
+     * against the theme of the specified context.
+     */
+    static Entry get(Context context, int resId) {
+        final Resources.Theme theme = context.getTheme();
+        final Configuration configuration = context.getResources().getConfiguration();
+        final TextAppearanceCache cache;
+        synchronized (sCaches) {
+            TextAppearanceCache existing = sCaches.get(theme);
+            if (existing == null || !existing.mConfiguration.equals(configuration)) {
+                existing = new TextAppearanceCache(configuration);
+                sCaches.put(theme, existing);
+            }
+            cache = existing;
+        }
+        return cache.getEntry(context, resId);
+    }
+    /**
+     * Drops every cached text appearance, e.g. after a theme was modified.
+     */
+    static void invalidate() {
+        synchronized (sCaches) {
+            sCaches.clear();
+        }
+    }
+    private synchronized Entry getEntry(Context context, int resId) {
+        Entry entry = mEntries.get(resId);
+        if (entry == null) {
+            entry = resolve(context, resId);
+            mEntries.put(resId, entry);
+        }
+        return entry;
+    }
+    private static Entry resolve(Context context, int resId) {
+        final TypedArray ta = context.obtainStyledAttributes(null,
+                R.styleable.TextAppearance, 0, resId);
+        final String fontFamily = ta.getString(R.styleable.TextAppearance_fontFamily);
+        final Typeface typeface = fontFamily != null
+                ? Typeface.create(fontFamily, Typeface.NORMAL) : null;
+        final int textSize = ta.getDimensionPixelSize(R.styleable.TextAppearance_textSize, -1);
+        final ColorStateList textColor = ta.getColorStateList(R.styleable.TextAppearance_textColor);
+        ta.recycle();
+        return new Entry(typeface, textSize, textColor);
+    }
+    /**
+     * A resolved text appearance. Unset attributes are {@code null} or
+     * {@code -1} and leave the paint untouched.
+     */
+    static class Entry {
+        final Typeface typeface;
+        final int textSize;
+        final ColorStateList textColor;
+        Entry(Typeface typeface, int textSize, ColorStateList textColor) {
+            this.typeface = typeface;
+            this.textSize = textSize;
+            this.textColor = textColor;
+        }
+        /**
+         * Applies this text appearance to a paint, using the enabled text
+         * color if one is set.
+         *
+         * @return the text color, if available
+         */
+        ColorStateList apply(Paint p) {
+            if (typeface != null) {
+                p.setTypeface(typeface);
+            }
+            if (textSize >= 0) {
+                p.setTextSize(textSize);
+            }
+            if (textColor != null) {
+                p.setColor(textColor.getColorForState(Utils.getState(Utils.VIEW_STATE_ENABLED), 0));
+            }
+            return textColor;
+        }
+    }
+}
@@ -3,30 +3,22 @@ package space.schrws.cherrypicker;
 import android.support.v4.view.ViewCompat;
 import android.view.View;
 
-import java.text.DateFormat;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Calendar;
-import java.util.Date;
 
 /**
  * Created by Schrws on 2018-10-26.
  */
 public class Utils {
-    private static final String DATE_FORMAT = "MM/dd/yyyy";
-    private static final DateFormat DATE_FORMATTER = new SimpleDateFormat(DATE_FORMAT);
-
+    /**
+     * Parses a date in one of the formats of {@link DateParser}, e.g.
+     * {@code 01/31/2018}. Years written with fewer than four digits are
+     * taken literally, as before, so {@code 1/31/18} is January 31 of the
+     * year 18.
+     *
+     * @return {@code true} if the date was valid
+     */
     public static boolean parseDate(String date, Calendar outDate) {
-        if (date == null || date.isEmpty()) {
-            return false;
-        }
-        try {
-            final Date parsedDate = DATE_FORMATTER.parse(date);
-            outDate.setTime(parsedDate);
-            return true;
-        } catch (ParseException e) {
-            return false;
-        }
+        return DateParser.parseDate(date, outDate);
     }
 
     public static boolean isLayoutRtl(View view) {
@@ -2,51 +2,53 @@ package space.schrws.cherrypicker;
 
 import android.content.Context;
 import android.content.res.Resources;
+import android.support.annotation.NonNull;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
 import android.util.AttributeSet;
+import android.util.TypedValue;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.accessibility.AccessibilityEvent;
-import android.widget.AdapterView;
-import android.widget.BaseAdapter;
-import android.widget.ListView;
 import android.widget.TextView;
 
 import java.util.Calendar;
+import java.util.List;
 
 /**
  * Created by Schrws on 2018-10-28.
  */
-public class YearPickerView extends ListView {
+public class YearPickerView extends RecyclerView {
+    private static final int ITEM_LAYOUT = R.layout.year_label_text_view;
+    private static final int ITEM_TEXT_APPEARANCE =
+            R.style.TextAppearance_Material_DatePicker_List_YearLabel;
+    private static final int ITEM_TEXT_ACTIVATED_APPEARANCE =
+            R.style.TextAppearance_Material_DatePicker_List_YearLabel_Activated;
+    /** Number of cached year labels, a power of two above a screenful of rows. */
+    private static final int LABEL_CACHE_SIZE = 64;
+    /** Payload for rebinding only the activated state of a row. */
+    private static final Object PAYLOAD_ACTIVATED = new Object();
     private final YearAdapter mAdapter;
+    private final LinearLayoutManager mLayoutManager;
     private final int mViewSize;
     private final int mChildSize;
     private OnYearSelectedListener mOnYearSelectedListener;
     public YearPickerView(Context context, AttributeSet attrs) {
-        this(context, attrs, R.attr.listViewStyle);
+        this(context, attrs, 0);
     }
     public YearPickerView(Context context, AttributeSet attrs, int defStyleAttr) {
-        this(context, attrs, defStyleAttr, 0);
-    }
-    public YearPickerView(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
-        super(context, attrs, defStyleAttr, defStyleRes);
-        final LayoutParams frame = new LayoutParams(
-                LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT);
-        setLayoutParams(frame);
+        super(context, attrs, defStyleAttr);
         final Resources res = context.getResources();
         mViewSize = res.getDimensionPixelOffset(R.dimen.datepicker_view_animator_height);
         mChildSize = res.getDimensionPixelOffset(R.dimen.datepicker_year_label_height);
-        setOnItemClickListener(new OnItemClickListener() {
-            @Override
-            public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
-                final int year = mAdapter.getYearForPosition(position);
-                mAdapter.setSelection(year);
-                if (mOnYearSelectedListener != null) {
-                    mOnYearSelectedListener.onYearChanged(YearPickerView.this, year);
-                }
-            }
-        });
-        mAdapter = new YearAdapter(getContext());
+        mLayoutManager = new LinearLayoutManager(context);
+        setLayoutManager(mLayoutManager);
+        // Every row has the same height and changes never resize the list.
+        setHasFixedSize(true);
+        // Activation changes are rebound in place, don't cross-fade them.
+        setItemAnimator(null);
+        mAdapter = new YearAdapter(context);
         setAdapter(mAdapter);
     }
     public void setOnYearSelectedListener(OnYearSelectedListener listener) {
@@ -57,128 +59,192 @@ public class YearPickerView extends ListView {
      *
      * @param year the target year
      */
-    public void setYear(final int year) {
+    public void setYear(int year) {
         mAdapter.setSelection(year);
-        post(new Runnable() {
-            @Override
-            public void run() {
-                final int position = mAdapter.getPositionForYear(year);
-                if (position >= 0 && position < getCount()) {
-                    setSelectionCentered(position);
-                }
-            }
-        });
+        final int position = mAdapter.getPositionForYear(year);
+        if (position >= 0 && position < mAdapter.getItemCount()) {
+            setSelectionCentered(position);
+        }
     }
     public void setSelectionCentered(int position) {
         final int offset = mViewSize / 2 - mChildSize / 2;
         setSelectionFromTop(position, offset);
     }
+    /**
+     * Scrolls so that the specified position is the given distance from the
+     * top. Takes effect on the next layout, so it is safe to call before the
+     * view is attached.
+     */
+    public void setSelectionFromTop(int position, int y) {
+        mLayoutManager.scrollToPositionWithOffset(position, y);
+    }
     public void setRange(Calendar min, Calendar max) {
         mAdapter.setRange(min, max);
     }
-    private static class YearAdapter extends BaseAdapter {
-        private static final int ITEM_LAYOUT = R.layout.year_label_text_view;
-        private static final int ITEM_TEXT_APPEARANCE =
-                R.style.TextAppearance_Material_DatePicker_List_YearLabel;
-        private static final int ITEM_TEXT_ACTIVATED_APPEARANCE =
-                R.style.TextAppearance_Material_DatePicker_List_YearLabel_Activated;
+    /**
+     * @return counters for the year items bound by this list
+     */
+    public PickerMetrics getMetrics() {
+        return mAdapter.mMetrics;
+    }
+    /**
+     * @return the view showing the selected year, or {@code null} if it isn't
+     *         laid out
+     */
+    public View getSelectedView() {
+        return mLayoutManager.findViewByPosition(
+                mAdapter.getPositionForYear(mAdapter.mActivatedYear));
+    }
+    public int getFirstVisiblePosition() {
+        return mLayoutManager.findFirstVisibleItemPosition();
+    }
+    public int getFirstPositionOffset() {
+        final View firstChild = mLayoutManager.findViewByPosition(getFirstVisiblePosition());
+        if (firstChild == null) {
+            return 0;
+        }
+        return firstChild.getTop();
+    }
+    private void onYearClicked(int position) {
+        if (!isEnabled() || position == NO_POSITION) {
+            return;
+        }
+        final int year = mAdapter.getYearForPosition(position);
+        mAdapter.setSelection(year);
+        if (mOnYearSelectedListener != null) {
+            mOnYearSelectedListener.onYearChanged(this, year);
+        }
+    }
+    private class YearAdapter extends Adapter<YearViewHolder> {
+        private final Context mContext;
         private final LayoutInflater mInflater;
+        private final PickerMetrics mMetrics = new PickerMetrics();
         private int mActivatedYear;
         private int mMinYear;
         private int mCount;
-        public YearAdapter(Context context) {
+        /**
+         * Labels of recently bound years, direct-mapped by year so that memory
+         * doesn't grow with the range. Year 0 is never in range and marks an
+         * empty slot.
+         */
+        private final String[] mLabels = new String[LABEL_CACHE_SIZE];
+        private final int[] mLabelYears = new int[LABEL_CACHE_SIZE];
+        YearAdapter(Context context) {
+            mContext = context;
             mInflater = LayoutInflater.from(context);
+            setHasStableIds(true);
         }
-        public void setRange(Calendar minDate, Calendar maxDate) {
+        void setRange(Calendar minDate, Calendar maxDate) {
             final int minYear = minDate.get(Calendar.YEAR);
             final int count = maxDate.get(Calendar.YEAR) - minYear + 1;
             if (mMinYear != minYear || mCount != count) {
                 mMinYear = minYear;
                 mCount = count;
-                notifyDataSetInvalidated();
+                notifyDataSetChanged();
             }
         }
-        public boolean setSelection(int year) {
-            if (mActivatedYear != year) {
+        /**
+         * Activates a year, rebinding only the rows of the previously and
+         * newly activated years.
+         */
+        boolean setSelection(int year) {
+            final int previousYear = mActivatedYear;
+            if (previousYear != year) {
                 mActivatedYear = year;
-                notifyDataSetChanged();
+                notifyActivatedChanged(previousYear);
+                notifyActivatedChanged(year);
                 return true;
             }
             return false;
         }
-        @Override
-        public int getCount() {
-            return mCount;
+        private void notifyActivatedChanged(int year) {
+            final int position = getPositionForYear(year);
+            if (position >= 0 && position < mCount) {
+                notifyItemChanged(position, PAYLOAD_ACTIVATED);
+            }
+        }
+        int getPositionForYear(int year) {
+            return year - mMinYear;
+        }
+        int getYearForPosition(int position) {
+            return mMinYear + position;
         }
         @Override
-        public Integer getItem(int position) {
-            return getYearForPosition(position);
+        public int getItemCount() {
+            return mCount;
         }
         @Override
         public long getItemId(int position) {
             return getYearForPosition(position);
         }
-        public int getPositionForYear(int year) {
-            return year - mMinYear;
-        }
-        public int getYearForPosition(int position) {
-            return mMinYear + position;
+        @NonNull
+        @Override
+        public YearViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            return new YearViewHolder((TextView) mInflater.inflate(ITEM_LAYOUT, parent, false));
         }
         @Override
-        public boolean hasStableIds() {
-            return true;
+        public void onBindViewHolder(@NonNull YearViewHolder holder, int position) {
+            holder.text.setText(getLabel(getYearForPosition(position)));
+            bindActivated(holder, position);
         }
         @Override
-        public View getView(int position, View convertView, ViewGroup parent) {
-            final TextView v;
-            final boolean hasNewView = convertView == null;
-            if (hasNewView) {
-                v = (TextView) mInflater.inflate(ITEM_LAYOUT, parent, false);
+        public void onBindViewHolder(@NonNull YearViewHolder holder, int position,
+                                     @NonNull List<Object> payloads) {
+            if (payloads.isEmpty()) {
+                onBindViewHolder(holder, position);
             } else {
-                v = (TextView) convertView;
-            }
-            final int year = getYearForPosition(position);
-            final boolean activated = mActivatedYear == year;
-            if (hasNewView || v.isActivated() != activated) {
-                final int textAppearanceResId;
-                if (activated && ITEM_TEXT_ACTIVATED_APPEARANCE != 0) {
-                    textAppearanceResId = ITEM_TEXT_ACTIVATED_APPEARANCE;
-                } else {
-                    textAppearanceResId = ITEM_TEXT_APPEARANCE;
-                }
-                v.setTextAppearance(textAppearanceResId);
-                v.setActivated(activated);
+                bindActivated(holder, position);
             }
-            v.setText(Integer.toString(year));
-            return v;
         }
-        @Override
-        public int getItemViewType(int position) {
-            return 0;
+        private String getLabel(int year) {
+            final int index = year & (LABEL_CACHE_SIZE - 1);
+            if (mLabelYears[index] != year) {
+                mLabels[index] = Integer.toString(year);
+                mLabelYears[index] = year;
+            }
+            return mLabels[index];
         }
-        @Override
-        public int getViewTypeCount() {
-            return 1;
+        private void bindActivated(YearViewHolder holder, int position) {
+            mMetrics.onYearBind();
+            final boolean activated = mActivatedYear == getYearForPosition(position);
+            final int textAppearanceResId;
+            if (activated && ITEM_TEXT_ACTIVATED_APPEARANCE != 0) {
+                textAppearanceResId = ITEM_TEXT_ACTIVATED_APPEARANCE;
+            } else {
+                textAppearanceResId = ITEM_TEXT_APPEARANCE;
+            }
+            if (holder.textAppearanceResId != textAppearanceResId) {
+                applyTextAppearance(holder.text, textAppearanceResId);
+                holder.textAppearanceResId = textAppearanceResId;
+            }
+            holder.text.setActivated(activated);
         }
-        @Override
-        public boolean isEmpty() {
-            return false;
+        private void applyTextAppearance(TextView v, int resId) {
+            final TextAppearanceCache.Entry entry = TextAppearanceCache.get(mContext, resId);
+            if (entry.typeface != null) {
+                v.setTypeface(entry.typeface);
+            }
+            if (entry.textSize >= 0) {
+                v.setTextSize(TypedValue.COMPLEX_UNIT_PX, entry.textSize);
+            }
+            if (entry.textColor != null) {
+                v.setTextColor(entry.textColor);
+            }
         }
-        @Override
-        public boolean areAllItemsEnabled() {
-            return true;
+    }
+    private class YearViewHolder extends ViewHolder implements OnClickListener {
+        final TextView text;
+        /** The text appearance last applied to the row, or 0 if none. */
+        int textAppearanceResId;
+        YearViewHolder(TextView itemView) {
+            super(itemView);
+            text = itemView;
+            itemView.setOnClickListener(this);
         }
         @Override
-        public boolean isEnabled(int position) {
-            return true;
-        }
-    }
-    public int getFirstPositionOffset() {
-        final View firstChild = getChildAt(0);
-        if (firstChild == null) {
-            return 0;
+        public void onClick(View v) {
+            onYearClicked(getAdapterPosition());
         }
-        return firstChild.getTop();
     }
     /** @hide */
     @Override
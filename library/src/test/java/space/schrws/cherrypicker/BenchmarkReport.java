@@ -0,0 +1,118 @@
+package space.schrws.cherrypicker;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the cost of operations measured by the Robolectric benchmarks and
+ * writes it as JSON, one file per benchmark, so that CI can compare it
+ * across builds.
+ * <p>
+ * Wall times and allocations include Robolectric's own work, such as the
+ * shadow canvas keeping a history of draw calls, so they are only
+ * meaningful relative to other runs of the same benchmark. The counters
+ * from {@link PickerMetrics} are exact.
+ */
+final class BenchmarkReport {
+    /** System property naming the directory reports are written to. */
+    static final String REPORT_DIR_PROPERTY = "cherrypicker.benchmarkReportDir";
+    private static final String DEFAULT_REPORT_DIR = "build/reports/benchmarks";
+    private final String mName;
+    private final List<String> mResults = new ArrayList<>();
+    private long mStartNanos;
+    private long mStartBytes;
+    BenchmarkReport(String name) {
+        mName = name;
+    }
+    /**
+     * Starts measuring a run of operations.
+     */
+    void start() {
+        mStartBytes = getAllocatedBytes();
+        mStartNanos = System.nanoTime();
+    }
+    /**
+     * Stops measuring the operations started by {@link #start()} and records
+     * their average cost.
+     *
+     * @param operation the name of the operation
+     * @param count the number of operations run
+     * @param metrics the counters of the views, reset before the run, or
+     *                {@code null}
+     */
+    void stop(String operation, int count, PickerMetrics metrics) {
+        final long nanos = System.nanoTime() - mStartNanos;
+        final long endBytes = getAllocatedBytes();
+        final long bytes = mStartBytes < 0 || endBytes < 0 ? -1 : endBytes - mStartBytes;
+        mResults.add("{\"operation\":\"" + operation + "\""
+                + ",\"count\":" + count
+                + ",\"wallNanosPerOp\":" + nanos / count
+                + ",\"allocatedBytesPerOp\":" + (bytes < 0 ? -1 : bytes / count)
+                + ",\"metrics\":" + (metrics != null ? metrics.toJson() : "null") + "}");
+    }
+    /**
+     * Records a value measured some other way than by {@link #start()} and
+     * {@link #stop(String, int, PickerMetrics)}, such as retained heap.
+     *
+     * @param operation the name of the operation
+     * @param count the number of operations the value is averaged over
+     * @param key the name of the value
+     * @param valuePerOp the value per operation
+     */
+    void record(String operation, int count, String key, long valuePerOp) {
+        mResults.add("{\"operation\":\"" + operation + "\""
+                + ",\"count\":" + count
+                + ",\"" + key + "\":" + valuePerOp + "}");
+    }
+    /**
+     * Writes the results recorded so far.
+     *
+     * @return the report file
+     */
+    File write() throws IOException {
+        final File dir = new File(System.getProperty(REPORT_DIR_PROPERTY, DEFAULT_REPORT_DIR));
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        final File file = new File(dir, mName + ".json");
+        final StringBuilder json = new StringBuilder();
+        json.append("{\"benchmark\":\"").append(mName).append("\",\"results\":[");
+        for (int i = 0; i < mResults.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(mResults.get(i));
+        }
+        json.append("]}\n");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file),
+                Charset.forName("UTF-8"))) {
+            writer.write(json.toString());
+        }
+        return file;
+    }
+    /**
+     * @return the bytes allocated so far by the current thread, or -1 if the
+     *         JVM doesn't track them
+     */
+    static long getAllocatedBytes() {
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        final com.sun.management.ThreadMXBean allocations =
+                (com.sun.management.ThreadMXBean) threads;
+        if (!allocations.isThreadAllocatedMemorySupported()
+                || !allocations.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        return allocations.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
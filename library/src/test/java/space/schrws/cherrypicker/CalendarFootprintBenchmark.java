@@ -0,0 +1,129 @@
+package space.schrws.cherrypicker;
+
+import android.app.Activity;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Build;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares what embedding a {@link CherryCalendarView} costs against a
+ * {@link CherryDatePicker}: the time to build one and take it to its first
+ * frame, and the heap it keeps once laid out. Results go to
+ * {@code calendar-footprint.json}, see {@link BenchmarkReport}.
+ * <p>
+ * Retained heap is the growth of the used heap after a GC while the views
+ * are held, so it is an estimate; the view counts are exact.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.P)
+public class CalendarFootprintBenchmark {
+    private static final int OPENS = 20;
+    private static final int RETAINED = 20;
+    private static final int GC_PASSES = 4;
+    private interface ViewFactory {
+        View create(Activity activity);
+    }
+    private static final ViewFactory CALENDAR_VIEW = new ViewFactory() {
+        @Override
+        public View create(Activity activity) {
+            return new CherryCalendarView(activity);
+        }
+    };
+    private static final ViewFactory DATE_PICKER = new ViewFactory() {
+        @Override
+        public View create(Activity activity) {
+            return new CherryDatePicker(activity);
+        }
+    };
+    private Activity mActivity;
+    private Canvas mCanvas;
+    @Before
+    public void setUp() {
+        mActivity = TestViews.newActivity();
+        mCanvas = new Canvas(Bitmap.createBitmap(TestViews.WIDTH, TestViews.HEIGHT,
+                Bitmap.Config.ARGB_8888));
+    }
+    @After
+    public void tearDown() {
+        mCanvas = null;
+        mActivity.finish();
+    }
+    @Test
+    public void calendarViewIsLighterThanDatePicker() throws IOException {
+        final BenchmarkReport report = new BenchmarkReport("calendar-footprint");
+        // Load classes, resources and formatters for both before measuring
+        // either, so neither pays for the other.
+        open(CALENDAR_VIEW);
+        open(DATE_PICKER);
+        final int calendarViews = measure(report, "calendarView", CALENDAR_VIEW);
+        final int pickerViews = measure(report, "datePicker", DATE_PICKER);
+        report.write();
+        assertTrue("calendar view has " + calendarViews + " views, date picker "
+                + pickerViews, calendarViews < pickerViews);
+    }
+    /**
+     * Records the open time and retained heap of the views built by the
+     * factory.
+     *
+     * @return the number of views in one hierarchy
+     */
+    private int measure(BenchmarkReport report, String name, ViewFactory factory) {
+        report.start();
+        for (int i = 0; i < OPENS; i++) {
+            open(factory);
+        }
+        report.stop(name + "Open", OPENS, null);
+        mActivity.setContentView(new View(mActivity));
+        final FrameLayout host = new FrameLayout(mActivity);
+        final long before = getUsedHeap();
+        for (int i = 0; i < RETAINED; i++) {
+            host.addView(factory.create(mActivity), new FrameLayout.LayoutParams(
+                    ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        }
+        TestViews.attach(mActivity, host);
+        final long retained = getUsedHeap() - before;
+        report.record(name + "Retained", RETAINED, "retainedBytesPerOp",
+                Math.max(retained, 0) / RETAINED);
+        final int views = countViews(host.getChildAt(0));
+        mActivity.setContentView(new View(mActivity));
+        return views;
+    }
+    /**
+     * Builds a view and takes it to its first frame.
+     */
+    private void open(ViewFactory factory) {
+        TestViews.attach(mActivity, factory.create(mActivity)).draw(mCanvas);
+    }
+    private static long getUsedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < GC_PASSES; i++) {
+            System.gc();
+            System.runFinalization();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+    private static int countViews(View view) {
+        int count = 1;
+        if (view instanceof ViewGroup) {
+            final ViewGroup group = (ViewGroup) view;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                count += countViews(group.getChildAt(i));
+            }
+        }
+        return count;
+    }
+}
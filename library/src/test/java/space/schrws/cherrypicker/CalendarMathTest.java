@@ -0,0 +1,167 @@
+package space.schrws.cherrypicker;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks {@link CalendarMath} against {@link GregorianCalendar} for every day
+ * from 1900 through 2100, and for the first and last years the pickers
+ * support.
+ */
+public class CalendarMathTest {
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+    private static final int FIRST_YEAR = 1900;
+    private static final int LAST_YEAR = 2100;
+    /** Years checked at each end of the supported range. */
+    private static final int EXTREME_YEARS = 3;
+    private static GregorianCalendar newUtcCalendar() {
+        final GregorianCalendar calendar = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+        calendar.clear();
+        calendar.set(FIRST_YEAR, Calendar.JANUARY, 1);
+        return calendar;
+    }
+    @Test
+    public void toEpochDayMatchesCalendar() {
+        final GregorianCalendar calendar = newUtcCalendar();
+        while (calendar.get(Calendar.YEAR) <= LAST_YEAR) {
+            final int year = calendar.get(Calendar.YEAR);
+            final int month = calendar.get(Calendar.MONTH);
+            final int day = calendar.get(Calendar.DAY_OF_MONTH);
+            assertEquals(year + "-" + (month + 1) + "-" + day,
+                    calendar.getTimeInMillis() / MILLIS_PER_DAY,
+                    CalendarMath.toEpochDay(year, month, day));
+            calendar.add(Calendar.DAY_OF_MONTH, 1);
+        }
+    }
+    @Test
+    public void fromEpochDayMatchesCalendar() {
+        final GregorianCalendar calendar = newUtcCalendar();
+        while (calendar.get(Calendar.YEAR) <= LAST_YEAR) {
+            final int epochDay = (int) (calendar.getTimeInMillis() / MILLIS_PER_DAY);
+            final int packed = CalendarMath.fromEpochDay(epochDay);
+            assertEquals(calendar.get(Calendar.YEAR), CalendarMath.getYear(packed));
+            assertEquals(calendar.get(Calendar.MONTH), CalendarMath.getMonth(packed));
+            assertEquals(calendar.get(Calendar.DAY_OF_MONTH), CalendarMath.getDayOfMonth(packed));
+            calendar.add(Calendar.DAY_OF_MONTH, 1);
+        }
+    }
+    @Test
+    public void dayOfWeekMatchesCalendar() {
+        final GregorianCalendar calendar = newUtcCalendar();
+        while (calendar.get(Calendar.YEAR) <= LAST_YEAR) {
+            final int epochDay = (int) (calendar.getTimeInMillis() / MILLIS_PER_DAY);
+            assertEquals(calendar.get(Calendar.DAY_OF_WEEK), CalendarMath.getDayOfWeek(epochDay));
+            assertEquals(calendar.get(Calendar.DAY_OF_WEEK), CalendarMath.getDayOfWeek(
+                    calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH),
+                    calendar.get(Calendar.DAY_OF_MONTH)));
+            calendar.add(Calendar.DAY_OF_MONTH, 1);
+        }
+    }
+    @Test
+    public void daysInMonthMatchesCalendar() {
+        final GregorianCalendar calendar = newUtcCalendar();
+        for (int year = FIRST_YEAR; year <= LAST_YEAR; year++) {
+            assertEquals(calendar.isLeapYear(year), CalendarMath.isLeapYear(year));
+            for (int month = Calendar.JANUARY; month <= Calendar.DECEMBER; month++) {
+                calendar.set(year, month, 1);
+                assertEquals(year + "-" + (month + 1),
+                        calendar.getActualMaximum(Calendar.DAY_OF_MONTH),
+                        CalendarMath.getDaysInMonth(month, year));
+            }
+        }
+    }
+    @Test
+    public void toEpochMillisPicksStandardTimeWhenLocalTimeOccursTwice() {
+        // 01:30 happens twice on 2018-11-04 as clocks fall back at 02:00 EDT.
+        final TimeZone zone = TimeZone.getTimeZone("America/New_York");
+        final long localMillis = CalendarMath.toEpochDay(2018, Calendar.NOVEMBER, 4)
+                * MILLIS_PER_DAY + 90 * 60 * 1000;
+        final long millis = CalendarMath.toEpochMillis(localMillis, zone);
+        assertEquals(toMillis(zone, 2018, Calendar.NOVEMBER, 4, 1, 30), millis);
+        assertEquals(1541313000000L, millis);
+    }
+    @Test
+    public void toEpochMillisPushesSkippedLocalTimeForward() {
+        // 02:30 is skipped on 2018-03-11 as clocks spring forward at 02:00 EST.
+        final TimeZone zone = TimeZone.getTimeZone("America/New_York");
+        final long localMillis = CalendarMath.toEpochDay(2018, Calendar.MARCH, 11)
+                * MILLIS_PER_DAY + 150 * 60 * 1000;
+        final long millis = CalendarMath.toEpochMillis(localMillis, zone);
+        assertEquals(toMillis(zone, 2018, Calendar.MARCH, 11, 2, 30), millis);
+        assertEquals(1520753400000L, millis);
+    }
+    private static long toMillis(TimeZone zone, int year, int month, int day, int hour,
+                                 int minute) {
+        final GregorianCalendar calendar = new GregorianCalendar(zone);
+        calendar.clear();
+        calendar.set(year, month, day, hour, minute);
+        return calendar.getTimeInMillis();
+    }
+    @Test
+    public void monthIndexRoundTrips() {
+        for (int year = FIRST_YEAR; year <= LAST_YEAR; year++) {
+            for (int month = Calendar.JANUARY; month <= Calendar.DECEMBER; month++) {
+                final int monthIndex = CalendarMath.getMonthIndex(year, month);
+                assertEquals(year, CalendarMath.getYearForMonthIndex(monthIndex));
+                assertEquals(month, CalendarMath.getMonthForMonthIndex(monthIndex));
+            }
+        }
+    }
+    @Test
+    public void epochDaysMatchProlepticCalendarAtExtremes() {
+        assertEpochDaysMatch(CalendarMath.MIN_YEAR, CalendarMath.MIN_YEAR + EXTREME_YEARS - 1);
+        assertEpochDaysMatch(CalendarMath.MAX_YEAR - EXTREME_YEARS + 1, CalendarMath.MAX_YEAR);
+    }
+    private static void assertEpochDaysMatch(int firstYear, int lastYear) {
+        // CalendarMath is proleptic Gregorian, without the Julian calendar
+        // GregorianCalendar switches to before 1582.
+        final GregorianCalendar calendar = newUtcCalendar();
+        calendar.setGregorianChange(new Date(Long.MIN_VALUE));
+        calendar.set(firstYear, Calendar.JANUARY, 1);
+        while (calendar.get(Calendar.YEAR) <= lastYear) {
+            final int year = calendar.get(Calendar.YEAR);
+            final int month = calendar.get(Calendar.MONTH);
+            final int day = calendar.get(Calendar.DAY_OF_MONTH);
+            final int epochDay = CalendarMath.toEpochDay(year, month, day);
+            assertEquals(year + "-" + (month + 1) + "-" + day,
+                    Math.floorDiv(calendar.getTimeInMillis(), MILLIS_PER_DAY), epochDay);
+            assertEquals(CalendarMath.pack(year, month, day), CalendarMath.fromEpochDay(epochDay));
+            assertEquals(calendar.get(Calendar.DAY_OF_WEEK), CalendarMath.getDayOfWeek(epochDay));
+            calendar.add(Calendar.DAY_OF_MONTH, 1);
+        }
+    }
+    @Test
+    public void monthIndexSpansSupportedYears() {
+        final int first = CalendarMath.getMonthIndex(CalendarMath.MIN_YEAR, Calendar.JANUARY);
+        final int last = CalendarMath.getMonthIndex(CalendarMath.MAX_YEAR, Calendar.DECEMBER);
+        assertEquals(CalendarMath.MAX_YEAR * CalendarMath.MONTHS_IN_YEAR, last - first + 1);
+        assertEquals(CalendarMath.MIN_YEAR, CalendarMath.getYearForMonthIndex(first));
+        assertEquals(Calendar.JANUARY, CalendarMath.getMonthForMonthIndex(first));
+        assertEquals(CalendarMath.MAX_YEAR, CalendarMath.getYearForMonthIndex(last));
+        assertEquals(Calendar.DECEMBER, CalendarMath.getMonthForMonthIndex(last));
+    }
+    @Test
+    public void constrainClampsToSupportedYears() {
+        final Calendar calendar = CalendarMath.newCalendar();
+        calendar.clear();
+        calendar.set(Calendar.ERA, GregorianCalendar.BC);
+        calendar.set(5, Calendar.JUNE, 15);
+        CalendarMath.constrain(calendar);
+        assertEquals(GregorianCalendar.AD, calendar.get(Calendar.ERA));
+        assertEquals(CalendarMath.MIN_YEAR, calendar.get(Calendar.YEAR));
+        assertEquals(Calendar.JANUARY, calendar.get(Calendar.MONTH));
+        assertEquals(1, calendar.get(Calendar.DAY_OF_MONTH));
+        calendar.clear();
+        calendar.set(CalendarMath.MAX_YEAR + 1, Calendar.JUNE, 15);
+        CalendarMath.constrain(calendar);
+        assertEquals(CalendarMath.MAX_YEAR, calendar.get(Calendar.YEAR));
+        assertEquals(Calendar.DECEMBER, calendar.get(Calendar.MONTH));
+        assertEquals(31, calendar.get(Calendar.DAY_OF_MONTH));
+    }
+}
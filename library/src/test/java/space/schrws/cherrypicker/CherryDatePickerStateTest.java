@@ -0,0 +1,196 @@
+package space.schrws.cherrypicker;
+
+import android.app.Activity;
+import android.graphics.Rect;
+import android.os.Build;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.util.SparseArray;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Calendar;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that a {@link CherryDatePicker} restores its saved state, whether
+ * or not its lazily inflated year picker was ever shown, along with its
+ * selection mode and selected range.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.P)
+public class CherryDatePickerStateTest {
+    private static final int PICKER_ID = 1;
+    @Test
+    public void restoresYearViewShown() {
+        final CherryDatePicker picker = newPicker();
+        picker.updateDate(2015, Calendar.JUNE, 10);
+        picker.findViewById(R.id.date_picker_header_year).performClick();
+        assertTrue(picker.isYearViewShown());
+        final CherryDatePicker restored = newPicker();
+        assertNull(restored.findViewById(R.id.date_picker_year_picker));
+        restored.restoreHierarchyState(saveAndParcel(picker));
+        assertTrue(restored.isYearViewShown());
+        assertNotNull(restored.findViewById(R.id.date_picker_year_picker));
+        assertDate(restored, 2015, Calendar.JUNE, 10);
+    }
+    @Test
+    public void restoresWithoutInflatingYearPicker() {
+        final CherryDatePicker picker = newPicker();
+        picker.updateDate(2015, Calendar.JUNE, 10);
+        // The year picker was never shown, so it was never inflated.
+        assertNull(picker.findViewById(R.id.date_picker_year_picker));
+        final CherryDatePicker restored = newPicker();
+        restored.restoreHierarchyState(saveAndParcel(picker));
+        assertFalse(restored.isYearViewShown());
+        assertNull(restored.findViewById(R.id.date_picker_year_picker));
+        assertEquals(2015, restored.getVisibleYear());
+        assertEquals(Calendar.JUNE, restored.getVisibleMonth());
+        assertDate(restored, 2015, Calendar.JUNE, 10);
+        // Showing it afterwards sets it up from the restored date.
+        restored.findViewById(R.id.date_picker_header_year).performClick();
+        assertTrue(restored.isYearViewShown());
+        assertNotNull(restored.findViewById(R.id.date_picker_year_picker));
+    }
+    @Test
+    public void restoresYearViewShownAfterHidingIt() {
+        final CherryDatePicker picker = newPicker();
+        picker.findViewById(R.id.date_picker_header_year).performClick();
+        picker.findViewById(R.id.date_picker_header_date).performClick();
+        assertFalse(picker.isYearViewShown());
+        final CherryDatePicker restored = newPicker();
+        restored.restoreHierarchyState(saveAndParcel(picker));
+        assertFalse(restored.isYearViewShown());
+    }
+    @Test
+    public void restoresRange() {
+        final CherryDatePicker picker = newPicker();
+        picker.setSelectionMode(CherryDatePicker.SELECTION_MODE_RANGE);
+        picker.setDateRange(getMillis(2015, Calendar.JUNE, 10), getMillis(2015, Calendar.JUNE, 20));
+        final CherryDatePicker restored = newPicker();
+        restored.restoreHierarchyState(saveAndParcel(picker));
+        assertEquals(CherryDatePicker.SELECTION_MODE_RANGE, restored.getSelectionMode());
+        assertDate(restored.getRangeStart(), 2015, Calendar.JUNE, 10);
+        assertDate(restored.getRangeEnd(), 2015, Calendar.JUNE, 20);
+    }
+    @Test
+    public void restoresRangeWithoutEnd() {
+        final CherryDatePicker picker = newPicker();
+        picker.setSelectionMode(CherryDatePicker.SELECTION_MODE_RANGE);
+        picker.updateDate(2015, Calendar.JUNE, 10);
+        TestViews.layout(picker, TestViews.WIDTH, TestViews.HEIGHT);
+        clickDay(picker, 2015, Calendar.JUNE, 12);
+        assertNull(picker.getRangeEnd());
+        final CherryDatePicker restored = newPicker();
+        restored.restoreHierarchyState(saveAndParcel(picker));
+        TestViews.layout(restored, TestViews.WIDTH, TestViews.HEIGHT);
+        assertDate(restored.getRangeStart(), 2015, Calendar.JUNE, 12);
+        assertNull(restored.getRangeEnd());
+        // The next day picked ends the restored range rather than starting
+        // another one.
+        clickDay(restored, 2015, Calendar.JUNE, 15);
+        assertDate(restored.getRangeStart(), 2015, Calendar.JUNE, 12);
+        assertDate(restored.getRangeEnd(), 2015, Calendar.JUNE, 15);
+    }
+    @Test
+    public void restoresSingleSelectionMode() {
+        final CherryDatePicker picker = newPicker();
+        final CherryDatePicker restored = newPicker();
+        restored.setSelectionMode(CherryDatePicker.SELECTION_MODE_RANGE);
+        restored.restoreHierarchyState(saveAndParcel(picker));
+        assertEquals(CherryDatePicker.SELECTION_MODE_SINGLE, restored.getSelectionMode());
+        assertNull(restored.getRangeStart());
+    }
+    private static CherryDatePicker newPicker() {
+        final Activity activity = TestViews.newActivity();
+        final CherryDatePicker picker = new CherryDatePicker(activity);
+        picker.setId(PICKER_ID);
+        return TestViews.attach(activity, picker);
+    }
+    /**
+     * Saves the state of the picker and sends it through a Parcel, as when
+     * the process is killed in the background.
+     */
+    private static SparseArray<Parcelable> saveAndParcel(View view) {
+        final SparseArray<Parcelable> container = new SparseArray<>();
+        view.saveHierarchyState(container);
+        final Parcel parcel = Parcel.obtain();
+        try {
+            parcel.writeSparseArray(asObjects(container));
+            parcel.setDataPosition(0);
+            @SuppressWarnings("unchecked")
+            final SparseArray<Parcelable> restored = (SparseArray<Parcelable>)
+                    (SparseArray<?>) parcel.readSparseArray(
+                            CherryDatePicker.class.getClassLoader());
+            return restored;
+        } finally {
+            parcel.recycle();
+        }
+    }
+    @SuppressWarnings("unchecked")
+    private static SparseArray<Object> asObjects(SparseArray<Parcelable> container) {
+        return (SparseArray<Object>) (SparseArray<?>) container;
+    }
+    private static long getMillis(int year, int month, int day) {
+        final Calendar calendar = CalendarMath.newCalendar();
+        calendar.clear();
+        calendar.set(year, month, day);
+        return calendar.getTimeInMillis();
+    }
+    /**
+     * Taps a day of the specified month, which must be on a page of the
+     * day picker.
+     */
+    private static void clickDay(CherryDatePicker picker, int year, int month, int day) {
+        final String label = DateFormatCache.get(Locale.getDefault()).getMonthYearLabel(year, month);
+        final SimpleMonthView monthView = findMonthView(picker, label);
+        assertNotNull("no page for " + label, monthView);
+        final Rect bounds = new Rect();
+        assertTrue(monthView.getBoundsForDay(day, bounds));
+        for (int action : new int[] {MotionEvent.ACTION_DOWN, MotionEvent.ACTION_UP}) {
+            final MotionEvent event = MotionEvent.obtain(0, 0, action,
+                    bounds.exactCenterX(), bounds.exactCenterY(), 0);
+            monthView.onTouchEvent(event);
+            event.recycle();
+        }
+    }
+    private static SimpleMonthView findMonthView(View view, String label) {
+        if (view instanceof SimpleMonthView) {
+            final SimpleMonthView monthView = (SimpleMonthView) view;
+            return label.equals(monthView.getMonthYearLabel()) ? monthView : null;
+        }
+        if (view instanceof ViewGroup) {
+            final ViewGroup group = (ViewGroup) view;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                final SimpleMonthView monthView = findMonthView(group.getChildAt(i), label);
+                if (monthView != null) {
+                    return monthView;
+                }
+            }
+        }
+        return null;
+    }
+    private static void assertDate(Calendar date, int year, int month, int day) {
+        assertNotNull(date);
+        assertEquals(year, date.get(Calendar.YEAR));
+        assertEquals(month, date.get(Calendar.MONTH));
+        assertEquals(day, date.get(Calendar.DAY_OF_MONTH));
+    }
+    private static void assertDate(CherryDatePicker picker, int year, int month, int day) {
+        assertEquals(year, picker.getYear());
+        assertEquals(month, picker.getMonth());
+        assertEquals(day, picker.getDayOfMonth());
+    }
+}
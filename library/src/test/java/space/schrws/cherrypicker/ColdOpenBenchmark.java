@@ -0,0 +1,90 @@
+package space.schrws.cherrypicker;
+
+import android.app.Activity;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Build;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+
+/**
+ * Measures the time from constructing a {@link CherryDatePicker} to its first
+ * frame, with and without
+ * {@link CherryDatePicker#prewarm(android.content.Context, Executor)}.
+ * Results go to {@code cold-open.json} and {@code cold-open-prewarmed.json},
+ * see {@link BenchmarkReport}.
+ * <p>
+ * Locale data and formatters are cached for the whole process, so each
+ * test runs in a locale no other test uses to really start cold.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.P)
+public class ColdOpenBenchmark {
+    private static final int WARM_OPENS = 10;
+    /** Runs the prewarm on the test thread, so it is done when it returns. */
+    private static final Executor DIRECT_EXECUTOR = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+    private Locale mDefaultLocale;
+    private Canvas mCanvas;
+    @Before
+    public void setUp() {
+        mDefaultLocale = Locale.getDefault();
+        mCanvas = new Canvas(Bitmap.createBitmap(TestViews.WIDTH, TestViews.HEIGHT,
+                Bitmap.Config.ARGB_8888));
+    }
+    @After
+    public void tearDown() {
+        Locale.setDefault(mDefaultLocale);
+    }
+    @Test
+    @Config(qualifiers = "fi-rFI")
+    public void openCold() throws IOException {
+        Locale.setDefault(new Locale("fi", "FI"));
+        final BenchmarkReport report = new BenchmarkReport("cold-open");
+        final Activity activity = TestViews.newActivity();
+        report.start();
+        open(activity);
+        report.stop("coldOpen", 1, null);
+        report.start();
+        for (int i = 0; i < WARM_OPENS; i++) {
+            open(activity);
+        }
+        report.stop("warmOpen", WARM_OPENS, null);
+        report.write();
+    }
+    @Test
+    @Config(qualifiers = "sv-rSE")
+    public void openPrewarmed() throws IOException {
+        Locale.setDefault(new Locale("sv", "SE"));
+        final BenchmarkReport report = new BenchmarkReport("cold-open-prewarmed");
+        final Activity activity = TestViews.newActivity();
+        report.start();
+        CherryDatePicker.prewarm(activity, DIRECT_EXECUTOR);
+        report.stop("prewarm", 1, null);
+        report.start();
+        open(activity);
+        report.stop("prewarmedOpen", 1, null);
+        report.write();
+    }
+    /**
+     * Builds a picker and takes it to its first frame.
+     */
+    private void open(Activity activity) {
+        final CherryDatePicker picker = TestViews.attach(activity,
+                new CherryDatePicker(activity));
+        picker.draw(mCanvas);
+    }
+}
@@ -0,0 +1,47 @@
+package space.schrws.cherrypicker;
+
+import org.junit.Test;
+
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+
+public class DateParserTest {
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+    private static final TimeZone NEW_YORK = TimeZone.getTimeZone("America/New_York");
+    @Test
+    public void parsesShortYearsLiterally() {
+        assertEquals(CalendarMath.pack(18, 0, 31), DateParser.parsePackedDate("1/31/18"));
+        assertEquals(CalendarMath.pack(18, 0, 31), DateParser.parsePackedDate("01/31/018"));
+        assertEquals(CalendarMath.pack(8, 0, 31), DateParser.parsePackedDate("1/31/8"));
+        assertEquals(CalendarMath.pack(2018, 0, 31), DateParser.parsePackedDate("1/31/2018"));
+    }
+    @Test
+    public void rejectsMissingOrOverlongYears() {
+        assertEquals(DateParser.INVALID_DATE, DateParser.parsePackedDate("1/31/"));
+        assertEquals(DateParser.INVALID_DATE, DateParser.parsePackedDate("1/31/20188"));
+        assertEquals(DateParser.INVALID_DATE, DateParser.parsePackedDate("1/31/0"));
+    }
+    @Test
+    public void parsesFirstAndLastSupportedDays() {
+        assertEquals(CalendarMath.pack(1, 0, 1), DateParser.parsePackedDate("0001-01-01"));
+        assertEquals(CalendarMath.pack(1, 0, 1), DateParser.parsePackedDate("1/1/1"));
+        assertEquals(CalendarMath.pack(9999, 11, 31), DateParser.parsePackedDate("9999-12-31"));
+        assertEquals(CalendarMath.pack(9999, 11, 31), DateParser.parsePackedDate("12/31/9999"));
+        assertEquals(DateParser.INVALID_DATE, DateParser.parsePackedDate("0000-12-31"));
+        final TimeZone utc = TimeZone.getTimeZone("UTC");
+        assertEquals(CalendarMath.toEpochDay(1, 0, 1) * MILLIS_PER_DAY,
+                DateParser.parseMillis("0001-01-01", utc));
+        assertEquals(CalendarMath.toEpochDay(9999, 11, 31) * MILLIS_PER_DAY,
+                DateParser.parseMillis("9999-12-31", utc));
+    }
+    @Test
+    public void parsesLocalTimeThatOccursTwiceAsStandardTime() {
+        assertEquals(1541313000000L, DateParser.parseMillis("2018-11-04T01:30", NEW_YORK));
+    }
+    @Test
+    public void parsesSkippedLocalTimeAsLaterWallTime() {
+        // 02:30 EST, which reads as 03:30 EDT.
+        assertEquals(1520753400000L, DateParser.parseMillis("2018-03-11T02:30", NEW_YORK));
+    }
+}
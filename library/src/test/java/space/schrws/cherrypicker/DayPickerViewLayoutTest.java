@@ -0,0 +1,53 @@
+package space.schrws.cherrypicker;
+
+import android.app.Activity;
+import android.os.Build;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that layout passes of {@link DayPickerView} only move views around
+ * and never rebind its month pages.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.P)
+public class DayPickerViewLayoutTest {
+    private static final int LAYOUT_PASSES = 20;
+    private DayPickerView mPicker;
+    private PickerMetrics mMetrics;
+    @Before
+    public void setUp() {
+        final Activity activity = TestViews.newActivity();
+        mPicker = TestViews.attach(activity, new DayPickerView(activity));
+        mMetrics = mPicker.getMetrics();
+        assertTrue("pages were never bound", mMetrics.getBindCount() > 0);
+        mMetrics.reset();
+    }
+    @Test
+    public void requestLayoutDoesNotRebindPages() {
+        for (int i = 0; i < LAYOUT_PASSES; i++) {
+            mPicker.requestLayout();
+            TestViews.layout(mPicker, TestViews.WIDTH, TestViews.HEIGHT);
+        }
+        assertEquals(0, mMetrics.getBindCount());
+        assertEquals(0, mMetrics.getInflateCount());
+    }
+    @Test
+    public void resizingDoesNotRebindPages() {
+        // As when a keyboard inset comes and goes.
+        for (int i = 0; i < LAYOUT_PASSES; i++) {
+            mPicker.requestLayout();
+            TestViews.layout(mPicker, TestViews.WIDTH,
+                    i % 2 == 0 ? TestViews.HEIGHT / 2 : TestViews.HEIGHT);
+        }
+        assertEquals(0, mMetrics.getBindCount());
+        assertEquals(0, mMetrics.getInflateCount());
+    }
+}
@@ -0,0 +1,86 @@
+package space.schrws.cherrypicker;
+
+import android.app.Activity;
+import android.os.Build;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Calendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the pickers over the widest supported range, year 1 through 9999,
+ * where positions must come from arithmetic rather than per-item state.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.P)
+public class ExtremeRangeTest {
+    private static final int MONTH_COUNT = CalendarMath.MAX_YEAR * CalendarMath.MONTHS_IN_YEAR;
+    /** More pages than a pager ever keeps, however wide the range. */
+    private static final int MAX_PAGES = 8;
+    private Activity mActivity;
+    private Calendar mMinDate;
+    private Calendar mMaxDate;
+    @Before
+    public void setUp() {
+        mActivity = TestViews.newActivity();
+        mMinDate = CalendarMath.newCalendar();
+        mMinDate.clear();
+        mMinDate.set(CalendarMath.MIN_YEAR, Calendar.JANUARY, 1);
+        mMaxDate = CalendarMath.newCalendar();
+        mMaxDate.clear();
+        mMaxDate.set(CalendarMath.MAX_YEAR, Calendar.DECEMBER, 31);
+    }
+    @Test
+    public void dayPickerReachesBothEnds() {
+        final DayPickerView picker = TestViews.attach(mActivity, new DayPickerView(mActivity));
+        picker.setMinDate(mMinDate.getTimeInMillis());
+        picker.setMaxDate(mMaxDate.getTimeInMillis());
+        TestViews.layout(picker, TestViews.WIDTH, TestViews.HEIGHT);
+        picker.setDate(mMaxDate.getTimeInMillis());
+        TestViews.layout(picker, TestViews.WIDTH, TestViews.HEIGHT);
+        assertEquals(MONTH_COUNT - 1, picker.getMostVisiblePosition());
+        assertEquals(CalendarMath.MAX_YEAR, picker.getVisibleYear());
+        assertEquals(Calendar.DECEMBER, picker.getVisibleMonth());
+        picker.setDate(mMinDate.getTimeInMillis());
+        TestViews.layout(picker, TestViews.WIDTH, TestViews.HEIGHT);
+        assertEquals(0, picker.getMostVisiblePosition());
+        assertEquals(CalendarMath.MIN_YEAR, picker.getVisibleYear());
+        assertEquals(Calendar.JANUARY, picker.getVisibleMonth());
+        assertTrue("inflated " + picker.getMetrics().getInflateCount() + " pages",
+                picker.getMetrics().getInflateCount() <= MAX_PAGES);
+    }
+    @Test
+    public void dayPickerClampsDatesOutsideRange() {
+        final DayPickerView picker = TestViews.attach(mActivity, new DayPickerView(mActivity));
+        picker.setMinDate(mMinDate.getTimeInMillis());
+        picker.setMaxDate(mMaxDate.getTimeInMillis());
+        picker.setDate(mMaxDate.getTimeInMillis() + 400L * 24 * 60 * 60 * 1000);
+        assertEquals(mMaxDate.getTimeInMillis(), picker.getDate());
+        picker.setDate(mMinDate.getTimeInMillis() - 400L * 24 * 60 * 60 * 1000);
+        assertEquals(mMinDate.getTimeInMillis(), picker.getDate());
+    }
+    @Test
+    public void yearPickerReachesBothEnds() {
+        final YearPickerView years = new YearPickerView(mActivity, null);
+        years.setRange(mMinDate, mMaxDate);
+        years.setYear(CalendarMath.MAX_YEAR);
+        TestViews.attach(mActivity, years);
+        assertEquals(CalendarMath.MAX_YEAR, years.getAdapter().getItemCount());
+        assertNotNull(years.getSelectedView());
+        years.setYear(CalendarMath.MIN_YEAR);
+        TestViews.layout(years, TestViews.WIDTH, TestViews.HEIGHT);
+        assertNotNull(years.getSelectedView());
+        assertEquals(0, years.getFirstVisiblePosition());
+        // Only a screenful of rows is ever bound.
+        assertTrue("bound " + years.getMetrics().getYearBindCount() + " years",
+                years.getMetrics().getYearBindCount() < 4 * years.getChildCount());
+    }
+}
@@ -0,0 +1,109 @@
+package space.schrws.cherrypicker;
+
+import android.app.Activity;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Build;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.util.Calendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures what paging through months and scrolling the year list cost,
+ * driving the real views headlessly. Results go to
+ * {@code frame-cost-days.json} and {@code frame-cost-years.json}, see
+ * {@link BenchmarkReport}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.P)
+public class FrameCostBenchmark {
+    private static final int MONTHS = 48;
+    private static final int RELAYOUTS = 48;
+    private static final int YEAR_SCROLLS = 48;
+    private static final int YEAR_SCROLL_ROWS = 3;
+    private Activity mActivity;
+    private Canvas mCanvas;
+    @Before
+    public void setUp() {
+        mActivity = TestViews.newActivity();
+        mCanvas = new Canvas(Bitmap.createBitmap(TestViews.WIDTH, TestViews.HEIGHT,
+                Bitmap.Config.ARGB_8888));
+    }
+    @After
+    public void tearDown() {
+        mCanvas = null;
+        mActivity.finish();
+    }
+    @Test
+    public void pageMonths() throws IOException {
+        final BenchmarkReport report = new BenchmarkReport("frame-cost-days");
+        final DayPickerView picker = TestViews.attach(mActivity, new DayPickerView(mActivity));
+        final PickerMetrics metrics = picker.getMetrics();
+        final int firstPosition = picker.getMostVisiblePosition();
+        // Page forward without drawing, as during a fling.
+        metrics.reset();
+        report.start();
+        for (int i = 1; i <= MONTHS; i++) {
+            picker.setPosition(firstPosition + i);
+            TestViews.layout(picker, TestViews.WIDTH, TestViews.HEIGHT);
+        }
+        report.stop("pageMonth", MONTHS, metrics);
+        assertEquals(firstPosition + MONTHS, picker.getMostVisiblePosition());
+        // Page back, drawing every month as it settles.
+        metrics.reset();
+        report.start();
+        for (int i = MONTHS - 1; i >= 0; i--) {
+            picker.setPosition(firstPosition + i);
+            TestViews.layout(picker, TestViews.WIDTH, TestViews.HEIGHT);
+            picker.draw(mCanvas);
+        }
+        report.stop("pageAndDrawMonth", MONTHS, metrics);
+        assertTrue("no month was drawn", metrics.getDrawCount() > 0);
+        // Lay out and draw the settled month again, as for an unrelated
+        // layout request.
+        metrics.reset();
+        report.start();
+        for (int i = 0; i < RELAYOUTS; i++) {
+            picker.requestLayout();
+            TestViews.layout(picker, TestViews.WIDTH, TestViews.HEIGHT);
+            picker.draw(mCanvas);
+        }
+        report.stop("relayoutAndDraw", RELAYOUTS, metrics);
+        report.write();
+    }
+    @Test
+    public void scrollYears() throws IOException {
+        final BenchmarkReport report = new BenchmarkReport("frame-cost-years");
+        final YearPickerView years = new YearPickerView(mActivity, null);
+        final Calendar min = CalendarMath.newCalendar();
+        min.set(1900, Calendar.JANUARY, 1);
+        final Calendar max = CalendarMath.newCalendar();
+        max.set(2100, Calendar.DECEMBER, 31);
+        years.setRange(min, max);
+        years.setYear(1900);
+        TestViews.attach(mActivity, years);
+        final PickerMetrics metrics = years.getMetrics();
+        final int rowHeight = mActivity.getResources().getDimensionPixelOffset(
+                R.dimen.datepicker_year_label_height);
+        metrics.reset();
+        report.start();
+        for (int i = 0; i < YEAR_SCROLLS; i++) {
+            years.scrollBy(0, rowHeight * YEAR_SCROLL_ROWS);
+            TestViews.layout(years, TestViews.WIDTH, TestViews.HEIGHT);
+            years.draw(mCanvas);
+        }
+        report.stop("scrollYearsAndDraw", YEAR_SCROLLS, metrics);
+        assertTrue("no year was bound", metrics.getYearBindCount() > 0);
+        report.write();
+    }
+}
@@ -0,0 +1,142 @@
+package space.schrws.cherrypicker;
+
+import android.app.Activity;
+import android.content.res.ColorStateList;
+import android.graphics.Color;
+import android.os.Build;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Calendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Checks that month pages shared through a {@link MonthViewPool} never carry
+ * the colors of the picker that last used them, and that the pool lets go of
+ * a context once no picker using it is attached.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.P)
+public class MonthViewPoolTest {
+    private static final ColorStateList RED = ColorStateList.valueOf(Color.RED);
+    private static final ColorStateList GREEN = ColorStateList.valueOf(Color.GREEN);
+    private Activity mActivity;
+    private FrameLayout mContainer;
+    private MonthViewPool mPool;
+    @Before
+    public void setUp() {
+        mActivity = TestViews.newActivity();
+        mContainer = new FrameLayout(mActivity);
+        mPool = new MonthViewPool();
+        // Stands in for an attached picker, so released pages are kept.
+        mPool.onPickerAttached(mActivity);
+    }
+    @Test
+    public void sharedPageDropsColorsOfPreviousPicker() {
+        final DayPickerPagerAdapter colored = newAdapter();
+        colored.setDaySelectorColor(RED);
+        colored.setCalendarTextColor(GREEN);
+        final Object page = colored.instantiateItem(mContainer, 0);
+        final View pageView = mContainer.getChildAt(0);
+        assertEquals(Color.RED, getMonthView(pageView).getDaySelectorColor());
+        colored.destroyItem(mContainer, 0, page);
+        final DayPickerPagerAdapter plain = newAdapter();
+        plain.instantiateItem(mContainer, 0);
+        assertSame(pageView, mContainer.getChildAt(0));
+        // The pool is empty now, so this page is freshly inflated.
+        plain.instantiateItem(mContainer, 1);
+        assertSameColors(getMonthView(mContainer.getChildAt(1)), getMonthView(pageView));
+    }
+    @Test
+    public void sharedPageTakesColorsOfNextPicker() {
+        final DayPickerPagerAdapter plain = newAdapter();
+        final Object page = plain.instantiateItem(mContainer, 0);
+        final View pageView = mContainer.getChildAt(0);
+        plain.destroyItem(mContainer, 0, page);
+        final DayPickerPagerAdapter colored = newAdapter();
+        colored.setDaySelectorColor(RED);
+        colored.setCalendarTextColor(GREEN);
+        colored.instantiateItem(mContainer, 0);
+        assertSame(pageView, mContainer.getChildAt(0));
+        final SimpleMonthView monthView = getMonthView(pageView);
+        assertEquals(Color.RED, monthView.getDaySelectorColor());
+        assertEquals(Color.GREEN, monthView.getDayTextColor().getDefaultColor());
+    }
+    @Test
+    public void clearingColorsRestoresLivePages() {
+        final DayPickerPagerAdapter plain = newAdapter();
+        plain.instantiateItem(mContainer, 0);
+        final DayPickerPagerAdapter colored = newAdapter();
+        colored.setDaySelectorColor(RED);
+        colored.setCalendarTextColor(GREEN);
+        colored.instantiateItem(mContainer, 0);
+        colored.setDaySelectorColor(null);
+        colored.setCalendarTextColor(null);
+        assertSameColors(getMonthView(mContainer.getChildAt(0)),
+                getMonthView(mContainer.getChildAt(1)));
+    }
+    @Test
+    public void keepsViewsWhilePickerAttached() {
+        final View page = new View(mActivity);
+        mPool.onPickerAttached(mActivity);
+        mPool.release(mActivity, R.layout.date_picker_month_item_material, page);
+        mPool.onPickerDetached(mActivity);
+        assertSame(page, mPool.acquire(mActivity, R.layout.date_picker_month_item_material));
+    }
+    @Test
+    public void dropsViewsOnceLastPickerDetached() {
+        mPool.release(mActivity, R.layout.date_picker_month_item_material, new View(mActivity));
+        mPool.onPickerDetached(mActivity);
+        assertNull(mPool.acquire(mActivity, R.layout.date_picker_month_item_material));
+        // Nothing is kept for a context without an attached picker.
+        mPool.release(mActivity, R.layout.date_picker_month_item_material, new View(mActivity));
+        assertNull(mPool.acquire(mActivity, R.layout.date_picker_month_item_material));
+    }
+    @Test
+    public void detachingDayPickerDropsItsViews() {
+        final Activity activity = TestViews.newActivity();
+        final DayPickerView picker = new DayPickerView(activity);
+        picker.setMonthViewPool(mPool);
+        TestViews.attach(activity, picker);
+        mPool.release(activity, R.layout.date_picker_month_item_material, new View(activity));
+        activity.setContentView(new View(activity));
+        assertNull(mPool.acquire(activity, R.layout.date_picker_month_item_material));
+        // Other contexts keep their views.
+        final View page = new View(mActivity);
+        mPool.release(mActivity, R.layout.date_picker_month_item_material, page);
+        assertSame(page, mPool.acquire(mActivity, R.layout.date_picker_month_item_material));
+    }
+    private DayPickerPagerAdapter newAdapter() {
+        final DayPickerPagerAdapter adapter = new DayPickerPagerAdapter(mActivity,
+                R.layout.date_picker_month_item_material, R.id.month_view);
+        adapter.setMonthViewPool(mPool);
+        adapter.setMonthTextAppearance(R.style.TextAppearance_Material_Widget_Calendar_Month);
+        adapter.setDayOfWeekTextAppearance(
+                R.style.TextAppearance_Material_Widget_Calendar_DayOfWeek);
+        adapter.setDayTextAppearance(R.style.TextAppearance_Material_Widget_Calendar_Day);
+        final Calendar min = CalendarMath.newCalendar();
+        min.clear();
+        min.set(2018, Calendar.JANUARY, 1);
+        final Calendar max = CalendarMath.newCalendar();
+        max.clear();
+        max.set(2018, Calendar.DECEMBER, 31);
+        adapter.setRange(min, max);
+        return adapter;
+    }
+    private static SimpleMonthView getMonthView(View page) {
+        return page.findViewById(R.id.month_view);
+    }
+    private static void assertSameColors(SimpleMonthView expected, SimpleMonthView actual) {
+        assertEquals(expected.getDaySelectorColor(), actual.getDaySelectorColor());
+        assertEquals(expected.getDayTextColor(), actual.getDayTextColor());
+    }
+}
@@ -0,0 +1,126 @@
+package space.schrws.cherrypicker;
+
+import android.app.Activity;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Picture;
+import android.os.Build;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Calendar;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Checks that {@link SimpleMonthView} draws from the shared label caches of
+ * {@link DateFormatCache} and allocates nothing once its grid is recorded.
+ * <p>
+ * The allocation check covers the Java side of a frame: the range, the days
+ * drawn over the grid and the call replaying it. It excludes the replay
+ * itself, which is native on a device and which Robolectric can't do, since
+ * its recording canvas is separate from the Picture.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.P)
+public class SimpleMonthViewDrawTest {
+    private static final int WARM_UP_DRAWS = 5;
+    private static final int MEASURED_DRAWS = 100;
+    private SimpleMonthView mMonthView;
+    @Before
+    public void setUp() {
+        final Activity activity = TestViews.newActivity();
+        mMonthView = TestViews.newMonthView(activity);
+        mMonthView.setMonthParams(15, Calendar.OCTOBER, 2018, Calendar.SUNDAY, 1, 31,
+                SimpleMonthView.ALL_DAYS_ENABLED);
+        TestViews.attach(activity, mMonthView);
+    }
+    @Test
+    public void labelsComeFromSharedCache() {
+        final Locale locale = Locale.getDefault();
+        final DateFormatCache formats = DateFormatCache.get(locale);
+        assertSame(formats, DateFormatCache.get(locale));
+        for (int day = 1; day <= 31; day++) {
+            assertSame(formats.getDayNumber(day), formats.getDayNumber(day));
+        }
+        final String label = mMonthView.getMonthYearLabel();
+        assertSame(formats.getMonthYearLabel(2018, Calendar.OCTOBER), label);
+        // Paging away and back reuses the memoized label.
+        mMonthView.setMonthParams(15, Calendar.NOVEMBER, 2018, Calendar.SUNDAY, 1, 30,
+                SimpleMonthView.ALL_DAYS_ENABLED);
+        mMonthView.setMonthParams(15, Calendar.OCTOBER, 2018, Calendar.SUNDAY, 1, 31,
+                SimpleMonthView.ALL_DAYS_ENABLED);
+        assertSame(label, mMonthView.getMonthYearLabel());
+    }
+    @Test
+    public void drawAllocatesNothing() {
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+        final com.sun.management.ThreadMXBean allocations =
+                (com.sun.management.ThreadMXBean) threads;
+        assumeTrue(allocations.isThreadAllocatedMemorySupported());
+        allocations.setThreadAllocatedMemoryEnabled(true);
+        final long threadId = Thread.currentThread().getId();
+        final Canvas canvas = new DiscardingCanvas();
+        // Records the grid and fills the caches.
+        for (int i = 0; i < WARM_UP_DRAWS; i++) {
+            mMonthView.onDraw(canvas);
+        }
+        allocations.getThreadAllocatedBytes(threadId);
+        final long before = allocations.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_DRAWS; i++) {
+            mMonthView.onDraw(canvas);
+        }
+        final long allocated = allocations.getThreadAllocatedBytes(threadId) - before;
+        assertEquals("bytes allocated by " + MEASURED_DRAWS + " draws", 0, allocated);
+        // Every measured draw replayed the grid recorded during the warm up.
+        assertEquals(1, mMonthView.getGridRecordCount());
+    }
+    /**
+     * Drops everything drawn into it. Robolectric's own canvas keeps a
+     * history of draw calls, which would count as allocations of the view.
+     */
+    private static class DiscardingCanvas extends Canvas {
+        @Override
+        public int save() {
+            return 1;
+        }
+        @Override
+        public void restore() {
+        }
+        @Override
+        public void translate(float dx, float dy) {
+        }
+        @Override
+        public boolean clipOutRect(int left, int top, int right, int bottom) {
+            return true;
+        }
+        /**
+         * Skips the replay of the grid, see the class docs.
+         */
+        @Override
+        public void drawPicture(Picture picture) {
+        }
+        @Override
+        public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+        }
+        @Override
+        public void drawCircle(float cx, float cy, float radius, Paint paint) {
+        }
+        @Override
+        public void drawText(char[] text, int index, int count, float x, float y, Paint paint) {
+        }
+        @Override
+        public void drawText(String text, float x, float y, Paint paint) {
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package space.schrws.cherrypicker;
+
+import android.app.Activity;
+import android.content.res.ColorStateList;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Rect;
+import android.os.Build;
+import android.view.KeyEvent;
+import android.view.MotionEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Calendar;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that {@link SimpleMonthView} replays its recorded grid while only
+ * the selection, highlight or range change, and records it again when the
+ * month, the week start or the text styling change.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.P)
+public class SimpleMonthViewGridRecordTest {
+    private SimpleMonthView mMonthView;
+    private Canvas mCanvas;
+    @Before
+    public void setUp() {
+        final Activity activity = TestViews.newActivity();
+        mMonthView = TestViews.newMonthView(activity);
+        mMonthView.setMonthParams(15, Calendar.OCTOBER, 2018, Calendar.SUNDAY, 1, 31,
+                SimpleMonthView.ALL_DAYS_ENABLED);
+        TestViews.attach(activity, mMonthView);
+        mCanvas = new Canvas(Bitmap.createBitmap(TestViews.WIDTH, TestViews.HEIGHT,
+                Bitmap.Config.ARGB_8888));
+        drawAndAssertRecordCount(1);
+    }
+    @Test
+    public void selectionChangesReplayGrid() {
+        mMonthView.setSelectedDay(16);
+        drawAndAssertRecordCount(1);
+        mMonthView.setSelectedDay(-1);
+        drawAndAssertRecordCount(1);
+        mMonthView.setSelectedRange(10, 20);
+        drawAndAssertRecordCount(1);
+        mMonthView.setSelectedRange(0, 32);
+        drawAndAssertRecordCount(1);
+        mMonthView.setSelectedRange(SimpleMonthView.NO_RANGE, SimpleMonthView.NO_RANGE);
+        drawAndAssertRecordCount(1);
+        mMonthView.setSelectedDays(1 << 4 | 1 << 5);
+        drawAndAssertRecordCount(1);
+        mMonthView.setSelectedDays(1 << 4);
+        drawAndAssertRecordCount(1);
+        mMonthView.setSelectedDays(0);
+        drawAndAssertRecordCount(1);
+    }
+    @Test
+    public void highlightChangesReplayGrid() {
+        pressKey(KeyEvent.KEYCODE_DPAD_RIGHT);
+        drawAndAssertRecordCount(1);
+        pressKey(KeyEvent.KEYCODE_DPAD_DOWN);
+        drawAndAssertRecordCount(1);
+        final Rect bounds = new Rect();
+        mMonthView.getBoundsForDay(20, bounds);
+        touch(MotionEvent.ACTION_DOWN, bounds);
+        drawAndAssertRecordCount(1);
+        touch(MotionEvent.ACTION_CANCEL, bounds);
+        drawAndAssertRecordCount(1);
+    }
+    @Test
+    public void monthChangeRecordsGrid() {
+        mMonthView.setMonthParams(15, Calendar.NOVEMBER, 2018, Calendar.SUNDAY, 1, 30,
+                SimpleMonthView.ALL_DAYS_ENABLED);
+        drawAndAssertRecordCount(2);
+    }
+    @Test
+    public void weekStartChangeRecordsGrid() {
+        mMonthView.setFirstDayOfWeek(Calendar.MONDAY);
+        drawAndAssertRecordCount(2);
+    }
+    @Test
+    public void appearanceChangeRecordsGrid() {
+        mMonthView.setDayTextAppearance(R.style.TextAppearance_Material_Widget_Calendar_Month);
+        drawAndAssertRecordCount(2);
+        mMonthView.setDayTextColor(ColorStateList.valueOf(Color.RED));
+        drawAndAssertRecordCount(3);
+    }
+    private void drawAndAssertRecordCount(int expected) {
+        mMonthView.draw(mCanvas);
+        assertEquals(expected, mMonthView.getGridRecordCount());
+    }
+    private void pressKey(int keyCode) {
+        mMonthView.onKeyDown(keyCode, new KeyEvent(KeyEvent.ACTION_DOWN, keyCode));
+    }
+    private void touch(int action, Rect bounds) {
+        final MotionEvent event = MotionEvent.obtain(0, 0, action,
+                bounds.exactCenterX(), bounds.exactCenterY(), 0);
+        mMonthView.onTouchEvent(event);
+        event.recycle();
+    }
+}
@@ -0,0 +1,90 @@
+package space.schrws.cherrypicker;
+
+import android.app.Activity;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.os.Build;
+import android.view.KeyEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Calendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that selecting a day or moving the keyboard focus in a
+ * {@link SimpleMonthView} only invalidates the cells that changed, and only
+ * those cells are drawn over the recorded grid on the next frame.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.P)
+public class SimpleMonthViewInvalidateTest {
+    private SimpleMonthView mMonthView;
+    private Canvas mCanvas;
+    @Before
+    public void setUp() {
+        final Activity activity = TestViews.newActivity();
+        mMonthView = TestViews.newMonthView(activity);
+        // Today is never in October 2018, so only the changed days are drawn
+        // over the grid. The 15th through the 17th share a row.
+        mMonthView.setMonthParams(15, Calendar.OCTOBER, 2018, Calendar.SUNDAY, 1, 31,
+                SimpleMonthView.ALL_DAYS_ENABLED);
+        TestViews.attach(activity, mMonthView);
+        mCanvas = new Canvas(Bitmap.createBitmap(TestViews.WIDTH, TestViews.HEIGHT,
+                Bitmap.Config.ARGB_8888));
+        // Records the grid.
+        mMonthView.draw(mCanvas);
+        mMonthView.resetDrawMetrics();
+    }
+    @Test
+    public void selectingDayInvalidatesItsCells() {
+        mMonthView.setSelectedDay(16);
+        assertPartialInvalidation(15, 16);
+        mMonthView.draw(mCanvas);
+        assertEquals(1, mMonthView.getDrawCount());
+        // Only the selected day is drawn, the rest is replayed.
+        assertEquals(1, mMonthView.getDrawnCellCount());
+    }
+    @Test
+    public void selectingSameDayInvalidatesNothing() {
+        mMonthView.setSelectedDay(15);
+        assertEquals(0, mMonthView.getInvalidatedArea());
+    }
+    @Test
+    public void keyMoveInvalidatesItsCells() {
+        // The first press moves the focus from the selected day.
+        pressKey(KeyEvent.KEYCODE_DPAD_RIGHT);
+        mMonthView.draw(mCanvas);
+        mMonthView.resetDrawMetrics();
+        pressKey(KeyEvent.KEYCODE_DPAD_RIGHT);
+        assertPartialInvalidation(16, 17);
+        mMonthView.draw(mCanvas);
+        // The selected and the focused days.
+        assertEquals(2, mMonthView.getDrawnCellCount());
+    }
+    private void pressKey(int keyCode) {
+        assertTrue(mMonthView.onKeyDown(keyCode, new KeyEvent(KeyEvent.ACTION_DOWN, keyCode)));
+    }
+    /**
+     * Asserts that the invalidated area covers both days, but only a small
+     * part of the view.
+     */
+    private void assertPartialInvalidation(int firstDay, int secondDay) {
+        final Rect cells = new Rect();
+        final Rect bounds = new Rect();
+        assertTrue(mMonthView.getBoundsForDay(firstDay, cells));
+        assertTrue(mMonthView.getBoundsForDay(secondDay, bounds));
+        cells.union(bounds);
+        final long area = mMonthView.getInvalidatedArea();
+        final long viewArea = (long) mMonthView.getWidth() * mMonthView.getHeight();
+        assertTrue("invalidated " + area, area >= (long) cells.width() * cells.height());
+        assertTrue("invalidated " + area + " of " + viewArea, area * 8 < viewArea);
+    }
+}
@@ -0,0 +1,90 @@
+package space.schrws.cherrypicker;
+
+import android.app.Activity;
+import android.os.Build;
+import android.view.KeyEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Calendar;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that the arrow keys move the focus of a {@link SimpleMonthView}
+ * past days its enabled-day mask leaves out.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.P)
+public class SimpleMonthViewKeyTest {
+    private Activity mActivity;
+    private SimpleMonthView mMonthView;
+    private int mClickedDay;
+    @Before
+    public void setUp() {
+        mActivity = TestViews.newActivity();
+        mMonthView = TestViews.newMonthView(mActivity);
+        mMonthView.setOnDayClickListener(new SimpleMonthView.OnDayClickListener() {
+            @Override
+            public void onDayClick(SimpleMonthView view, Calendar day) {
+                mClickedDay = day.get(Calendar.DAY_OF_MONTH);
+            }
+        });
+    }
+    @Test
+    public void rightSkipsDisabledDay() {
+        setUpOctober(16);
+        pressKey(KeyEvent.KEYCODE_DPAD_RIGHT);
+        assertEquals(17, clickFocusedDay());
+    }
+    @Test
+    public void downSkipsDisabledWeek() {
+        setUpOctober(22);
+        pressKey(KeyEvent.KEYCODE_DPAD_DOWN);
+        assertEquals(29, clickFocusedDay());
+    }
+    @Test
+    public void upSkipsDisabledWeek() {
+        setUpOctober(8);
+        pressKey(KeyEvent.KEYCODE_DPAD_UP);
+        assertEquals(1, clickFocusedDay());
+    }
+    @Test
+    public void leftStopsAtDisabledStartOfWeek() {
+        // October 14th, 2018 is a Sunday, the first day of its week.
+        setUpOctober(14);
+        pressKey(KeyEvent.KEYCODE_DPAD_LEFT);
+        assertEquals(15, clickFocusedDay());
+    }
+    @Test
+    public void downStopsWithoutEnabledDayLeft() {
+        setUpOctober(22, 29);
+        pressKey(KeyEvent.KEYCODE_DPAD_DOWN);
+        assertEquals(15, clickFocusedDay());
+    }
+    /**
+     * Shows October 2018 with the 15th, a Monday, selected and the specified
+     * days disabled.
+     */
+    private void setUpOctober(int... disabledDays) {
+        int enabledDays = SimpleMonthView.ALL_DAYS_ENABLED;
+        for (int day : disabledDays) {
+            enabledDays &= ~(1 << (day - 1));
+        }
+        mMonthView.setMonthParams(15, Calendar.OCTOBER, 2018, Calendar.SUNDAY, 1, 31,
+                enabledDays);
+        TestViews.attach(mActivity, mMonthView);
+    }
+    private void pressKey(int keyCode) {
+        mMonthView.onKeyDown(keyCode, new KeyEvent(KeyEvent.ACTION_DOWN, keyCode));
+    }
+    private int clickFocusedDay() {
+        mClickedDay = -1;
+        pressKey(KeyEvent.KEYCODE_ENTER);
+        return mClickedDay;
+    }
+}
@@ -0,0 +1,59 @@
+package space.schrws.cherrypicker;
+
+import android.app.Activity;
+import android.view.View;
+import android.view.View.MeasureSpec;
+import android.view.ViewGroup;
+
+import org.robolectric.Robolectric;
+import org.robolectric.android.controller.ActivityController;
+
+/**
+ * Hosts picker views in Robolectric tests. ViewPager and RecyclerView only
+ * populate once attached to a window, so views under test are set as the
+ * content of a themed Activity and then measured and laid out by hand.
+ */
+final class TestViews {
+    static final int WIDTH = 1080;
+    static final int HEIGHT = 1200;
+    private TestViews() {
+    }
+    /**
+     * @return a resumed Activity with an AppCompat theme
+     */
+    static Activity newActivity() {
+        final ActivityController<Activity> controller = Robolectric.buildActivity(Activity.class);
+        controller.get().setTheme(R.style.Theme_AppCompat_Light);
+        return controller.setup().get();
+    }
+    /**
+     * @return a month view styled with the default text appearances of
+     *         {@link DayPickerView}, which it needs to draw
+     */
+    static SimpleMonthView newMonthView(Activity activity) {
+        final SimpleMonthView monthView = new SimpleMonthView(activity);
+        monthView.setMonthTextAppearance(R.style.TextAppearance_Material_Widget_Calendar_Month);
+        monthView.setDayOfWeekTextAppearance(
+                R.style.TextAppearance_Material_Widget_Calendar_DayOfWeek);
+        monthView.setDayTextAppearance(R.style.TextAppearance_Material_Widget_Calendar_Day);
+        return monthView;
+    }
+    /**
+     * Sets the view as the content of the Activity, then lays it out at the
+     * default size.
+     */
+    static <T extends View> T attach(Activity activity, T view) {
+        activity.setContentView(view, new ViewGroup.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        layout(view, WIDTH, HEIGHT);
+        return view;
+    }
+    /**
+     * Measures the view exactly at the specified size and lays it out.
+     */
+    static void layout(View view, int width, int height) {
+        view.measure(MeasureSpec.makeMeasureSpec(width, MeasureSpec.EXACTLY),
+                MeasureSpec.makeMeasureSpec(height, MeasureSpec.EXACTLY));
+        view.layout(0, 0, width, height);
+    }
+}